@@ -2,10 +2,13 @@ package com.example.bankcards;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class BankCardsApplication {
     public static void main(String[] args) {
-        SpringApplication.run(BankCardsApplication.class, args);
+        SpringApplication application = new SpringApplication(BankCardsApplication.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(2048));
+        application.run(args);
     }
 }
@@ -1,6 +1,9 @@
 package com.example.bankcards.config;
 
 import com.example.bankcards.exception.exception.UnauthorizedException;
+import com.example.bankcards.security.jwt.cache.VerifiedTokenCache;
+import com.example.bankcards.security.jwt.model.JwtPrincipal;
+import com.example.bankcards.security.jwt.revocation.TokenRevocationList;
 import com.example.bankcards.util.JwtTokenUtils;
 import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.FilterChain;
@@ -10,18 +13,22 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class JwtRequestFilter extends OncePerRequestFilter {
     private final JwtTokenUtils jwtTokenUtils;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenRevocationList tokenRevocationList;
 
 
     @Override
@@ -29,29 +36,52 @@ public class JwtRequestFilter extends OncePerRequestFilter {
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
         String authHeader = request.getHeader("Authorization");
-        String username = null;
-        String jwtToken = null;
+        VerifiedTokenCache.Entry verifiedToken = null;
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            jwtToken = authHeader.substring(7);
-            try {
-                username = jwtTokenUtils.getUsername(jwtToken);
-            } catch (ExpiredJwtException e) {
-                log.error("Token expired: {}", e.getMessage());
-                throw new UnauthorizedException("Token expired");
-            }
+            verifiedToken = verify(authHeader.substring(7));
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        if (verifiedToken != null && tokenRevocationList.isRevoked(verifiedToken.principal())) {
+            log.warn("Rejected revoked token {} of user {}",
+                    verifiedToken.principal().getTokenId(), verifiedToken.principal().getUsername());
+            verifiedToken = null;
+        }
+
+        if (verifiedToken != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(
-                    username,
+                    verifiedToken.principal(),
                     null,
-                    jwtTokenUtils.getRoles(jwtToken).stream()
-                            .map(SimpleGrantedAuthority::new)
-                            .toList()
+                    verifiedToken.authorities()
             );
             SecurityContextHolder.getContext().setAuthentication(token);
         }
         filterChain.doFilter(request, response);
     }
+
+    private VerifiedTokenCache.Entry verify(String jwtToken) {
+        VerifiedTokenCache.Entry cached = verifiedTokenCache.get(jwtToken);
+        if (cached != null) {
+            return cached;
+        }
+
+        JwtPrincipal principal;
+        try {
+            principal = jwtTokenUtils.parseToken(jwtToken);
+        } catch (ExpiredJwtException e) {
+            log.error("Token expired: {}", e.getMessage());
+            throw new UnauthorizedException("Token expired");
+        }
+
+        if (principal.getId() == null) {
+            log.warn("Token for user {} has no user id claim", principal.getUsername());
+            return null;
+        }
+
+        List<GrantedAuthority> authorities = principal.getRoles().stream()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+        verifiedTokenCache.put(jwtToken, principal, authorities);
+        return new VerifiedTokenCache.Entry(principal, authorities);
+    }
 }
@@ -1,13 +1,26 @@
 package com.example.bankcards.config;
 
+import com.example.bankcards.security.jwt.metrics.LoginMetrics;
+import com.example.bankcards.security.password.BoundedPasswordEncoder;
+import com.example.bankcards.security.password.TimedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 public class PasswordConfig {
     @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(LoginMetrics loginMetrics,
+                                           MeterRegistry meterRegistry,
+                                           @Value("${password-hashing.pool-size}") int poolSize,
+                                           @Value("${password-hashing.queue-capacity}") int queueCapacity) {
+        return new BoundedPasswordEncoder(
+                new TimedPasswordEncoder(new BCryptPasswordEncoder(), loginMetrics),
+                poolSize,
+                queueCapacity,
+                meterRegistry);
     }
 }
@@ -1,6 +1,7 @@
 package com.example.bankcards.controller.card;
 
 import com.example.bankcards.dto.card.CardResponse;
+import com.example.bankcards.dto.card.CardScrollResponse;
 import com.example.bankcards.dto.card.CardUpdateStatusRequest;
 import com.example.bankcards.dto.transaction.TransactionFullResponse;
 import com.example.bankcards.dto.transaction.TransactionResponse;
@@ -23,9 +24,12 @@ import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.SortDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -64,6 +68,35 @@ public class CardAdminController {
         return cardService.getCards(status, username, pageable);
     }
 
+    @Operation(
+            summary = "Получить список карт по курсору",
+            description = "Фильтрация по статусу и владельцу без OFFSET: следующая страница запрашивается по курсору " +
+                    "из предыдущего ответа, время ответа не зависит от глубины. Требует роли ADMIN",
+            parameters = {
+                    @Parameter(name = "status", description = "Статус карты", example = "ACTIVE", in = ParameterIn.QUERY),
+                    @Parameter(name = "username", description = "Имя пользователя", example = "user123", in = ParameterIn.QUERY),
+                    @Parameter(name = "cursor", description = "Курсор следующей страницы", in = ParameterIn.QUERY),
+                    @Parameter(name = "size", description = "Размер страницы (до 100)", example = "10", in = ParameterIn.QUERY),
+                    @Parameter(name = "sort", description = "Поле сортировки: balance, expirationDate или id. " +
+                            "Игнорируется, если передан курсор", example = "balance,asc", in = ParameterIn.QUERY)
+            }
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Успешное получение страницы"),
+            @ApiResponse(responseCode = "400", description = "Неверный курсор или параметры"),
+            @ApiResponse(responseCode = "403", description = "Доступ запрещен", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Не авторизован", content = @Content)
+    })
+    @GetMapping("/scroll")
+    public CardScrollResponse scrollCards(
+            @RequestParam(required = false) CardStatus status,
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @Parameter(hidden = true) @SortDefault(sort = "balance", direction = Sort.Direction.ASC) Sort sort) {
+        return cardService.scrollCards(status, username, cursor, sort, size);
+    }
+
     @Operation(
             summary = "Обновить статус карты",
             description = "Модерация статуса карты (например, блокировка). Требует роли ADMIN"
@@ -96,7 +129,7 @@ public class CardAdminController {
 
     @Operation(
             summary = "Обновить статус транзакции",
-            description = "Изменение статуса финансовой операции. Требует роли ADMIN",
+            description = "Завершение транзакции в статусе PENDING: SUCCESS проводит перевод, FAILED отменяет его. Требует роли ADMIN",
             parameters = @Parameter(name = "transactionId", description = "ID транзакции", example = "1", in = ParameterIn.PATH)
     )
     @ApiResponses({
@@ -112,13 +145,15 @@ public class CardAdminController {
 
     @Operation(
             summary = "Получить список транзакций",
-            description = "Фильтрация по карте и статусу с пагинацией. Требует роли ADMIN",
+            description = "Фильтрация по карте, статусу и периоду с пагинацией. Требует роли ADMIN",
             parameters = {
                     @Parameter(name = "sourceCardId", description = "ID исходной карты", example = "1", in = ParameterIn.QUERY),
                     @Parameter(name = "status", description = "Статус транзакции", example = "SUCCESS", in = ParameterIn.QUERY),
+                    @Parameter(name = "from", description = "Начало периода (включительно), по умолчанию без ограничения", example = "2024-01-01T00:00:00", in = ParameterIn.QUERY),
+                    @Parameter(name = "to", description = "Конец периода (не включительно), по умолчанию текущий момент", example = "2024-04-01T00:00:00", in = ParameterIn.QUERY),
                     @Parameter(name = "page", description = "Номер страницы", example = "0", in = ParameterIn.QUERY),
                     @Parameter(name = "size", description = "Размер страницы", example = "10", in = ParameterIn.QUERY),
-                    @Parameter(name = "sort", description = "Поле сортировки", example = "timestamp,asc", in = ParameterIn.QUERY)
+                    @Parameter(name = "sort", description = "Поле сортировки: id, amount, timestamp или status", example = "timestamp,asc", in = ParameterIn.QUERY)
             }
     )
     @ApiResponses({
@@ -129,10 +164,12 @@ public class CardAdminController {
     public List<TransactionFullResponse> getTransactions(
             @RequestParam(required = false) Long sourceCardId,
             @RequestParam(required = false) TransactionStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
             @ParameterObject @PageableDefault(
                     sort = "timestamp",
                     direction = Sort.Direction.ASC
             ) Pageable pageable) {
-        return transactionService.getTransactions(sourceCardId, status, pageable);
+        return transactionService.getTransactions(sourceCardId, status, from, to, pageable);
     }
 }
@@ -2,10 +2,13 @@ package com.example.bankcards.controller.card;
 
 import com.example.bankcards.dto.card.CardRequest;
 import com.example.bankcards.dto.card.CardResponse;
+import com.example.bankcards.dto.card.CardScrollResponse;
 import com.example.bankcards.dto.transaction.TransactionFullResponse;
+import com.example.bankcards.dto.transaction.TransactionHistoryResponse;
 import com.example.bankcards.dto.transaction.TransactionRequest;
 import com.example.bankcards.dto.transaction.TransactionResponse;
 import com.example.bankcards.entity.transaction.TransactionStatus;
+import com.example.bankcards.security.jwt.model.JwtPrincipal;
 import com.example.bankcards.service.card.CardService;
 import com.example.bankcards.service.transaction.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -22,10 +25,14 @@ import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.SortDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.security.Principal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -49,7 +56,7 @@ public class CardPrivateController {
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public CardResponse create(
-            @Parameter(hidden = true) Principal principal,
+            @Parameter(hidden = true) @AuthenticationPrincipal JwtPrincipal principal,
             @RequestBody @Valid CardRequest cardRequest) {
         return cardService.create(principal, cardRequest);
     }
@@ -67,7 +74,7 @@ public class CardPrivateController {
     @DeleteMapping("/{cardId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteOwnerCard(
-            @Parameter(hidden = true) Principal principal,
+            @Parameter(hidden = true) @AuthenticationPrincipal JwtPrincipal principal,
             @PathVariable Long cardId) {
         cardService.deleteOwnerCard(principal, cardId);
     }
@@ -87,7 +94,7 @@ public class CardPrivateController {
     })
     @GetMapping
     public List<CardResponse> getCardsByOwner(
-            @Parameter(hidden = true) Principal principal,
+            @Parameter(hidden = true) @AuthenticationPrincipal JwtPrincipal principal,
             @ParameterObject @PageableDefault(
                     sort = "balance",
                     direction = Sort.Direction.ASC
@@ -96,31 +103,64 @@ public class CardPrivateController {
     }
 
     @Operation(
-            summary = "Создать транзакцию",
-            description = "Перевод средств между картами. Требует роли USER"
+            summary = "Получить карты пользователя по курсору",
+            description = "Постраничный просмотр карт текущего пользователя без OFFSET: следующая страница запрашивается " +
+                    "по курсору из предыдущего ответа. Требует роли USER",
+            parameters = {
+                    @Parameter(name = "cursor", description = "Курсор следующей страницы", in = ParameterIn.QUERY),
+                    @Parameter(name = "size", description = "Размер страницы (до 100)", example = "10", in = ParameterIn.QUERY),
+                    @Parameter(name = "sort", description = "Поле сортировки: balance, expirationDate или id. " +
+                            "Игнорируется, если передан курсор", example = "balance,asc", in = ParameterIn.QUERY)
+            }
     )
     @ApiResponses({
-            @ApiResponse(responseCode = "201", description = "Транзакция создана"),
-            @ApiResponse(responseCode = "400", description = "Неверные параметры перевода"),
+            @ApiResponse(responseCode = "200", description = "Успешное получение страницы"),
+            @ApiResponse(responseCode = "400", description = "Неверный курсор или параметры"),
             @ApiResponse(responseCode = "403", description = "Доступ запрещен")
     })
+    @GetMapping("/scroll")
+    public CardScrollResponse scrollCardsByOwner(
+            @Parameter(hidden = true) @AuthenticationPrincipal JwtPrincipal principal,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @Parameter(hidden = true) @SortDefault(sort = "balance", direction = Sort.Direction.ASC) Sort sort) {
+        return cardService.scrollCardsByOwner(principal, cursor, sort, size);
+    }
+
+    @Operation(
+            summary = "Создать транзакцию",
+            description = "Перевод средств между картами. Требует роли USER. "
+                    + "В асинхронном режиме перевод ставится в очередь со статусом PENDING"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Транзакция проведена или отклонена"),
+            @ApiResponse(responseCode = "202", description = "Транзакция принята в обработку"),
+            @ApiResponse(responseCode = "400", description = "Неверные параметры перевода или Idempotency-Key использован для другого перевода"),
+            @ApiResponse(responseCode = "403", description = "Доступ запрещен"),
+            @ApiResponse(responseCode = "503", description = "Очередь переводов переполнена")
+    })
     @PostMapping("/transactions")
-    @ResponseStatus(HttpStatus.CREATED)
-    public TransactionResponse createTransaction(
-            @Parameter(hidden = true) Principal principal,
+    public ResponseEntity<TransactionResponse> createTransaction(
+            @Parameter(hidden = true) @AuthenticationPrincipal JwtPrincipal principal,
+            @Parameter(description = "Ключ идемпотентности: повтор с тем же ключом вернет ответ первого запроса")
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestBody @Valid TransactionRequest request) {
-        return transactionService.createTransaction(principal, request);
+        TransactionResponse response = transactionService.createTransaction(principal, request, idempotencyKey);
+        HttpStatus status = response.getStatus() == TransactionStatus.PENDING ? HttpStatus.ACCEPTED : HttpStatus.CREATED;
+        return ResponseEntity.status(status).body(response);
     }
 
     @Operation(
             summary = "Получить транзакции по карте",
-            description = "История операций по конкретной карте с фильтром по статусу. Требует роли USER",
+            description = "История операций по конкретной карте с фильтром по статусу и периоду. Требует роли USER",
             parameters = {
                     @Parameter(name = "cardId", description = "ID карты", example = "1", in = ParameterIn.PATH),
                     @Parameter(name = "status", description = "Статус транзакции", example = "SUCCESS", required = true, in = ParameterIn.QUERY),
+                    @Parameter(name = "from", description = "Начало периода (включительно), по умолчанию без ограничения. Архивные месяцы читаются, только если он задан и раньше горизонта архива", example = "2024-01-01T00:00:00", in = ParameterIn.QUERY),
+                    @Parameter(name = "to", description = "Конец периода (не включительно), по умолчанию текущий момент", example = "2024-04-01T00:00:00", in = ParameterIn.QUERY),
                     @Parameter(name = "page", description = "Номер страницы", example = "0", in = ParameterIn.QUERY),
                     @Parameter(name = "size", description = "Размер страницы", example = "10", in = ParameterIn.QUERY),
-                    @Parameter(name = "sort", description = "Поле сортировки", example = "timestamp,asc", in = ParameterIn.QUERY)
+                    @Parameter(name = "sort", description = "Поле сортировки: id, amount, timestamp или status", example = "timestamp,asc", in = ParameterIn.QUERY)
             }
     )
     @ApiResponses({
@@ -132,10 +172,37 @@ public class CardPrivateController {
     public List<TransactionFullResponse> getTransactionsByCard(
             @PathVariable Long cardId,
             @RequestParam TransactionStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
             @ParameterObject @PageableDefault(
                     sort = "timestamp",
                     direction = Sort.Direction.ASC
             ) Pageable pageable) {
-        return transactionService.getTransactionsByCard(cardId, status, pageable);
+        return transactionService.getTransactionsByCard(cardId, status, from, to, pageable);
+    }
+
+    @Operation(
+            summary = "Получить историю операций по карте",
+            description = "Входящие и исходящие переводы по карте текущего пользователя, от новых к старым. " +
+                    "Следующая страница запрашивается по курсору из предыдущего ответа. Требует роли USER",
+            parameters = {
+                    @Parameter(name = "cardId", description = "ID карты", example = "1", in = ParameterIn.PATH),
+                    @Parameter(name = "cursor", description = "Курсор следующей страницы", in = ParameterIn.QUERY),
+                    @Parameter(name = "size", description = "Размер страницы (до 100)", example = "20", in = ParameterIn.QUERY)
+            }
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Успешное получение страницы"),
+            @ApiResponse(responseCode = "400", description = "Неверный курсор или параметры"),
+            @ApiResponse(responseCode = "403", description = "Доступ запрещен"),
+            @ApiResponse(responseCode = "404", description = "Карта не найдена")
+    })
+    @GetMapping("/{cardId}/history")
+    public TransactionHistoryResponse getCardHistory(
+            @Parameter(hidden = true) @AuthenticationPrincipal JwtPrincipal principal,
+            @PathVariable Long cardId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return transactionService.getCardHistory(principal, cardId, cursor, size);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,53 @@
+package com.example.bankcards.controller.token;
+
+import com.example.bankcards.security.jwt.service.TokenRevocationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/admin/tokens")
+@RequiredArgsConstructor
+@Tag(name = "TokenAdminController", description = "Отзыв JWT токенов (админ)")
+@SecurityRequirement(name = "JWT")
+public class TokenAdminController {
+    private final TokenRevocationService tokenRevocationService;
+
+    @Operation(
+            summary = "Отозвать токен",
+            description = "Отзыв access-токена по его идентификатору (jti). Требует роли ADMIN",
+            parameters = @Parameter(name = "tokenId", description = "Идентификатор токена (jti)",
+                    example = "3f6c2a4e-8d1b-4c7a-9e2f-5b0d1a7c9e31", in = ParameterIn.PATH)
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", description = "Токен отозван"),
+            @ApiResponse(responseCode = "403", description = "Доступ запрещен")
+    })
+    @DeleteMapping("/{tokenId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void revokeToken(@PathVariable String tokenId) {
+        tokenRevocationService.revokeToken(tokenId);
+    }
+
+    @Operation(
+            summary = "Отозвать все токены пользователя",
+            description = "Отзыв всех выданных пользователю access- и refresh-токенов. Требует роли ADMIN",
+            parameters = @Parameter(name = "userId", description = "ID пользователя", example = "1", in = ParameterIn.PATH)
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", description = "Токены отозваны"),
+            @ApiResponse(responseCode = "404", description = "Пользователь не найден")
+    })
+    @DeleteMapping("/users/{userId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void revokeUserTokens(@PathVariable Long userId) {
+        tokenRevocationService.revokeUserTokens(userId);
+    }
+}
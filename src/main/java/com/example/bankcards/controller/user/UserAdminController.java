@@ -2,6 +2,7 @@ package com.example.bankcards.controller.user;
 
 import com.example.bankcards.dto.user.ChangeRoleRequest;
 import com.example.bankcards.dto.user.UserResponse;
+import com.example.bankcards.security.jwt.model.JwtPrincipal;
 import com.example.bankcards.service.user.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -17,9 +18,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.security.Principal;
 import java.util.List;
 
 @RestController
@@ -41,7 +42,7 @@ public class UserAdminController {
     })
     @PatchMapping
     public UserResponse changeRole(
-            @Parameter(hidden = true) Principal principal,
+            @Parameter(hidden = true) @AuthenticationPrincipal JwtPrincipal principal,
             @RequestBody @Valid ChangeRoleRequest changeRoleRequest) {
         return userService.changeUserRole(principal, changeRoleRequest);
     }
@@ -96,7 +97,7 @@ public class UserAdminController {
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteById(
             @PathVariable Long userId,
-            @Parameter(hidden = true) Principal principal) {
+            @Parameter(hidden = true) @AuthenticationPrincipal JwtPrincipal principal) {
         userService.deleteById(userId, principal);
     }
 }
@@ -2,6 +2,7 @@ package com.example.bankcards.controller.user;
 
 import com.example.bankcards.dto.user.UserResponse;
 import com.example.bankcards.dto.user.UserUpdateRequest;
+import com.example.bankcards.security.jwt.model.JwtPrincipal;
 import com.example.bankcards.service.user.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -11,10 +12,9 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.security.Principal;
-
 @RestController
 @RequestMapping("/users")
 @RequiredArgsConstructor
@@ -34,7 +34,7 @@ public class UserPrivateController {
     })
     @PatchMapping
     public UserResponse update(
-            @Parameter(hidden = true) Principal principal,
+            @Parameter(hidden = true) @AuthenticationPrincipal JwtPrincipal principal,
             @RequestBody @Valid UserUpdateRequest userUpdateRequest) {
         return userService.update(principal, userUpdateRequest);
     }
@@ -0,0 +1,17 @@
+package com.example.bankcards.dto.transaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransactionHistoryResponse {
+    private List<TransactionFullResponse> content;
+    private String nextCursor;
+}
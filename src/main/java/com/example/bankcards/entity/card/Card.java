@@ -3,10 +3,7 @@ package com.example.bankcards.entity.card;
 import com.example.bankcards.entity.user.User;
 import com.example.bankcards.util.CardNumberEncryptorConverter;
 import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -22,10 +19,22 @@ public class Card {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * Loaded only when read (bytecode enhancement), so listings that mask from {@link #last4} never decrypt it.
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Basic(fetch = FetchType.LAZY)
     @JoinColumn(name = "card_number", nullable = false)
     @Convert(converter = CardNumberEncryptorConverter.class)
     private String cardNumber;
 
+    @Column(name = "card_number_hash", unique = true, length = 64)
+    private String cardNumberHash;
+
+    @Column(name = "last4", length = 4)
+    private String last4;
+
     @ManyToOne
     @JoinColumn(name = "owner_id", nullable = false)
     private User owner;
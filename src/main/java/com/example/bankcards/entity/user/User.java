@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -30,6 +31,10 @@ public class User {
     @JoinColumn(name = "email", nullable = false)
     private String email;
 
+    /**
+     * Batch-loaded for up to 100 users at a time when a page of cards or transactions brings in their owners.
+     */
+    @BatchSize(size = 100)
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(
             name = "user_roles",
@@ -78,4 +78,12 @@ public class ErrorHandler {
                 "Creation error.",
                 e.getMessage());
     }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ApiError handleServiceUnavailableExceptions(final ServiceUnavailableException e) {
+        return new ApiError(HttpStatus.SERVICE_UNAVAILABLE,
+                "Service is overloaded.",
+                e.getMessage());
+    }
 }
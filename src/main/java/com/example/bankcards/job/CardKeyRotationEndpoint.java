@@ -0,0 +1,21 @@
+package com.example.bankcards.job;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/keyrotation}: progress of the card key rotation.
+ */
+@Component
+@Endpoint(id = "keyrotation")
+@RequiredArgsConstructor
+public class CardKeyRotationEndpoint {
+    private final CardKeyRotationJob cardKeyRotationJob;
+
+    @ReadOperation
+    public CardKeyRotationJob.Status status() {
+        return cardKeyRotationJob.status();
+    }
+}
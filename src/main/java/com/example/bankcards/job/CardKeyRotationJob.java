@@ -0,0 +1,147 @@
+package com.example.bankcards.job;
+
+import com.example.bankcards.exception.exception.EncryptionException;
+import com.example.bankcards.util.CardKeyProvider;
+import com.example.bankcards.util.CardNumberEncryptorConverter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Re-encrypts card numbers under the active key version, one resumable batch per tick.
+ */
+@Slf4j
+@Component
+public class CardKeyRotationJob {
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CardNumberEncryptorConverter converter;
+    private final int keyVersion;
+    private final int batchSize;
+
+    public CardKeyRotationJob(JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              CardNumberEncryptorConverter converter,
+                              CardKeyProvider keyProvider,
+                              @Value("${encryption.rotation.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.converter = converter;
+        this.keyVersion = keyProvider.activeVersion();
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${encryption.rotation.interval:PT1S}")
+    public void run() {
+        if (keyVersion == CardKeyProvider.INITIAL_VERSION) {
+            return;
+        }
+
+        Progress progress = progress();
+        if (progress != null && progress.completedAt() != null) {
+            return;
+        }
+        long lastCardId = progress == null ? 0 : progress.lastCardId();
+
+        List<CardRow> rows = jdbcTemplate.query(
+                "SELECT id, card_number FROM cards WHERE id > ? ORDER BY id LIMIT ?",
+                (rs, rowNum) -> new CardRow(rs.getLong("id"), rs.getBytes("card_number")),
+                lastCardId, batchSize);
+
+        List<Object[]> updates = new ArrayList<>();
+        for (CardRow row : rows) {
+            if (converter.isCurrent(row.cardNumber())) {
+                continue;
+            }
+            try {
+                String cardNumber = converter.convertToEntityAttribute(row.cardNumber());
+                updates.add(new Object[]{converter.convertToDatabaseColumn(cardNumber), row.id(), row.cardNumber()});
+            } catch (EncryptionException e) {
+                log.error("Cannot re-encrypt card ID {}: {}", row.id(), e.getMessage());
+            }
+        }
+
+        long nextCardId = rows.isEmpty() ? lastCardId : rows.get(rows.size() - 1).id();
+        boolean completed = rows.size() < batchSize;
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE cards SET card_number = ? WHERE id = ? AND card_number = ?", updates);
+            }
+            saveProgress(progress == null, nextCardId, updates.size(), completed);
+        });
+
+        if (completed) {
+            log.info("Card key rotation to version {} completed", keyVersion);
+        } else {
+            log.debug("Rotated {} cards to key version {} up to ID {}", updates.size(), keyVersion, nextCardId);
+        }
+    }
+
+    /**
+     * Snapshot for the {@code keyrotation} actuator endpoint.
+     */
+    public Status status() {
+        Progress progress = progress();
+        long lastCardId = progress == null ? 0 : progress.lastCardId();
+        Long remainingRows = jdbcTemplate.queryForObject("SELECT count(*) FROM cards WHERE id > ?", Long.class, lastCardId);
+
+        if (progress == null) {
+            return new Status(keyVersion, lastCardId, 0, remainingRows, 0, false);
+        }
+
+        LocalDateTime end = progress.completedAt() != null ? progress.completedAt() : progress.updatedAt();
+        double seconds = Math.max(Duration.between(progress.startedAt(), end).toMillis(), 1) / 1000.0;
+        return new Status(keyVersion, lastCardId, progress.rotatedRows(), remainingRows,
+                progress.rotatedRows() / seconds, progress.completedAt() != null);
+    }
+
+    private Progress progress() {
+        return jdbcTemplate.query(
+                "SELECT last_card_id, rotated_rows, started_at, updated_at, completed_at FROM card_key_rotation WHERE key_version = ?",
+                rs -> rs.next()
+                        ? new Progress(
+                                rs.getLong("last_card_id"),
+                                rs.getLong("rotated_rows"),
+                                rs.getTimestamp("started_at").toLocalDateTime(),
+                                rs.getTimestamp("updated_at").toLocalDateTime(),
+                                rs.getTimestamp("completed_at") == null ? null : rs.getTimestamp("completed_at").toLocalDateTime())
+                        : null,
+                keyVersion);
+    }
+
+    private void saveProgress(boolean first, long lastCardId, int rotated, boolean completed) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Timestamp completedAt = completed ? now : null;
+        if (first) {
+            jdbcTemplate.update(
+                    "INSERT INTO card_key_rotation (key_version, last_card_id, rotated_rows, started_at, updated_at, completed_at) " +
+                            "VALUES (?, ?, ?, ?, ?, ?)",
+                    keyVersion, lastCardId, rotated, now, now, completedAt);
+        } else {
+            jdbcTemplate.update(
+                    "UPDATE card_key_rotation SET last_card_id = ?, rotated_rows = rotated_rows + ?, updated_at = ?, completed_at = ? " +
+                            "WHERE key_version = ?",
+                    lastCardId, rotated, now, completedAt, keyVersion);
+        }
+    }
+
+    public record Status(int keyVersion, long lastCardId, long rotatedRows, Long remainingRows,
+                         double rowsPerSecond, boolean completed) {
+    }
+
+    private record CardRow(long id, byte[] cardNumber) {
+    }
+
+    private record Progress(long lastCardId, long rotatedRows, LocalDateTime startedAt,
+                            LocalDateTime updatedAt, LocalDateTime completedAt) {
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.bankcards.job;
+
+import com.example.bankcards.exception.exception.EncryptionException;
+import com.example.bankcards.util.CardMaskingUtil;
+import com.example.bankcards.util.CardNumberBlindIndex;
+import com.example.bankcards.util.CardNumberEncryptorConverter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Re-encrypts rows written by older versions with AES-GCM and fills {@code last4} and the blind index.
+ */
+@Slf4j
+@Component
+public class CardNumberMigrationJob {
+    private static final String UPDATE =
+            "UPDATE cards SET card_number = ?, card_number_hash = ?, last4 = ? WHERE id = ? AND card_number = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CardNumberEncryptorConverter converter;
+    private final CardNumberBlindIndex cardNumberBlindIndex;
+    private final int batchSize;
+
+    private volatile boolean completed;
+
+    public CardNumberMigrationJob(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  CardNumberEncryptorConverter converter,
+                                  CardNumberBlindIndex cardNumberBlindIndex,
+                                  @Value("${card.number-migration.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.converter = converter;
+        this.cardNumberBlindIndex = cardNumberBlindIndex;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${card.number-migration.interval:PT1M}")
+    public void run() {
+        if (completed) {
+            return;
+        }
+
+        long lastId = 0;
+        int migrated = 0;
+        int failed = 0;
+        int skipped = 0;
+        int batch;
+        do {
+            List<CardRow> rows = jdbcTemplate.query(
+                    "SELECT id, card_number FROM cards " +
+                            "WHERE (card_number_hash IS NULL OR last4 IS NULL) AND id > ? ORDER BY id LIMIT ?",
+                    (rs, rowNum) -> new CardRow(rs.getLong("id"), rs.getBytes("card_number")),
+                    lastId, batchSize);
+            batch = rows.size();
+            if (batch > 0) {
+                lastId = rows.get(batch - 1).id();
+                Outcome outcome = migrate(rows);
+                migrated += outcome.migrated();
+                failed += outcome.failed();
+                skipped += batch - outcome.migrated() - outcome.failed();
+            }
+        } while (batch == batchSize);
+
+        if (migrated > 0 || failed > 0 || skipped > 0) {
+            log.info("Migrated {} cards to the current number format, {} failed, {} skipped", migrated, failed, skipped);
+        }
+        completed = skipped == 0;
+        if (completed && failed > 0) {
+            log.error("Card number migration finished with {} cards that need manual attention", failed);
+        }
+    }
+
+    private Outcome migrate(List<CardRow> rows) {
+        List<Object[]> updates = new ArrayList<>(rows.size());
+        int failed = 0;
+        for (CardRow row : rows) {
+            try {
+                String cardNumber = converter.convertToEntityAttribute(row.cardNumber());
+                updates.add(new Object[]{
+                        converter.convertToDatabaseColumn(cardNumber),
+                        cardNumberBlindIndex.hash(cardNumber),
+                        CardMaskingUtil.last4(cardNumber),
+                        row.id(),
+                        row.cardNumber()});
+            } catch (EncryptionException e) {
+                log.error("Cannot decrypt card ID {} for migration: {}", row.id(), e.getMessage());
+                failed++;
+            }
+        }
+
+        int[] results;
+        try {
+            results = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(UPDATE, updates));
+        } catch (DuplicateKeyException e) {
+            log.warn("Card batch up to ID {} has a duplicate number, migrating it row by row", rows.get(rows.size() - 1).id());
+            results = updateOneByOne(updates);
+        }
+        log.debug("Migrated card batch up to ID {}", rows.get(rows.size() - 1).id());
+
+        int updated = 0;
+        if (results != null) {
+            for (int result : results) {
+                if (result == Statement.EXECUTE_FAILED) {
+                    failed++;
+                } else if (result > 0) {
+                    updated++;
+                }
+            }
+        }
+        return new Outcome(updated, failed);
+    }
+
+    private int[] updateOneByOne(List<Object[]> updates) {
+        int[] results = new int[updates.size()];
+        for (int i = 0; i < updates.size(); i++) {
+            Object[] update = updates.get(i);
+            try {
+                Integer result = transactionTemplate.execute(status -> jdbcTemplate.update(UPDATE, update));
+                results[i] = result != null ? result : 0;
+            } catch (DuplicateKeyException e) {
+                log.error("Card ID {} has the same number as another card and was not migrated", update[3]);
+                results[i] = Statement.EXECUTE_FAILED;
+            }
+        }
+        return results;
+    }
+
+    private record Outcome(int migrated, int failed) {
+    }
+
+    private record CardRow(long id, byte[] cardNumber) {
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.bankcards.job;
+
+import com.example.bankcards.entity.transaction.TransactionStatus;
+import com.example.bankcards.repository.projection.TransactionView;
+import com.example.bankcards.service.transaction.TransactionArchive;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Moves whole months older than {@code max-age} to the {@link TransactionArchive}, oldest first, one per run. A
+ * month's rows are deleted by the run after the one that archived them, once every instance has seen its segment,
+ * and only the instance holding the archive's advisory lock runs at a time.
+ */
+@Slf4j
+@Component
+public class TransactionArchiveJob {
+    static final String MONTH_BATCH = "SELECT t.id, t.source_card_id, t.target_card_id, s.last4 AS source_last4, tc.last4 AS target_last4, "
+            + "t.amount, t.timestamp, t.status FROM transactions t "
+            + "JOIN cards s ON s.id = t.source_card_id JOIN cards tc ON tc.id = t.target_card_id "
+            + "WHERE t.timestamp >= ? AND t.timestamp < ? AND (t.timestamp, t.id) > (?, ?) "
+            + "ORDER BY t.timestamp, t.id LIMIT ?";
+    static final String DELETE_BATCH = "DELETE FROM transactions WHERE id IN ("
+            + "SELECT id FROM transactions WHERE timestamp >= ? AND (timestamp, id) <= (?, ?) "
+            + "ORDER BY timestamp, id LIMIT ?) AND timestamp >= ? AND timestamp <= ?";
+    static final String TRY_LOCK = "SELECT pg_try_advisory_lock(hashtext('transaction-archive'))";
+    static final String UNLOCK = "SELECT pg_advisory_unlock(hashtext('transaction-archive'))";
+
+    private static final RowMapper<TransactionView> ROW_MAPPER = (resultSet, rowNum) -> new TransactionView(
+            resultSet.getLong("id"),
+            resultSet.getLong("source_card_id"),
+            resultSet.getLong("target_card_id"),
+            resultSet.getString("source_last4"),
+            resultSet.getString("target_last4"),
+            resultSet.getBigDecimal("amount"),
+            resultSet.getTimestamp("timestamp").toLocalDateTime(),
+            TransactionStatus.valueOf(resultSet.getString("status")));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionArchive transactionArchive;
+    private final boolean enabled;
+    private final Period maxAge;
+    private final int batchSize;
+    private final Clock clock;
+    private final Counter archived;
+
+    public TransactionArchiveJob(JdbcTemplate jdbcTemplate,
+                                 TransactionArchive transactionArchive,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${transaction.archive.enabled:false}") boolean enabled,
+                                 @Value("${transaction.archive.max-age:P12M}") Period maxAge,
+                                 @Value("${transaction.archive.batch-size:10000}") int batchSize) {
+        this(jdbcTemplate, transactionArchive, meterRegistry, enabled, maxAge, batchSize, Clock.systemDefaultZone());
+    }
+
+    TransactionArchiveJob(JdbcTemplate jdbcTemplate, TransactionArchive transactionArchive, MeterRegistry meterRegistry,
+                          boolean enabled, Period maxAge, int batchSize, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionArchive = transactionArchive;
+        this.enabled = enabled;
+        this.maxAge = maxAge;
+        this.batchSize = batchSize;
+        this.clock = clock;
+        this.archived = Counter.builder("transaction.archive.rows")
+                .description("Transactions written to the archive")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${transaction.archive.interval:PT6H}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        // a session lock, held on a connection of its own for the whole run
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (!advisoryLock(connection, TRY_LOCK)) {
+                log.info("Transaction archive is being written by another instance, skipping");
+                return null;
+            }
+            try {
+                archiveOldestMonth();
+            } finally {
+                advisoryLock(connection, UNLOCK);
+            }
+            return null;
+        });
+    }
+
+    private void archiveOldestMonth() {
+        LocalDateTime cutoff = YearMonth.from(LocalDateTime.now(clock).minus(maxAge)).atDay(1).atStartOfDay();
+        LocalDateTime oldest = jdbcTemplate.queryForObject("SELECT min(timestamp) FROM transactions WHERE timestamp < ?",
+                LocalDateTime.class, cutoff);
+        if (oldest == null) {
+            return;
+        }
+        try {
+            archive(YearMonth.from(oldest));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to archive transactions of " + YearMonth.from(oldest), e);
+        }
+    }
+
+    private void archive(YearMonth month) throws IOException {
+        LocalDateTime start = month.atDay(1).atStartOfDay();
+        LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+        Set<Long> alreadyArchived = transactionArchive.archivedIds(month);
+
+        TransactionView last = null;
+        int written;
+        try (TransactionArchive.SegmentWriter segment = transactionArchive.newSegment(month)) {
+            List<TransactionView> batch;
+            do {
+                batch = jdbcTemplate.query(MONTH_BATCH, ROW_MAPPER, start, end,
+                        last != null ? last.timestamp() : start, last != null ? last.id() : Long.MIN_VALUE, batchSize);
+                for (TransactionView row : batch) {
+                    if (!alreadyArchived.contains(row.id())) {
+                        segment.append(row);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    last = batch.get(batch.size() - 1);
+                }
+            } while (batch.size() == batchSize);
+            written = segment.commit();
+        }
+
+        if (last == null) {
+            log.warn("Transactions of {} could not be read for archiving", month);
+            return;
+        }
+        if (written > 0) {
+            archived.increment(written);
+            log.info("Archived {} transactions of {}, deleting them from the database next run", written, month);
+            return;
+        }
+
+        int deleted = 0;
+        int batch;
+        do {
+            batch = jdbcTemplate.update(DELETE_BATCH, start, last.timestamp(), last.id(), batchSize, start, last.timestamp());
+            deleted += batch;
+        } while (batch == batchSize);
+
+        log.info("Deleted {} archived transactions of {} from the database", deleted, month);
+    }
+
+    private static boolean advisoryLock(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(sql)) {
+            return resultSet.next() && resultSet.getBoolean(1);
+        }
+    }
+}
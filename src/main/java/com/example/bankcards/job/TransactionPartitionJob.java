@@ -0,0 +1,181 @@
+package com.example.bankcards.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Creates upcoming monthly partitions of {@code transactions} and detaches expired ones.
+ */
+@Slf4j
+@Component
+public class TransactionPartitionJob {
+    static final String PARENT = "transactions";
+    static final String DEFAULT = "transactions_default";
+    static final String LEGACY = "transactions_legacy";
+    static final String PARTITIONS = "SELECT c.relname, i.inhdetachpending FROM pg_inherits i "
+            + "JOIN pg_class c ON c.oid = i.inhrelid "
+            + "JOIN pg_class p ON p.oid = i.inhparent "
+            + "WHERE p.relname = ?";
+    static final String DEFAULT_ROWS = "SELECT count(*) FROM " + DEFAULT + " WHERE timestamp >= ? AND timestamp < ?";
+    private static final Pattern MONTH_PARTITION = Pattern.compile("transactions_p(\\d{6})");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final boolean dropExpired;
+    private final Duration lockTimeout;
+    private final Clock clock;
+
+    public TransactionPartitionJob(JdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${transaction.partitioning.months-ahead:3}") int monthsAhead,
+                                   @Value("${transaction.partitioning.retention-months:0}") int retentionMonths,
+                                   @Value("${transaction.partitioning.drop-expired:false}") boolean dropExpired,
+                                   @Value("${transaction.partitioning.lock-timeout:PT5S}") Duration lockTimeout) {
+        this(jdbcTemplate, transactionTemplate, monthsAhead, retentionMonths, dropExpired, lockTimeout,
+                Clock.systemDefaultZone());
+    }
+
+    TransactionPartitionJob(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, int monthsAhead,
+                            int retentionMonths, boolean dropExpired, Duration lockTimeout, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.dropExpired = dropExpired;
+        this.lockTimeout = lockTimeout;
+        this.clock = clock;
+    }
+
+    @Scheduled(fixedDelayString = "${transaction.partitioning.interval:PT1H}")
+    public void run() {
+        YearMonth current = YearMonth.now(clock);
+        List<Partition> partitions = jdbcTemplate.query(PARTITIONS,
+                (resultSet, rowNum) -> new Partition(resultSet.getString(1), resultSet.getBoolean(2)), PARENT);
+        partitions.stream()
+                .filter(Partition::detachPending)
+                .forEach(partition -> finishDetach(partition.name()));
+
+        List<String> attached = partitions.stream()
+                .filter(partition -> !partition.detachPending())
+                .map(Partition::name)
+                .toList();
+        List<YearMonth> existing = monthPartitions(attached);
+        boolean hasDefault = attached.contains(DEFAULT);
+        // the table partitioned in place covers every month before the first month partition
+        YearMonth legacyEnd = attached.contains(LEGACY) && !existing.isEmpty() ? existing.get(0) : null;
+
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (!existing.contains(month) && (legacyEnd == null || !month.isBefore(legacyEnd))) {
+                create(month, hasDefault);
+            }
+        }
+
+        if (retentionMonths > 0) {
+            YearMonth oldestKept = current.minusMonths(retentionMonths);
+            existing.stream()
+                    .filter(month -> month.isBefore(oldestKept))
+                    .forEach(month -> expire(month, hasDefault));
+        }
+    }
+
+    private static List<YearMonth> monthPartitions(List<String> partitions) {
+        return partitions.stream()
+                .map(MONTH_PARTITION::matcher)
+                .filter(Matcher::matches)
+                .map(matcher -> YearMonth.parse(matcher.group(1), SUFFIX))
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * Rows of the month that already landed in the default partition would make the partition's creation fail,
+     * so they are moved into it, which is then attached, in one transaction.
+     */
+    private void create(YearMonth month, boolean hasDefault) {
+        String partition = partitionName(month);
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+        Long stray = hasDefault ? jdbcTemplate.queryForObject(DEFAULT_ROWS, Long.class, from, to) : null;
+        String bounds = String.format("FOR VALUES FROM ('%s') TO ('%s')", from.toLocalDate(), to.toLocalDate());
+
+        if (stray == null || stray == 0) {
+            jdbcTemplate.execute(String.format("CREATE TABLE IF NOT EXISTS %s PARTITION OF %s %s", partition, PARENT, bounds));
+            log.info("Created transactions partition for {}", month);
+            return;
+        }
+
+        log.warn("{} transactions of {} are in the default partition, moving them to {}", stray, month, partition);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute(String.format("LOCK TABLE %s IN ACCESS EXCLUSIVE MODE", DEFAULT));
+            jdbcTemplate.execute(String.format("CREATE TABLE %s (LIKE %s INCLUDING DEFAULTS)", partition, PARENT));
+            jdbcTemplate.update(String.format("WITH moved AS (DELETE FROM %s WHERE timestamp >= ? AND timestamp < ? "
+                    + "RETURNING *) INSERT INTO %s SELECT * FROM moved", DEFAULT, partition), from, to);
+            jdbcTemplate.execute(String.format("ALTER TABLE %s ATTACH PARTITION %s %s", PARENT, partition, bounds));
+        });
+        log.info("Created transactions partition for {} with {} rows from the default partition", month, stray);
+    }
+
+    /**
+     * Detaches without blocking queries on {@code transactions}. PostgreSQL only detaches concurrently while the
+     * table has no default partition; otherwise the plain detach gives up after {@code lock-timeout} instead of
+     * queueing every query behind its lock, and is retried on the next run.
+     */
+    private void expire(YearMonth month, boolean hasDefault) {
+        String partition = partitionName(month);
+        String detach = String.format("ALTER TABLE %s DETACH PARTITION %s", PARENT, partition);
+        try {
+            if (hasDefault) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.execute(String.format("SET LOCAL lock_timeout = %d", lockTimeout.toMillis()));
+                    jdbcTemplate.execute(detach);
+                });
+            } else {
+                jdbcTemplate.execute(detach + " CONCURRENTLY");
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not detach expired transactions partition {}, retrying on the next run: {}",
+                    partition, e.getMessage());
+            return;
+        }
+        detached(partition);
+    }
+
+    private void finishDetach(String partition) {
+        jdbcTemplate.execute(String.format("ALTER TABLE %s DETACH PARTITION %s FINALIZE", PARENT, partition));
+        detached(partition);
+    }
+
+    private void detached(String partition) {
+        if (dropExpired) {
+            jdbcTemplate.execute("DROP TABLE " + partition);
+            log.info("Dropped expired transactions partition {}", partition);
+        } else {
+            log.info("Detached expired transactions partition {}", partition);
+        }
+    }
+
+    static String partitionName(YearMonth month) {
+        return "transactions_p" + month.format(SUFFIX);
+    }
+
+    private record Partition(String name, boolean detachPending) {
+    }
+}
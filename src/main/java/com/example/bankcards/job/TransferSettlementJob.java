@@ -0,0 +1,128 @@
+package com.example.bankcards.job;
+
+import com.example.bankcards.entity.transaction.Transaction;
+import com.example.bankcards.entity.transaction.TransactionStatus;
+import com.example.bankcards.repository.TransactionRepository;
+import com.example.bankcards.service.transaction.SettlementQueue;
+import com.example.bankcards.service.transaction.TransferSettlement;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains PENDING transfers in {@code FOR UPDATE SKIP LOCKED} batches when settlement is asynchronous.
+ */
+@Slf4j
+@Component
+public class TransferSettlementJob {
+    static final String EXECUTOR_NAME = "transfer.settlement";
+
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionRepository transactionRepository;
+    private final TransferSettlement transferSettlement;
+    private final SettlementQueue settlementQueue;
+    private final int workers;
+    private final int batchSize;
+    private final ExecutorService executor;
+    private final AtomicInteger running = new AtomicInteger();
+    private final DistributionSummary batchSizes;
+    private final Timer latency;
+
+    public TransferSettlementJob(TransactionTemplate transactionTemplate,
+                                 TransactionRepository transactionRepository,
+                                 TransferSettlement transferSettlement,
+                                 SettlementQueue settlementQueue,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${transfer.settlement.workers:4}") int workers,
+                                 @Value("${transfer.settlement.batch-size:500}") int batchSize) {
+        this.transactionTemplate = transactionTemplate;
+        this.transactionRepository = transactionRepository;
+        this.transferSettlement = transferSettlement;
+        this.settlementQueue = settlementQueue;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry,
+                Executors.newFixedThreadPool(workers, new CustomizableThreadFactory("transfer-settlement-")),
+                EXECUTOR_NAME);
+        this.batchSizes = DistributionSummary.builder("transfer.settlement.batch.size")
+                .description("Transfers settled per batch transaction")
+                .register(meterRegistry);
+        this.latency = Timer.builder("transfer.settlement.latency")
+                .description("Time from the creation of a transfer to the commit of its settlement")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${transfer.settlement.interval:PT0.2S}")
+    public void run() {
+        if (!settlementQueue.isAsync()) {
+            return;
+        }
+
+        long pending = transactionRepository.countByStatus(TransactionStatus.PENDING);
+        settlementQueue.refresh(pending);
+
+        long batches = (pending + batchSize - 1) / batchSize;
+        for (long i = 0; i < batches && running.get() < workers; i++) {
+            running.incrementAndGet();
+            executor.execute(this::drain);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdown();
+    }
+
+    private void drain() {
+        try {
+            int settled;
+            do {
+                settled = settleBatch();
+            } while (settled == batchSize);
+        } catch (RuntimeException e) {
+            log.error("Transfer settlement batch failed: {}", e.getMessage());
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+
+    /**
+     * Settles one batch and returns its size.
+     */
+    int settleBatch() {
+        List<Transaction> batch = transactionTemplate.execute(status -> {
+            List<Long> ids = transactionRepository.claimPendingIds(batchSize);
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            List<Transaction> transactions = transactionRepository.findAllWithCardsByIdIn(ids);
+            transferSettlement.settleAll(transactions);
+            return transactions;
+        });
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime settledAt = LocalDateTime.now();
+        batch.forEach(transaction -> latency.record(Duration.between(transaction.getTimestamp(), settledAt)));
+        batchSizes.record(batch.size());
+        settlementQueue.settled(batch.size());
+        log.debug("Settled {} transfers, {} still pending", batch.size(), settlementQueue.depth());
+        return batch.size();
+    }
+}
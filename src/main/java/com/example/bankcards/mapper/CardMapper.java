@@ -5,7 +5,11 @@ import com.example.bankcards.dto.card.CardResponse;
 import com.example.bankcards.entity.card.Card;
 import com.example.bankcards.entity.card.CardStatus;
 import com.example.bankcards.entity.user.User;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.projection.CardView;
 import com.example.bankcards.util.CardMaskingUtil;
+import com.example.bankcards.util.CardNumberBlindIndex;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
@@ -14,10 +18,16 @@ import java.util.concurrent.ThreadLocalRandom;
 
 
 @Component
+@RequiredArgsConstructor
 public class CardMapper {
+    private final CardNumberBlindIndex cardNumberBlindIndex;
+    private final CardRepository cardRepository;
+
     public Card toCard(CardRequest request, User owner) {
         return Card.builder()
                 .cardNumber(request.getCardNumber())
+                .cardNumberHash(cardNumberBlindIndex.hash(request.getCardNumber()))
+                .last4(CardMaskingUtil.last4(request.getCardNumber()))
                 .owner(owner)
                 .expirationDate(request.getExpirationDate())
                 .balance(randomBalance()) //Затычка
@@ -28,7 +38,7 @@ public class CardMapper {
     public CardResponse toCardResponse(Card card) {
         return CardResponse.builder()
                 .id(card.getId())
-                .maskedCardNumber(CardMaskingUtil.mask(card.getCardNumber()))
+                .maskedCardNumber(CardMaskingUtil.maskedNumber(card))
                 .ownerName(card.getOwner().getUsername())
                 .expirationDate(card.getExpirationDate().toString())
                 .balance(card.getBalance())
@@ -36,6 +46,30 @@ public class CardMapper {
                 .build();
     }
 
+    public CardResponse toCardResponse(CardView card) {
+        return CardResponse.builder()
+                .id(card.id())
+                .maskedCardNumber(maskedNumber(card.id(), card.last4()))
+                .ownerName(card.ownerName())
+                .expirationDate(card.expirationDate().toString())
+                .balance(card.balance())
+                .status(card.status())
+                .build();
+    }
+
+    /**
+     * Masks a projected card from its last four digits; a card not yet backfilled with them is loaded and its
+     * number decrypted, as the entity path does.
+     */
+    public String maskedNumber(Long cardId, String last4) {
+        if (last4 != null) {
+            return CardMaskingUtil.maskLast4(last4);
+        }
+        return cardRepository.findById(cardId)
+                .map(CardMaskingUtil::maskedNumber)
+                .orElse(null);
+    }
+
     private BigDecimal randomBalance() {
         double randomValue = ThreadLocalRandom.current().nextDouble(0, 50000);
         return BigDecimal.valueOf(randomValue)
@@ -5,11 +5,16 @@
     import com.example.bankcards.dto.transaction.TransactionFullResponse;
     import com.example.bankcards.entity.card.Card;
     import com.example.bankcards.entity.transaction.Transaction;
+    import com.example.bankcards.repository.projection.TransactionView;
     import com.example.bankcards.util.CardMaskingUtil;
+    import lombok.RequiredArgsConstructor;
     import org.springframework.stereotype.Component;
 
     @Component
+    @RequiredArgsConstructor
     public class TransactionMapper {
+        private final CardMapper cardMapper;
+
         public Transaction toTransaction(TransactionRequest request, Card sourceCard, Card targetCard) {
             return Transaction.builder()
                     .sourceCard(sourceCard)
@@ -28,11 +33,22 @@
         public TransactionFullResponse toFullResponse(Transaction transaction) {
             return TransactionFullResponse.builder()
                     .id(transaction.getId())
-                    .sourceCardNumber(CardMaskingUtil.mask(transaction.getSourceCard().getCardNumber()))
-                    .targetCardNumber(CardMaskingUtil.mask(transaction.getTargetCard().getCardNumber()))
+                    .sourceCardNumber(CardMaskingUtil.maskedNumber(transaction.getSourceCard()))
+                    .targetCardNumber(CardMaskingUtil.maskedNumber(transaction.getTargetCard()))
                     .amount(transaction.getAmount())
                     .timestamp(transaction.getTimestamp())
                     .status(transaction.getStatus())
                     .build();
         }
+
+        public TransactionFullResponse toFullResponse(TransactionView transaction) {
+            return TransactionFullResponse.builder()
+                    .id(transaction.id())
+                    .sourceCardNumber(cardMapper.maskedNumber(transaction.sourceCardId(), transaction.sourceLast4()))
+                    .targetCardNumber(cardMapper.maskedNumber(transaction.targetCardId(), transaction.targetLast4()))
+                    .amount(transaction.amount())
+                    .timestamp(transaction.timestamp())
+                    .status(transaction.status())
+                    .build();
+        }
     }
\ No newline at end of file
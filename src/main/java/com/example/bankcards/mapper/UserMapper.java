@@ -3,7 +3,9 @@
     import com.example.bankcards.dto.user.UserRegistrationRequest;
     import com.example.bankcards.dto.user.UserResponse;
     import com.example.bankcards.entity.user.User;
+    import com.example.bankcards.security.jwt.model.JwtUserDetails;
     import lombok.RequiredArgsConstructor;
+    import org.springframework.security.core.authority.SimpleGrantedAuthority;
     import org.springframework.security.crypto.password.PasswordEncoder;
     import org.springframework.stereotype.Component;
 
@@ -30,4 +32,15 @@
                     .email(user.getEmail())
                     .build();
         }
+
+        public JwtUserDetails toUserDetails(User user) {
+            return new JwtUserDetails(
+                    user.getId(),
+                    user.getUsername(),
+                    user.getPassword(),
+                    user.getRoles().stream()
+                            .map(role -> new SimpleGrantedAuthority(role.getName()))
+                            .toList()
+            );
+        }
     }
@@ -2,22 +2,36 @@ package com.example.bankcards.repository;
 
 import com.example.bankcards.entity.card.Card;
 import com.example.bankcards.entity.card.CardStatus;
-import com.example.bankcards.entity.user.User;
+import com.example.bankcards.repository.projection.CardView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
-import java.util.Collection;
 import java.util.Optional;
 
-public interface CardRepository extends JpaRepository<Card, Long> {
-    Page<Card> findByOwnerId(Long ownerId, Pageable pageable);
+public interface CardRepository extends JpaRepository<Card, Long>, CardRepositoryCustom {
+    Optional<Card> findByCardNumberHash(String cardNumberHash);
 
-    Optional<Card> findByCardNumber(String cardNumber);
+    boolean existsByCardNumberHash(String cardNumberHash);
 
-    Page<Card> findByStatusAndOwner(CardStatus status, User owner, Pageable pageable);
+    boolean existsByIdAndOwnerId(Long id, Long ownerId);
 
-    Page<Card> findByOwner(User owner, Pageable pageable);
+    String CARD_VIEW = "select new com.example.bankcards.repository.projection.CardView("
+            + "c.id, c.last4, o.username, c.expirationDate, c.balance, c.status) from Card c join c.owner o";
 
-    Page<Card> findByStatus(CardStatus status, Pageable pageable);
+    @Query(value = CARD_VIEW, countQuery = "select count(c) from Card c")
+    Page<CardView> findAllViews(Pageable pageable);
+
+    @Query(value = CARD_VIEW + " where c.status = :status",
+            countQuery = "select count(c) from Card c where c.status = :status")
+    Page<CardView> findViewsByStatus(CardStatus status, Pageable pageable);
+
+    @Query(value = CARD_VIEW + " where o.id = :ownerId",
+            countQuery = "select count(c) from Card c where c.owner.id = :ownerId")
+    Page<CardView> findViewsByOwnerId(Long ownerId, Pageable pageable);
+
+    @Query(value = CARD_VIEW + " where c.status = :status and o.id = :ownerId",
+            countQuery = "select count(c) from Card c where c.status = :status and c.owner.id = :ownerId")
+    Page<CardView> findViewsByStatusAndOwnerId(CardStatus status, Long ownerId, Pageable pageable);
 }
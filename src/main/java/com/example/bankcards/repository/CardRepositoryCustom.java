@@ -0,0 +1,23 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.card.Card;
+import com.example.bankcards.entity.card.CardStatus;
+import org.springframework.data.domain.Sort;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CardRepositoryCustom {
+    /**
+     * Keyset page: up to {@code limit} cards ordered by {@code (order property, id)} in the order's direction,
+     * strictly after {@code (afterKey, afterId)} when {@code afterId} is set. Filters are skipped when null.
+     */
+    List<Card> findPage(CardStatus status, Long ownerId, Sort.Order order, Object afterKey, Long afterId, int limit);
+
+    /**
+     * Takes {@code SELECT ... FOR UPDATE} row locks on the given cards one at a time in ascending id order and
+     * refreshes their state from the locked rows. Every caller locking in the same order cannot deadlock on cards.
+     * Requires an active transaction.
+     */
+    void lockForUpdate(Collection<Card> cards);
+}
@@ -0,0 +1,72 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.card.Card;
+import com.example.bankcards.entity.card.CardStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Sort;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sort properties are concatenated into the query, so callers must whitelist them.
+ */
+public class CardRepositoryCustomImpl implements CardRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Card> findPage(CardStatus status, Long ownerId, Sort.Order order, Object afterKey, Long afterId, int limit) {
+        String property = order.getProperty();
+        String direction = order.isAscending() ? "asc" : "desc";
+        String comparison = order.isAscending() ? ">" : "<";
+        boolean byId = property.equals("id");
+
+        StringBuilder jpql = new StringBuilder("select c from Card c join fetch c.owner where 1 = 1");
+        if (status != null) {
+            jpql.append(" and c.status = :status");
+        }
+        if (ownerId != null) {
+            jpql.append(" and c.owner.id = :ownerId");
+        }
+        if (afterId != null) {
+            jpql.append(byId
+                    ? " and c.id " + comparison + " :afterId"
+                    : " and (c." + property + ", c.id) " + comparison + " (:afterKey, :afterId)");
+        }
+        jpql.append(" order by ");
+        if (!byId) {
+            jpql.append("c.").append(property).append(' ').append(direction).append(", ");
+        }
+        jpql.append("c.id ").append(direction);
+
+        TypedQuery<Card> query = entityManager.createQuery(jpql.toString(), Card.class);
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        if (ownerId != null) {
+            query.setParameter("ownerId", ownerId);
+        }
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+            if (!byId) {
+                query.setParameter("afterKey", afterKey);
+            }
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public void lockForUpdate(Collection<Card> cards) {
+        cards.stream()
+                .collect(Collectors.toMap(Card::getId, Function.identity(), (first, same) -> first, TreeMap::new))
+                .values()
+                .forEach(card -> entityManager.refresh(card, LockModeType.PESSIMISTIC_WRITE));
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.transaction.IdempotencyKey;
+import com.example.bankcards.entity.transaction.TransactionStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Long> {
+    /**
+     * Inserts the key, or takes over an expired row of the same key; returns 0 when a live row exists.
+     * A conflicting insert waits for an uncommitted claim of the same key to commit or roll back.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (user_id, idempotency_key, request_hash, created_at, expires_at) "
+            + "VALUES (:userId, :idempotencyKey, :requestHash, :createdAt, :expiresAt) "
+            + "ON CONFLICT (user_id, idempotency_key) DO UPDATE SET request_hash = EXCLUDED.request_hash, "
+            + "status = NULL, message = NULL, created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at "
+            + "WHERE idempotency_keys.expires_at < EXCLUDED.created_at",
+            nativeQuery = true)
+    int claim(Long userId, String idempotencyKey, String requestHash, LocalDateTime createdAt, LocalDateTime expiresAt);
+
+    Optional<IdempotencyKey> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+    @Modifying
+    @Query("update IdempotencyKey k set k.status = :status, k.message = :message "
+            + "where k.userId = :userId and k.idempotencyKey = :idempotencyKey")
+    int complete(Long userId, String idempotencyKey, TransactionStatus status, String message);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_keys WHERE id IN "
+            + "(SELECT id FROM idempotency_keys WHERE expires_at < :now ORDER BY expires_at LIMIT :limit)",
+            nativeQuery = true)
+    int removeExpired(LocalDateTime now, int limit);
+}
@@ -2,10 +2,75 @@ package com.example.bankcards.repository;
 
 import com.example.bankcards.entity.transaction.Transaction;
 import com.example.bankcards.entity.transaction.TransactionStatus;
+import com.example.bankcards.repository.projection.TransactionView;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+/**
+ * Listings are bounded on {@code timestamp}, the partition key, so only overlapping partitions are read.
+ */
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionRepositoryCustom {
     Collection<Transaction> findByStatus(TransactionStatus status);
+
+    long countByStatus(TransactionStatus status);
+
+    /**
+     * Claims up to {@code limit} of the oldest PENDING transfers for the current transaction. Rows claimed by
+     * another settlement worker are skipped, not waited for.
+     */
+    @Query(value = "SELECT id FROM transactions WHERE status = 'PENDING' ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Long> claimPendingIds(int limit);
+
+    /**
+     * Locks the transfer's row, so a settlement worker skips it and a concurrent settlement is waited for.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Transaction> findForUpdateById(Long id);
+
+    @Query("select t from Transaction t join fetch t.sourceCard join fetch t.targetCard where t.id in :ids order by t.id")
+    List<Transaction> findAllWithCardsByIdIn(Collection<Long> ids);
+
+    String TRANSACTION_VIEW = "select new com.example.bankcards.repository.projection.TransactionView("
+            + "t.id, s.id, tc.id, s.last4, tc.last4, t.amount, t.timestamp, t.status) "
+            + "from Transaction t join t.sourceCard s join t.targetCard tc "
+            + "where t.timestamp < :to";
+    // only bound from below when asked: a made-up lower bound would make every partition a candidate
+    String FROM = " and t.timestamp >= :from";
+
+    // listings return slices: the API reports no totals, so no count query is run per page
+    @Query(TRANSACTION_VIEW + FROM)
+    Slice<TransactionView> findAllViews(LocalDateTime from, LocalDateTime to, Pageable pageable);
+
+    @Query(TRANSACTION_VIEW)
+    Slice<TransactionView> findAllViewsBefore(LocalDateTime to, Pageable pageable);
+
+    @Query(TRANSACTION_VIEW + FROM + " and t.status = :status")
+    Slice<TransactionView> findViewsByStatus(TransactionStatus status, LocalDateTime from, LocalDateTime to, Pageable pageable);
+
+    @Query(TRANSACTION_VIEW + " and t.status = :status")
+    Slice<TransactionView> findViewsByStatusBefore(TransactionStatus status, LocalDateTime to, Pageable pageable);
+
+    @Query(TRANSACTION_VIEW + FROM + " and s.id = :sourceCardId")
+    Slice<TransactionView> findViewsBySourceCardId(Long sourceCardId, LocalDateTime from, LocalDateTime to, Pageable pageable);
+
+    @Query(TRANSACTION_VIEW + " and s.id = :sourceCardId")
+    Slice<TransactionView> findViewsBySourceCardIdBefore(Long sourceCardId, LocalDateTime to, Pageable pageable);
+
+    @Query(TRANSACTION_VIEW + FROM + " and s.id = :sourceCardId and t.status = :status")
+    Slice<TransactionView> findViewsBySourceCardIdAndStatus(Long sourceCardId, TransactionStatus status,
+                                                            LocalDateTime from, LocalDateTime to, Pageable pageable);
+
+    @Query(TRANSACTION_VIEW + " and s.id = :sourceCardId and t.status = :status")
+    Slice<TransactionView> findViewsBySourceCardIdAndStatusBefore(Long sourceCardId, TransactionStatus status,
+                                                                  LocalDateTime to, Pageable pageable);
 }
@@ -0,0 +1,14 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.repository.projection.TransactionView;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TransactionRepositoryCustom {
+    /**
+     * Incoming and outgoing transactions of a card, newest first by {@code (timestamp, id)}, strictly before
+     * {@code (beforeTimestamp, beforeId)} when {@code beforeId} is set.
+     */
+    List<TransactionView> findCardHistory(Long cardId, LocalDateTime beforeTimestamp, Long beforeId, int limit);
+}
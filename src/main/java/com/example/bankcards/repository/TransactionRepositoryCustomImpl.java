@@ -0,0 +1,50 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.transaction.TransactionStatus;
+import com.example.bankcards.repository.projection.TransactionView;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class TransactionRepositoryCustomImpl implements TransactionRepositoryCustom {
+    private static final String SEEK = " AND (t.timestamp, t.id) < (:beforeTimestamp, :beforeId)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<TransactionView> findCardHistory(Long cardId, LocalDateTime beforeTimestamp, Long beforeId, int limit) {
+        String seek = beforeId != null ? SEEK : "";
+        String sql = "SELECT h.id, h.source_card_id, h.target_card_id, s.last4 AS source_last4, tc.last4 AS target_last4, "
+                + "h.amount, h.timestamp, h.status "
+                + "FROM (SELECT u.* FROM ("
+                + "(SELECT t.* FROM transactions t WHERE t.source_card_id = :cardId" + seek
+                + " ORDER BY t.timestamp DESC, t.id DESC LIMIT :limit) "
+                + "UNION ALL "
+                + "(SELECT t.* FROM transactions t WHERE t.target_card_id = :cardId AND t.source_card_id <> :cardId" + seek
+                + " ORDER BY t.timestamp DESC, t.id DESC LIMIT :limit)"
+                + ") u ORDER BY u.timestamp DESC, u.id DESC LIMIT :limit) h "
+                + "JOIN cards s ON s.id = h.source_card_id "
+                + "JOIN cards tc ON tc.id = h.target_card_id "
+                + "ORDER BY h.timestamp DESC, h.id DESC";
+
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("cardId", cardId)
+                .addValue("beforeTimestamp", beforeTimestamp)
+                .addValue("beforeId", beforeId)
+                .addValue("limit", limit);
+
+        return jdbcTemplate.query(sql, parameters, (rs, rowNum) -> new TransactionView(
+                rs.getLong("id"),
+                rs.getLong("source_card_id"),
+                rs.getLong("target_card_id"),
+                rs.getString("source_last4"),
+                rs.getString("target_last4"),
+                rs.getBigDecimal("amount"),
+                rs.getObject("timestamp", LocalDateTime.class),
+                TransactionStatus.valueOf(rs.getString("status"))));
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.bankcards.repository.projection;
+
+import com.example.bankcards.entity.card.CardStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record CardView(Long id,
+                       String last4,
+                       String ownerName,
+                       LocalDate expirationDate,
+                       BigDecimal balance,
+                       CardStatus status) {
+}
@@ -0,0 +1,16 @@
+package com.example.bankcards.repository.projection;
+
+import com.example.bankcards.entity.transaction.TransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record TransactionView(Long id,
+                              Long sourceCardId,
+                              Long targetCardId,
+                              String sourceLast4,
+                              String targetLast4,
+                              BigDecimal amount,
+                              LocalDateTime timestamp,
+                              TransactionStatus status) {
+}
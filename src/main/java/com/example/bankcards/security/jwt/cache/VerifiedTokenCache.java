@@ -0,0 +1,97 @@
+package com.example.bankcards.security.jwt.cache;
+
+import com.example.bankcards.security.jwt.model.JwtPrincipal;
+import com.example.bankcards.util.TokenHashUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.List;
+
+/**
+ * Verified bearer tokens keyed by their SHA-256, valid until the token's {@code exp}.
+ */
+@Slf4j
+@Component
+public class VerifiedTokenCache {
+    private final boolean enabled;
+    private final Clock clock;
+    private final Cache<String, Entry> entries;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public VerifiedTokenCache(@Value("${jwt.cache.enabled:true}") boolean enabled,
+                              @Value("${jwt.cache.max-size:10000}") int maxSize,
+                              MeterRegistry meterRegistry) {
+        this(enabled, maxSize, meterRegistry, Clock.systemUTC());
+    }
+
+    VerifiedTokenCache(boolean enabled, int maxSize, MeterRegistry meterRegistry, Clock clock) {
+        this.enabled = enabled;
+        this.clock = clock;
+        this.hits = Counter.builder("jwt.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("jwt.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("jwt.cache.evictions").register(meterRegistry);
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .executor(Runnable::run)
+                .removalListener((String key, Entry entry, RemovalCause cause) -> {
+                    if (cause == RemovalCause.SIZE) {
+                        evictions.increment();
+                    }
+                })
+                .build();
+
+        Gauge.builder("jwt.cache.size", this, VerifiedTokenCache::size).register(meterRegistry);
+
+        log.info("Verified token cache enabled: {}, max size: {}", enabled, maxSize);
+    }
+
+    public Entry get(String token) {
+        if (!enabled) {
+            return null;
+        }
+
+        String key = TokenHashUtil.sha256Hex(token);
+        Entry entry = entries.getIfPresent(key);
+        if (entry != null && !entry.principal().getExpiresAt().isAfter(clock.instant())) {
+            entries.invalidate(key);
+            entry = null;
+        }
+
+        if (entry == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return entry;
+    }
+
+    public void put(String token, JwtPrincipal principal, List<? extends GrantedAuthority> authorities) {
+        if (!enabled || principal.getExpiresAt() == null) {
+            return;
+        }
+
+        Entry entry = new Entry(principal, List.copyOf(authorities));
+        String key = TokenHashUtil.sha256Hex(token);
+        entries.put(key, entry);
+    }
+
+    public int size() {
+        entries.cleanUp();
+        return (int) entries.estimatedSize();
+    }
+
+    public record Entry(JwtPrincipal principal, List<GrantedAuthority> authorities) {
+    }
+}
@@ -2,7 +2,9 @@ package com.example.bankcards.security.jwt.controller;
 
 import com.example.bankcards.security.jwt.dto.JwtRequest;
 import com.example.bankcards.security.jwt.dto.JwtResponse;
+import com.example.bankcards.security.jwt.dto.RefreshTokenRequest;
 import com.example.bankcards.security.jwt.service.JwtService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,4 +18,9 @@ public class AuthController {
     public JwtResponse createToken(@RequestBody JwtRequest jwtRequest) {
         return jwtService.createToken(jwtRequest);
     }
+
+    @PostMapping("/refresh")
+    public JwtResponse refreshToken(@RequestBody @Valid RefreshTokenRequest refreshTokenRequest) {
+        return jwtService.refreshToken(refreshTokenRequest);
+    }
 }
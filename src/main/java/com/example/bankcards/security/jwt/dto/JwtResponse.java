@@ -7,4 +7,5 @@ import lombok.Data;
 @AllArgsConstructor
 public class JwtResponse {
     private String token;
+    private String refreshToken;
 }
@@ -0,0 +1,58 @@
+package com.example.bankcards.security.jwt.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class LoginMetrics {
+    private final Timer userLookup;
+    private final Timer passwordCheck;
+    private final Timer signing;
+    private final Timer succeeded;
+    private final Timer failed;
+
+    public LoginMetrics(MeterRegistry meterRegistry) {
+        this.userLookup = phaseTimer(meterRegistry, "db");
+        this.passwordCheck = phaseTimer(meterRegistry, "bcrypt");
+        this.signing = phaseTimer(meterRegistry, "signing");
+        this.succeeded = loginTimer(meterRegistry, "success");
+        this.failed = loginTimer(meterRegistry, "failure");
+    }
+
+    public void recordUserLookup(long startedAt) {
+        record(userLookup, startedAt);
+    }
+
+    public void recordPasswordCheck(long startedAt) {
+        record(passwordCheck, startedAt);
+    }
+
+    public void recordSigning(long startedAt) {
+        record(signing, startedAt);
+    }
+
+    public void recordLogin(long startedAt, boolean success) {
+        record(success ? succeeded : failed, startedAt);
+    }
+
+    private static void record(Timer timer, long startedAt) {
+        timer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer phaseTimer(MeterRegistry meterRegistry, String phase) {
+        return Timer.builder("auth.login.phase")
+                .description("Time spent in one phase of a login request")
+                .tag("phase", phase)
+                .register(meterRegistry);
+    }
+
+    private static Timer loginTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("auth.login")
+                .description("End-to-end duration of a login request")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.bankcards.security.jwt.model;
+
+import lombok.Value;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.util.List;
+
+@Value
+public class JwtPrincipal implements Principal {
+    Long id;
+    String tokenId;
+    String username;
+    List<String> roles;
+    Instant issuedAt;
+    Instant expiresAt;
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
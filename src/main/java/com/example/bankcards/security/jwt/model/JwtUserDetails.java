@@ -0,0 +1,22 @@
+package com.example.bankcards.security.jwt.model;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+@Getter
+@EqualsAndHashCode(callSuper = true)
+public class JwtUserDetails extends User {
+    private final Long id;
+
+    public JwtUserDetails(Long id,
+                          String username,
+                          String password,
+                          Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.id = id;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.bankcards.security.jwt.revocation;
+
+import com.example.bankcards.security.jwt.model.JwtPrincipal;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of {@code revoked_tokens}, behind a Bloom filter.
+ */
+@Slf4j
+@Component
+public class TokenRevocationList {
+    private final int expectedTokens;
+    private final double falsePositiveRate;
+
+    private final Map<String, Instant> revokedTokens = new ConcurrentHashMap<>();
+    private final Map<Long, UserCutoff> revokedUsers = new ConcurrentHashMap<>();
+    private volatile BloomFilter tokenFilter;
+
+    public TokenRevocationList(@Value("${jwt.revocation.expected-tokens:10000}") int expectedTokens,
+                               @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                               MeterRegistry meterRegistry) {
+        this.expectedTokens = expectedTokens;
+        this.falsePositiveRate = falsePositiveRate;
+        this.tokenFilter = new BloomFilter(expectedTokens, falsePositiveRate);
+
+        Gauge.builder("jwt.revocation.size", revokedTokens, Map::size)
+                .description("Revoked token ids held in memory")
+                .tag("kind", "token")
+                .register(meterRegistry);
+        Gauge.builder("jwt.revocation.size", revokedUsers, Map::size)
+                .description("Per-user revocation cut-offs held in memory")
+                .tag("kind", "user")
+                .register(meterRegistry);
+    }
+
+    public boolean isRevoked(JwtPrincipal principal) {
+        UserCutoff cutoff = revokedUsers.get(principal.getId());
+        if (cutoff != null && (principal.getIssuedAt() == null || !principal.getIssuedAt().isAfter(cutoff.revokedAt()))) {
+            return true;
+        }
+
+        String tokenId = principal.getTokenId();
+        return tokenId != null && tokenFilter.mightContain(tokenId) && revokedTokens.containsKey(tokenId);
+    }
+
+    public void revokeToken(String tokenId, Instant expiresAt) {
+        revokedTokens.merge(tokenId, expiresAt, (current, added) -> current.isAfter(added) ? current : added);
+        tokenFilter.put(tokenId);
+    }
+
+    public void revokeUser(Long userId, Instant revokedAt, Instant expiresAt) {
+        revokedUsers.merge(userId, new UserCutoff(revokedAt, expiresAt),
+                (current, added) -> current.revokedAt().isAfter(added.revokedAt()) ? current : added);
+    }
+
+    /**
+     * Drops entries whose tokens have all expired and rebuilds the Bloom filter from what is left.
+     */
+    public synchronized void purgeExpired(Instant now) {
+        revokedTokens.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+        revokedUsers.values().removeIf(cutoff -> cutoff.expiresAt().isBefore(now));
+
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedTokens, revokedTokens.size() * 2), falsePositiveRate);
+        revokedTokens.keySet().forEach(rebuilt::put);
+        tokenFilter = rebuilt;
+        // Ids revoked while rebuilding may have gone into the old filter only.
+        revokedTokens.keySet().forEach(rebuilt::put);
+
+        log.debug("Revocation list purged: {} token ids, {} users remain", revokedTokens.size(), revokedUsers.size());
+    }
+
+    private record UserCutoff(Instant revokedAt, Instant expiresAt) {
+    }
+}
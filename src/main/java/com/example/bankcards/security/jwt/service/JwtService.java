@@ -2,7 +2,10 @@ package com.example.bankcards.security.jwt.service;
 
 import com.example.bankcards.security.jwt.dto.JwtRequest;
 import com.example.bankcards.security.jwt.dto.JwtResponse;
+import com.example.bankcards.security.jwt.dto.RefreshTokenRequest;
 
 public interface JwtService {
     JwtResponse createToken(JwtRequest jwtRequest);
+
+    JwtResponse refreshToken(RefreshTokenRequest refreshTokenRequest);
 }
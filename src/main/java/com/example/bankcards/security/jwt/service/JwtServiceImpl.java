@@ -1,37 +1,61 @@
 package com.example.bankcards.security.jwt.service;
 
+import com.example.bankcards.entity.token.RefreshToken;
 import com.example.bankcards.exception.exception.UnauthorizedException;
+import com.example.bankcards.mapper.UserMapper;
 import com.example.bankcards.security.jwt.dto.JwtRequest;
 import com.example.bankcards.security.jwt.dto.JwtResponse;
-import com.example.bankcards.service.user.UserService;
+import com.example.bankcards.security.jwt.dto.RefreshTokenRequest;
+import com.example.bankcards.security.jwt.metrics.LoginMetrics;
+import com.example.bankcards.security.jwt.model.JwtUserDetails;
 import com.example.bankcards.util.JwtTokenUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
 public class JwtServiceImpl implements JwtService {
-    private final UserService userService;
     private final JwtTokenUtils jwtTokenUtils;
     private final AuthenticationManager authenticationManager;
+    private final LoginMetrics loginMetrics;
+    private final RefreshTokenService refreshTokenService;
+    private final UserMapper userMapper;
 
     @Override
     public JwtResponse createToken(JwtRequest jwtRequest) {
+        long startedAt = System.nanoTime();
         try {
-          authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(
-                  jwtRequest.getUsername(),
-                  jwtRequest.getPassword()));
+            Authentication authentication = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(
+                    jwtRequest.getUsername(),
+                    jwtRequest.getPassword()));
 
-          UserDetails userDetails = userService.loadUserByUsername(jwtRequest.getUsername());
-          String token = jwtTokenUtils.generateToken(userDetails);
+            JwtUserDetails userDetails = (JwtUserDetails) authentication.getPrincipal();
 
-          return new JwtResponse(token);
+            long signingStartedAt = System.nanoTime();
+            String token = jwtTokenUtils.generateToken(userDetails);
+            loginMetrics.recordSigning(signingStartedAt);
+
+            loginMetrics.recordLogin(startedAt, true);
+            return new JwtResponse(token, refreshTokenService.create(userDetails.getId()));
         } catch (BadCredentialsException e) {
+            loginMetrics.recordLogin(startedAt, false);
             throw new UnauthorizedException("Invalid username or password.");
         }
     }
+
+    @Override
+    @Transactional
+    public JwtResponse refreshToken(RefreshTokenRequest refreshTokenRequest) {
+        RefreshToken refreshToken = refreshTokenService.consume(refreshTokenRequest.getRefreshToken());
+        JwtUserDetails userDetails = userMapper.toUserDetails(refreshToken.getUser());
+
+        return new JwtResponse(
+                jwtTokenUtils.generateToken(userDetails),
+                refreshTokenService.create(userDetails.getId()));
+    }
 }
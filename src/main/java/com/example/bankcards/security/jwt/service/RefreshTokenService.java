@@ -0,0 +1,11 @@
+package com.example.bankcards.security.jwt.service;
+
+import com.example.bankcards.entity.token.RefreshToken;
+
+public interface RefreshTokenService {
+    String create(Long userId);
+
+    RefreshToken consume(String rawToken);
+
+    void revokeAll(Long userId);
+}
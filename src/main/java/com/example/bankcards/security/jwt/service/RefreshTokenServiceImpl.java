@@ -0,0 +1,95 @@
+package com.example.bankcards.security.jwt.service;
+
+import com.example.bankcards.entity.token.RefreshToken;
+import com.example.bankcards.exception.exception.UnauthorizedException;
+import com.example.bankcards.repository.RefreshTokenRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.util.TokenHashUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Single-use opaque refresh tokens, stored as their SHA-256.
+ */
+@Service
+@Slf4j
+@Transactional(readOnly = true)
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final Duration lifetime;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public RefreshTokenServiceImpl(RefreshTokenRepository refreshTokenRepository,
+                                   UserRepository userRepository,
+                                   @Value("${jwt.refresh-lifetime}") Duration lifetime) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.lifetime = lifetime;
+    }
+
+    @Override
+    @Transactional
+    public String create(Long userId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = RefreshToken.builder()
+                .tokenHash(TokenHashUtil.sha256Hex(rawToken))
+                .user(userRepository.getReferenceById(userId))
+                .expiresAt(LocalDateTime.now().plus(lifetime))
+                .build();
+        refreshTokenRepository.save(refreshToken);
+        log.debug("Refresh token issued for user ID: {}", userId);
+
+        return rawToken;
+    }
+
+    @Override
+    @Transactional
+    public RefreshToken consume(String rawToken) {
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(TokenHashUtil.sha256Hex(rawToken))
+                .orElseThrow(() -> {
+                    log.warn("Unknown refresh token presented");
+                    return new UnauthorizedException("Invalid refresh token.");
+                });
+
+        if (refreshTokenRepository.removeById(refreshToken.getId()) == 0) {
+            log.warn("Refresh token ID {} was already used", refreshToken.getId());
+            throw new UnauthorizedException("Invalid refresh token.");
+        }
+
+        if (refreshToken.getExpiresAt().isBefore(LocalDateTime.now())) {
+            log.warn("Refresh token ID {} expired at {}", refreshToken.getId(), refreshToken.getExpiresAt());
+            throw new UnauthorizedException("Refresh token expired.");
+        }
+
+        log.debug("Refresh token ID {} consumed", refreshToken.getId());
+        return refreshToken;
+    }
+
+    @Override
+    @Transactional
+    public void revokeAll(Long userId) {
+        int revoked = refreshTokenRepository.removeByUserId(userId);
+        log.info("Revoked {} refresh tokens of user ID: {}", revoked, userId);
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${jwt.refresh-purge-interval:PT1H}")
+    public void purgeExpired() {
+        int purged = refreshTokenRepository.removeExpired(LocalDateTime.now());
+        log.info("Purged {} expired refresh tokens", purged);
+    }
+}
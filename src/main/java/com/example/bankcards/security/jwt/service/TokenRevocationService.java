@@ -0,0 +1,7 @@
+package com.example.bankcards.security.jwt.service;
+
+public interface TokenRevocationService {
+    void revokeToken(String tokenId);
+
+    void revokeUserTokens(Long userId);
+}
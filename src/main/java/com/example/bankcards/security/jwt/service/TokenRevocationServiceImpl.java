@@ -0,0 +1,137 @@
+package com.example.bankcards.security.jwt.service;
+
+import com.example.bankcards.entity.token.RevokedToken;
+import com.example.bankcards.exception.exception.NotFoundException;
+import com.example.bankcards.repository.RevokedTokenRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.jwt.revocation.TokenRevocationList;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+@Service
+@Slf4j
+@Transactional(readOnly = true)
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+    /**
+     * Re-read window covering rows committed after the previous poll with an earlier {@code revoked_at}
+     * and clock drift between instances. Re-applying a row is harmless.
+     */
+    private static final Duration REFRESH_OVERLAP = Duration.ofSeconds(30);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final UserRepository userRepository;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationList tokenRevocationList;
+    private final Duration accessTokenLifetime;
+
+    private LocalDateTime lastRefreshStartedAt;
+
+    public TokenRevocationServiceImpl(RevokedTokenRepository revokedTokenRepository,
+                                      UserRepository userRepository,
+                                      RefreshTokenService refreshTokenService,
+                                      TokenRevocationList tokenRevocationList,
+                                      @Value("${jwt.lifetime}") Duration accessTokenLifetime) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.userRepository = userRepository;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationList = tokenRevocationList;
+        this.accessTokenLifetime = accessTokenLifetime;
+    }
+
+    @Override
+    @Transactional
+    public void revokeToken(String tokenId) {
+        log.info("Revoking token {}", tokenId);
+
+        RevokedToken revokedToken = revokedTokenRepository.save(newRevocation().tokenId(tokenId).build());
+        applyAfterCommit(revokedToken);
+    }
+
+    @Override
+    @Transactional
+    public void revokeUserTokens(Long userId) {
+        log.info("Revoking all tokens of user ID: {}", userId);
+
+        if (!userRepository.existsById(userId)) {
+            log.error("User with ID {} not found", userId);
+            throw new NotFoundException(String.format("User with id=%d not found", userId));
+        }
+
+        RevokedToken revokedToken = revokedTokenRepository.save(newRevocation().userId(userId).build());
+        applyAfterCommit(revokedToken);
+        refreshTokenService.revokeAll(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval:PT5S}")
+    public synchronized void refresh() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<RevokedToken> revokedTokens = lastRefreshStartedAt == null
+                ? revokedTokenRepository.findAllByExpiresAtAfter(startedAt)
+                : revokedTokenRepository.findAllByRevokedAtAfterAndExpiresAtAfter(
+                        lastRefreshStartedAt.minus(REFRESH_OVERLAP), startedAt);
+
+        revokedTokens.forEach(this::apply);
+        lastRefreshStartedAt = startedAt;
+
+        if (!revokedTokens.isEmpty()) {
+            log.debug("Loaded {} revocations", revokedTokens.size());
+        }
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval:PT10M}")
+    public void purgeExpired() {
+        int purged = revokedTokenRepository.removeExpired(LocalDateTime.now());
+        tokenRevocationList.purgeExpired(Instant.now());
+        log.info("Purged {} expired revocations", purged);
+    }
+
+    /**
+     * Truncated to seconds, the precision of {@code iat}: every token issued in the revoking second is revoked.
+     */
+    private RevokedToken.RevokedTokenBuilder newRevocation() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        return RevokedToken.builder()
+                .revokedAt(now)
+                .expiresAt(now.plus(accessTokenLifetime));
+    }
+
+    private void applyAfterCommit(RevokedToken revokedToken) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(revokedToken);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(revokedToken);
+            }
+        });
+    }
+
+    private void apply(RevokedToken revokedToken) {
+        Instant expiresAt = toInstant(revokedToken.getExpiresAt());
+        if (revokedToken.getTokenId() != null) {
+            tokenRevocationList.revokeToken(revokedToken.getTokenId(), expiresAt);
+        }
+        if (revokedToken.getUserId() != null) {
+            tokenRevocationList.revokeUser(revokedToken.getUserId(), toInstant(revokedToken.getRevokedAt()), expiresAt);
+        }
+    }
+
+    private static Instant toInstant(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.entity.card.Card;
+import com.example.bankcards.exception.exception.BadRequestException;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.Set;
+
+public record CardCursor(Sort.Order order, Object key, long id) {
+    public static final Set<String> SORT_PROPERTIES = Set.of("balance", "expirationDate", "id");
+
+    private static final String SEPARATOR = "|";
+
+    public static CardCursor after(Sort.Order order, Card card) {
+        Object key = switch (order.getProperty()) {
+            case "balance" -> card.getBalance();
+            case "expirationDate" -> card.getExpirationDate();
+            default -> card.getId();
+        };
+        return new CardCursor(order, key, card.getId());
+    }
+
+    /**
+     * The single sort order a listing is keyed on. {@code balance} and {@code expirationDate} have {@code (key, id)}
+     * seek indexes, globally and per owner; {@code id} seeks on the primary key.
+     */
+    public static Sort.Order order(Sort sort) {
+        if (sort.isUnsorted()) {
+            return Sort.Order.asc("balance");
+        }
+        Sort.Order order = sort.iterator().next();
+        if (sort.stream().count() > 1 || !SORT_PROPERTIES.contains(order.getProperty())) {
+            throw new BadRequestException(String.format("Sort must be a single property of %s", SORT_PROPERTIES));
+        }
+        return order;
+    }
+
+    public String encode() {
+        String value = String.join(SEPARATOR, order.getProperty(), order.getDirection().name(), key.toString(), Long.toString(id));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CardCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+            if (parts.length != 4 || !SORT_PROPERTIES.contains(parts[0])) {
+                throw new IllegalArgumentException();
+            }
+            Sort.Order order = new Sort.Order(Sort.Direction.valueOf(parts[1]), parts[0]);
+            long id = Long.parseLong(parts[3]);
+            Object key = switch (parts[0]) {
+                case "balance" -> new BigDecimal(parts[2]);
+                case "expirationDate" -> LocalDate.parse(parts[2]);
+                default -> id;
+            };
+            return new CardCursor(order, key, id);
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
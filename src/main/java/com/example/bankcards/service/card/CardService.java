@@ -2,22 +2,28 @@ package com.example.bankcards.service.card;
 
 import com.example.bankcards.dto.card.CardRequest;
 import com.example.bankcards.dto.card.CardResponse;
+import com.example.bankcards.dto.card.CardScrollResponse;
 import com.example.bankcards.dto.card.CardUpdateStatusRequest;
 import com.example.bankcards.entity.card.CardStatus;
+import com.example.bankcards.security.jwt.model.JwtPrincipal;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
-import java.security.Principal;
 import java.util.List;
 
 public interface CardService {
-    CardResponse create(Principal principal, CardRequest cardRequest);
+    CardResponse create(JwtPrincipal principal, CardRequest cardRequest);
 
-    void deleteOwnerCard(Principal principal, Long cardId);
+    void deleteOwnerCard(JwtPrincipal principal, Long cardId);
 
-    List<CardResponse> getCardsByOwner(Principal principal, Pageable pageable);
+    List<CardResponse> getCardsByOwner(JwtPrincipal principal, Pageable pageable);
 
     List<CardResponse> getCards(CardStatus status, String username, Pageable pageable);
 
+    CardScrollResponse scrollCardsByOwner(JwtPrincipal principal, String cursor, Sort sort, int size);
+
+    CardScrollResponse scrollCards(CardStatus status, String username, String cursor, Sort sort, int size);
+
     void updateStatus(CardUpdateStatusRequest updateStatusRequest);
 
     void delete(Long cardId);
@@ -2,6 +2,7 @@ package com.example.bankcards.service.card;
 
 import com.example.bankcards.dto.card.CardRequest;
 import com.example.bankcards.dto.card.CardResponse;
+import com.example.bankcards.dto.card.CardScrollResponse;
 import com.example.bankcards.dto.card.CardUpdateStatusRequest;
 import com.example.bankcards.entity.card.Card;
 import com.example.bankcards.entity.card.CardStatus;
@@ -12,15 +13,17 @@ import com.example.bankcards.exception.exception.NotFoundException;
 import com.example.bankcards.mapper.CardMapper;
 import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.jwt.model.JwtPrincipal;
 import com.example.bankcards.util.CardMaskingUtil;
+import com.example.bankcards.util.CardNumberBlindIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.security.Principal;
 import java.util.List;
 
 @Service
@@ -28,27 +31,35 @@ import java.util.List;
 @Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class CardServiceImpl implements CardService {
+    private static final int MAX_SCROLL_SIZE = 100;
+
     private final CardRepository cardRepository;
     private final UserRepository userRepository;
     private final CardMapper cardMapper;
+    private final CardNumberBlindIndex cardNumberBlindIndex;
 
     @Override
     @Transactional
-    public CardResponse create(Principal principal, CardRequest cardRequest) {
+    public CardResponse create(JwtPrincipal principal, CardRequest cardRequest) {
         log.info("Creating new card for user: {}", principal.getName());
         log.debug("Card request: {}", cardRequest);
 
-        User owner = findUserByName(principal.getName());
-        log.debug("Found owner: {}", owner.getUsername());
+        User owner = userRepository.getReferenceById(principal.getId());
+        log.debug("Owner ID: {}", principal.getId());
 
         Card card = cardMapper.toCard(cardRequest, owner);
         log.debug("Mapped to card entity");
 
+        if (cardRepository.existsByCardNumberHash(card.getCardNumberHash())) {
+            log.warn("Card {} already exists", CardMaskingUtil.maskedNumber(card));
+            throw new BadRequestException("Card with this number already exists");
+        }
+
         try {
             card = cardRepository.save(card);
             log.info("Card created successfully. ID: {}, Masked: {}",
                     card.getId(),
-                    CardMaskingUtil.mask(card.getCardNumber()));
+                    CardMaskingUtil.maskedNumber(card));
         } catch (Exception e) {
             log.error("Failed to create card: {}", e.getMessage());
             throw new CreationException(String.format("Failed to create card: %s", e.getMessage()));
@@ -62,27 +73,24 @@ public class CardServiceImpl implements CardService {
 
     @Override
     @Transactional
-    public void deleteOwnerCard(Principal principal, Long cardId) {
+    public void deleteOwnerCard(JwtPrincipal principal, Long cardId) {
         log.info("User {} deleting card ID: {}", principal.getName(), cardId);
 
-        User user = findUserByName(principal.getName());
-        log.debug("User ID: {}", user.getId());
-
         Card card = cardRepository.findById(cardId)
                 .orElseThrow(() -> {
                     log.error("Card not found: ID {}", cardId);
                     return new NotFoundException(String.format("Card with id=%d not found", cardId));
                 });
-        log.debug("Found card: {}", CardMaskingUtil.mask(card.getCardNumber()));
+        log.debug("Found card: {}", CardMaskingUtil.maskedNumber(card));
 
-        if (!card.getOwner().equals(user)) {
+        if (!card.getOwner().getId().equals(principal.getId())) {
             log.warn("User {} is not owner of card {}. Actual owner: {}",
-                    user.getId(),
+                    principal.getId(),
                     cardId,
                     card.getOwner().getId());
             throw new BadRequestException(String.format(
                     "The user id=%d is not the owner of the card with id=%d.",
-                    user.getId(),
+                    principal.getId(),
                     cardId));
         }
 
@@ -91,17 +99,14 @@ public class CardServiceImpl implements CardService {
     }
 
     @Override
-    public List<CardResponse> getCardsByOwner(Principal principal, Pageable pageable) {
+    public List<CardResponse> getCardsByOwner(JwtPrincipal principal, Pageable pageable) {
         log.info("Fetching cards for owner: {}, page: {}", principal.getName(), pageable.getPageNumber());
 
-        User user = findUserByName(principal.getName());
-        log.debug("User ID: {}", user.getId());
-
-        List<CardResponse> cards = cardRepository.findByOwnerId(user.getId(), pageable).stream()
+        List<CardResponse> cards = cardRepository.findViewsByOwnerId(principal.getId(), pageable).stream()
                 .map(cardMapper::toCardResponse)
                 .toList();
 
-        log.info("Found {} cards for owner {}", cards.size(), user.getUsername());
+        log.info("Found {} cards for owner {}", cards.size(), principal.getName());
         return cards;
     }
 
@@ -116,13 +121,13 @@ public class CardServiceImpl implements CardService {
 
             List<CardResponse> cards;
             if (status != null) {
-                cards = cardRepository.findByStatusAndOwner(status, user, pageable)
+                cards = cardRepository.findViewsByStatusAndOwnerId(status, user.getId(), pageable)
                         .stream()
                         .map(cardMapper::toCardResponse)
                         .toList();
                 log.debug("Filtered by status and owner");
             } else {
-                cards = cardRepository.findByOwner(user, pageable)
+                cards = cardRepository.findViewsByOwnerId(user.getId(), pageable)
                         .stream()
                         .map(cardMapper::toCardResponse)
                         .toList();
@@ -134,13 +139,13 @@ public class CardServiceImpl implements CardService {
         } else {
             List<CardResponse> cards;
             if (status != null) {
-                cards = cardRepository.findByStatus(status, pageable)
+                cards = cardRepository.findViewsByStatus(status, pageable)
                         .stream()
                         .map(cardMapper::toCardResponse)
                         .toList();
                 log.debug("Filtered by status only");
             } else {
-                cards = cardRepository.findAll(pageable)
+                cards = cardRepository.findAllViews(pageable)
                         .stream()
                         .map(cardMapper::toCardResponse)
                         .toList();
@@ -152,6 +157,20 @@ public class CardServiceImpl implements CardService {
         }
     }
 
+    @Override
+    public CardScrollResponse scrollCardsByOwner(JwtPrincipal principal, String cursor, Sort sort, int size) {
+        log.info("Scrolling cards for owner: {}, size: {}", principal.getName(), size);
+        return scroll(null, principal.getId(), cursor, sort, size);
+    }
+
+    @Override
+    public CardScrollResponse scrollCards(CardStatus status, String username, String cursor, Sort sort, int size) {
+        log.info("Scrolling cards. Status: {}, Username: {}, Size: {}", status, username, size);
+
+        Long ownerId = username != null ? findUserByName(username).getId() : null;
+        return scroll(status, ownerId, cursor, sort, size);
+    }
+
     @Override
     @Transactional
     public void updateStatus(CardUpdateStatusRequest updateStatusRequest) {
@@ -159,7 +178,7 @@ public class CardServiceImpl implements CardService {
         log.info("Updating card status. Card: {}, New status: {}",
                 maskedNumber, updateStatusRequest.getStatus());
 
-        Card card = cardRepository.findByCardNumber(updateStatusRequest.getCardNumber())
+        Card card = cardRepository.findByCardNumberHash(cardNumberBlindIndex.hash(updateStatusRequest.getCardNumber()))
                 .orElseThrow(() -> {
                     log.error("Card not found: {}", maskedNumber);
                     return new NotFoundException(String.format("Card %s not found", maskedNumber));
@@ -227,6 +246,36 @@ public class CardServiceImpl implements CardService {
         log.info("Card deleted successfully. ID: {}", cardId);
     }
 
+    /**
+     * Fetches one card more than requested to know whether a next page exists without a count query.
+     * A cursor carries its own sort, so {@code sort} only applies to the first page.
+     */
+    private CardScrollResponse scroll(CardStatus status, Long ownerId, String cursor, Sort sort, int size) {
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            throw new BadRequestException(String.format("Size must be between 1 and %d", MAX_SCROLL_SIZE));
+        }
+
+        CardCursor after = cursor != null ? CardCursor.decode(cursor) : null;
+        Sort.Order order = after != null ? after.order() : CardCursor.order(sort);
+
+        List<Card> cards = cardRepository.findPage(status, ownerId, order,
+                after != null ? after.key() : null,
+                after != null ? after.id() : null,
+                size + 1);
+
+        boolean hasNext = cards.size() > size;
+        if (hasNext) {
+            cards = cards.subList(0, size);
+        }
+        String nextCursor = hasNext ? CardCursor.after(order, cards.get(size - 1)).encode() : null;
+        log.debug("Found {} cards, has next: {}", cards.size(), hasNext);
+
+        return CardScrollResponse.builder()
+                .content(cards.stream().map(cardMapper::toCardResponse).toList())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
     private User findUserByName(String username) {
         log.debug("Looking for user: {}", username);
         return userRepository.findByUsername(username)
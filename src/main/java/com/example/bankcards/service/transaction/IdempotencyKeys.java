@@ -0,0 +1,203 @@
+package com.example.bankcards.service.transaction;
+
+import com.example.bankcards.dto.transaction.TransactionRequest;
+import com.example.bankcards.dto.transaction.TransactionResponse;
+import com.example.bankcards.entity.transaction.IdempotencyKey;
+import com.example.bankcards.exception.exception.BadRequestException;
+import com.example.bankcards.repository.IdempotencyKeyRepository;
+import com.example.bankcards.util.TokenHashUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code Idempotency-Key} support for transfer creation.
+ */
+@Slf4j
+@Component
+public class IdempotencyKeys {
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final Duration ttl;
+    private final int cacheSize;
+    private final int purgeBatchSize;
+    private final Clock clock;
+    private final Map<String, Entry> recent;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer cacheReplays;
+    private final Timer storedReplays;
+
+    public IdempotencyKeys(IdempotencyKeyRepository idempotencyKeyRepository,
+                           @Value("${transfer.idempotency.ttl:PT24H}") Duration ttl,
+                           @Value("${transfer.idempotency.cache-size:10000}") int cacheSize,
+                           @Value("${transfer.idempotency.purge-batch-size:1000}") int purgeBatchSize,
+                           MeterRegistry meterRegistry) {
+        this(idempotencyKeyRepository, ttl, cacheSize, purgeBatchSize, meterRegistry, Clock.systemDefaultZone());
+    }
+
+    IdempotencyKeys(IdempotencyKeyRepository idempotencyKeyRepository, Duration ttl, int cacheSize,
+                    int purgeBatchSize, MeterRegistry meterRegistry, Clock clock) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.ttl = ttl;
+        this.cacheSize = cacheSize;
+        this.purgeBatchSize = purgeBatchSize;
+        this.clock = clock;
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > IdempotencyKeys.this.cacheSize;
+            }
+        };
+
+        this.hits = Counter.builder("transfer.idempotency.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("transfer.idempotency.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.cacheReplays = replayTimer(meterRegistry, "cache");
+        this.storedReplays = replayTimer(meterRegistry, "db");
+        Gauge.builder("transfer.idempotency.cache.size", this, IdempotencyKeys::size).register(meterRegistry);
+    }
+
+    public static String requestHash(TransactionRequest request) {
+        return TokenHashUtil.sha256Hex(request.getSourceCardId() + "|" + request.getTargetCardId() + "|"
+                + request.getAmount().stripTrailingZeros().toPlainString());
+    }
+
+    /**
+     * The cached response of a completed key, or null on a miss.
+     */
+    public TransactionResponse cached(Long userId, String key, String requestHash, long startedAt) {
+        validate(key);
+        Entry entry;
+        synchronized (recent) {
+            entry = recent.get(cacheKey(userId, key));
+            if (entry != null && !entry.expiresAt().isAfter(now())) {
+                recent.remove(cacheKey(userId, key));
+                entry = null;
+            }
+        }
+
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        requireSameRequest(entry.requestHash(), requestHash, key);
+        record(cacheReplays, startedAt);
+        return entry.response();
+    }
+
+    /**
+     * Claims the key for a new transfer in the current transaction. Returns false when the key already has a
+     * completed request; a concurrent claim of the same key is waited for first.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean claim(Long userId, String key, String requestHash) {
+        LocalDateTime now = now();
+        return idempotencyKeyRepository.claim(userId, key, requestHash, now, now.plus(ttl)) > 0;
+    }
+
+    /**
+     * The stored response of a key whose claim failed.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public TransactionResponse stored(Long userId, String key, String requestHash, long startedAt) {
+        IdempotencyKey stored = idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, key)
+                .orElseThrow(() -> new IllegalStateException("Idempotency key vanished after a conflicting claim"));
+        requireSameRequest(stored.getRequestHash(), requestHash, key);
+
+        TransactionResponse response = new TransactionResponse(stored.getStatus(), stored.getMessage());
+        remember(userId, key, requestHash, response, stored.getExpiresAt());
+        record(storedReplays, startedAt);
+        log.info("Replayed transfer for idempotency key of user {}", userId);
+        return response;
+    }
+
+    /**
+     * Stores the response of a claimed key, in the transaction of the transfer.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void complete(Long userId, String key, TransactionResponse response) {
+        idempotencyKeyRepository.complete(userId, key, response.getStatus(), response.getMessage());
+    }
+
+    /**
+     * Caches the response of a key once its transaction has committed.
+     */
+    public void remember(Long userId, String key, String requestHash, TransactionResponse response) {
+        remember(userId, key, requestHash, response, now().plus(ttl));
+    }
+
+    @Scheduled(fixedDelayString = "${transfer.idempotency.purge-interval:PT10M}")
+    public void purgeExpired() {
+        LocalDateTime now = now();
+        int purged = 0;
+        int batch;
+        do {
+            batch = idempotencyKeyRepository.removeExpired(now, purgeBatchSize);
+            purged += batch;
+        } while (batch == purgeBatchSize);
+        log.info("Purged {} expired idempotency keys", purged);
+    }
+
+    public int size() {
+        synchronized (recent) {
+            return recent.size();
+        }
+    }
+
+    private void remember(Long userId, String key, String requestHash, TransactionResponse response, LocalDateTime expiresAt) {
+        synchronized (recent) {
+            recent.put(cacheKey(userId, key), new Entry(requestHash, response, expiresAt));
+        }
+    }
+
+    private static void validate(String key) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException(String.format("Idempotency-Key must be 1 to %d characters", MAX_KEY_LENGTH));
+        }
+    }
+
+    private static void requireSameRequest(String expected, String actual, String key) {
+        if (!expected.equals(actual)) {
+            throw new BadRequestException(String.format("Idempotency-Key %s was already used for a different transfer", key));
+        }
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.now(clock);
+    }
+
+    private static String cacheKey(Long userId, String key) {
+        return userId + ":" + key;
+    }
+
+    private static void record(Timer timer, long startedAt) {
+        timer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer replayTimer(MeterRegistry meterRegistry, String source) {
+        return Timer.builder("transfer.idempotency.replay")
+                .description("Latency of a retried transfer answered from its idempotency key")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    private record Entry(String requestHash, TransactionResponse response, LocalDateTime expiresAt) {
+    }
+}
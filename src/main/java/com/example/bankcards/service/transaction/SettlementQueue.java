@@ -0,0 +1,63 @@
+package com.example.bankcards.service.transaction;
+
+import com.example.bankcards.exception.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Backlog of PENDING transfers; admission is rejected with 503 beyond {@code max-backlog}.
+ */
+@Slf4j
+@Component
+public class SettlementQueue {
+    private final boolean async;
+    private final long maxBacklog;
+    private final AtomicLong depth = new AtomicLong();
+    private final Counter rejected;
+
+    public SettlementQueue(@Value("${transfer.settlement.async:false}") boolean async,
+                           @Value("${transfer.settlement.max-backlog:50000}") long maxBacklog,
+                           MeterRegistry meterRegistry) {
+        this.async = async;
+        this.maxBacklog = maxBacklog;
+        Gauge.builder("transfer.settlement.queue.depth", depth, AtomicLong::get)
+                .description("PENDING transfers waiting for settlement")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("transfer.settlement.rejected")
+                .description("Transfers rejected because the settlement backlog was full")
+                .register(meterRegistry);
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Reserves a place for one more PENDING transfer.
+     */
+    public void admit() {
+        if (depth.getAndUpdate(current -> current < maxBacklog ? current + 1 : current) >= maxBacklog) {
+            rejected.increment();
+            log.warn("Transfer rejected - settlement backlog is full: {}", maxBacklog);
+            throw new ServiceUnavailableException("Too many transfers are waiting for settlement, please retry later.");
+        }
+    }
+
+    public void settled(int count) {
+        depth.updateAndGet(current -> Math.max(current - count, 0));
+    }
+
+    public void refresh(long pending) {
+        depth.set(pending);
+    }
+
+    public long depth() {
+        return depth.get();
+    }
+}
@@ -0,0 +1,536 @@
+package com.example.bankcards.service.transaction;
+
+import com.example.bankcards.entity.transaction.TransactionStatus;
+import com.example.bankcards.exception.exception.BadRequestException;
+import com.example.bankcards.repository.projection.TransactionView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compressed, block-indexed month segments of transactions moved out of PostgreSQL.
+ */
+@Slf4j
+@Component
+public class TransactionArchive {
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy-MM");
+    // segments are mapped in windows of this size, overlapping by their longest block so each block fits in one
+    private static final long REGION_SIZE = 1L << 30;
+    private static final Pattern INDEX = Pattern.compile("segment-(\\d{5})\\.idx");
+    private static final String DATA_SUFFIX = ".ndjson.gz";
+    private static final ObjectMapper MAPPER = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private static final Map<String, Comparator<TransactionView>> SORTABLE = Map.of(
+            "id", Comparator.comparing(TransactionView::id),
+            "amount", Comparator.comparing(TransactionView::amount),
+            "timestamp", Comparator.comparing(TransactionView::timestamp),
+            "status", Comparator.comparing(row -> row.status().name()));
+    private static final Comparator<TransactionView> HISTORY_ORDER = Comparator.comparing(TransactionView::timestamp)
+            .thenComparing(TransactionView::id)
+            .reversed();
+
+    private final Path directory;
+    private final int blockSize;
+    private final long regionSize;
+    private final NavigableMap<YearMonth, CopyOnWriteArrayList<Path>> months = new ConcurrentSkipListMap<>();
+    private final Cache<Path, Segment> segments;
+
+    public TransactionArchive(@Value("${transaction.archive.directory:data/transaction-archive}") String directory,
+                              @Value("${transaction.archive.block-size:1024}") int blockSize,
+                              @Value("${transaction.archive.open-segments:64}") int openSegments) throws IOException {
+        this(directory, blockSize, openSegments, REGION_SIZE);
+    }
+
+    TransactionArchive(String directory, int blockSize, int openSegments, long regionSize) throws IOException {
+        this.directory = Path.of(directory);
+        this.blockSize = blockSize;
+        this.regionSize = regionSize;
+        // an evicted segment is unmapped once its buffers are collected; Java has no explicit unmap
+        this.segments = Caffeine.newBuilder()
+                .maximumSize(openSegments)
+                .build();
+        refresh();
+        log.info("Transaction archive at {}: {} months, horizon {}", this.directory.toAbsolutePath(), months.size(), horizon());
+    }
+
+    /**
+     * The end of the newest archived month, or null when nothing is archived.
+     */
+    public LocalDateTime horizon() {
+        return months.isEmpty() ? null : start(months.lastKey().plusMonths(1));
+    }
+
+    /**
+     * The ids archived for {@code month}, to skip rows that were archived before a run was interrupted.
+     */
+    public Set<Long> archivedIds(YearMonth month) {
+        Set<Long> ids = new HashSet<>();
+        for (Path index : indexes(month)) {
+            segment(index).blocks().forEach(block -> read(index, block).forEach(row -> ids.add(row.id())));
+        }
+        return ids;
+    }
+
+    /**
+     * The first {@code limit} archived rows in {@code [from, to)} in {@code sort} order, optionally filtered by
+     * source card and status; a null {@code from} is unbounded.
+     */
+    public List<TransactionView> find(Long sourceCardId, TransactionStatus status, LocalDateTime from, LocalDateTime to,
+                                      Sort sort, int limit) {
+        if (from != null && !from.isBefore(to)) {
+            return List.of();
+        }
+        Comparator<TransactionView> order = comparator(sort);
+        Sort.Direction timestampOrder = timestampOrder(sort);
+        PriorityQueue<TransactionView> top = new PriorityQueue<>(limit + 1, order.reversed());
+
+        NavigableMap<YearMonth, CopyOnWriteArrayList<Path>> candidates = from != null
+                ? months.subMap(YearMonth.from(from), true, YearMonth.from(to), true)
+                : months.headMap(YearMonth.from(to), true);
+        boolean descending = timestampOrder == Sort.Direction.DESC;
+        // months in timestamp order, so once the top is full every further month is outranked
+        for (Map.Entry<YearMonth, CopyOnWriteArrayList<Path>> month
+                : (descending ? candidates.descendingMap() : candidates).entrySet()) {
+            if (top.size() == limit && timestampOrder != null && outranked(month.getKey(), top.peek(), descending)) {
+                break;
+            }
+            for (Path index : month.getValue()) {
+                List<Block> blocks = segment(index).blocks();
+                for (int i = 0; i < blocks.size(); i++) {
+                    Block block = blocks.get(descending ? blocks.size() - 1 - i : i);
+                    if (!block.overlaps(from, to) || (sourceCardId != null && !block.mayContain(sourceCardId))
+                            || (top.size() == limit && block.outranked(top.peek(), timestampOrder))) {
+                        continue;
+                    }
+                    for (TransactionView row : read(index, block)) {
+                        if ((from == null || !row.timestamp().isBefore(from)) && row.timestamp().isBefore(to)
+                                && (sourceCardId == null || sourceCardId.equals(row.sourceCardId()))
+                                && (status == null || status == row.status())) {
+                            top.add(row);
+                            if (top.size() > limit) {
+                                top.poll();
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        List<TransactionView> result = new ArrayList<>(top);
+        result.sort(order);
+        return result;
+    }
+
+    /**
+     * The archived part of a card history: the newest {@code limit} transfers from or to {@code cardId} before the
+     * {@code (timestamp, id)} cursor, if any, newest first.
+     */
+    public List<TransactionView> findCardHistory(Long cardId, LocalDateTime beforeTimestamp, Long beforeId, int limit) {
+        PriorityQueue<TransactionView> top = new PriorityQueue<>(limit + 1, HISTORY_ORDER.reversed());
+        NavigableMap<YearMonth, CopyOnWriteArrayList<Path>> candidates = beforeTimestamp != null
+                ? months.headMap(YearMonth.from(beforeTimestamp), true)
+                : months;
+
+        for (List<Path> indexes : candidates.descendingMap().values()) {
+            if (top.size() == limit) {
+                break;
+            }
+            for (Path index : indexes) {
+                for (Block block : segment(index).blocks()) {
+                    if (!block.mayContain(cardId) || (beforeTimestamp != null && block.first().isAfter(beforeTimestamp))) {
+                        continue;
+                    }
+                    for (TransactionView row : read(index, block)) {
+                        if ((cardId.equals(row.sourceCardId()) || cardId.equals(row.targetCardId()))
+                                && (beforeId == null || row.timestamp().isBefore(beforeTimestamp)
+                                || row.timestamp().isEqual(beforeTimestamp) && row.id() < beforeId)) {
+                            top.add(row);
+                            if (top.size() > limit) {
+                                top.poll();
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        List<TransactionView> result = new ArrayList<>(top);
+        result.sort(HISTORY_ORDER);
+        return result;
+    }
+
+    /**
+     * Starts a new segment for {@code month}. It is published by {@link SegmentWriter#commit()} and discarded
+     * when closed without a commit.
+     */
+    public SegmentWriter newSegment(YearMonth month) throws IOException {
+        Path monthDirectory = directory.resolve(month.format(MONTH));
+        Files.createDirectories(monthDirectory);
+        int number = indexes(month).size() + 1;
+        return new SegmentWriter(month, monthDirectory.resolve(String.format("segment-%05d", number)));
+    }
+
+    /**
+     * Orders rows as {@code sort} orders the listing, by id within equal keys; unsorted means by timestamp. Also the
+     * whitelist of listing sorts, as the database and the archive must order a merged page the same way.
+     */
+    public static Comparator<TransactionView> comparator(Sort sort) {
+        Comparator<TransactionView> order = null;
+        for (Sort.Order property : sort.isSorted() ? sort : Sort.by("timestamp")) {
+            Comparator<TransactionView> comparator = SORTABLE.get(property.getProperty());
+            if (comparator == null) {
+                throw new BadRequestException(String.format("Transactions cannot be sorted by '%s'", property.getProperty()));
+            }
+            comparator = property.isAscending() ? comparator : comparator.reversed();
+            order = order == null ? comparator : order.thenComparing(comparator);
+        }
+        return order.thenComparing(TransactionView::id);
+    }
+
+    private static boolean outranked(YearMonth month, TransactionView worst, boolean descending) {
+        return descending
+                ? !start(month.plusMonths(1)).isAfter(worst.timestamp())
+                : start(month).isAfter(worst.timestamp());
+    }
+
+    private static Sort.Direction timestampOrder(Sort sort) {
+        if (sort.isUnsorted()) {
+            return Sort.Direction.ASC;
+        }
+        Sort.Order primary = sort.iterator().next();
+        return primary.getProperty().equals("timestamp") ? primary.getDirection() : null;
+    }
+
+    /**
+     * Picks up segments published by the archiving instance, when the directory is shared with it.
+     */
+    @Scheduled(fixedDelayString = "${transaction.archive.refresh-interval:PT1M}")
+    public void refresh() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> monthDirectories = Files.list(directory)) {
+            for (Path monthDirectory : monthDirectories.filter(Files::isDirectory).toList()) {
+                YearMonth month;
+                try {
+                    month = YearMonth.parse(monthDirectory.getFileName().toString(), MONTH);
+                } catch (DateTimeParseException e) {
+                    continue;
+                }
+                try (Stream<Path> files = Files.list(monthDirectory)) {
+                    List<Path> indexes = files.filter(file -> INDEX.matcher(file.getFileName().toString()).matches())
+                            .sorted()
+                            .toList();
+                    if (!indexes.isEmpty()) {
+                        months.computeIfAbsent(month, key -> new CopyOnWriteArrayList<>()).addAllAbsent(indexes);
+                    }
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        segments.invalidateAll();
+    }
+
+    private List<Path> indexes(YearMonth month) {
+        List<Path> indexes = months.get(month);
+        return indexes != null ? indexes : List.of();
+    }
+
+    private Segment segment(Path index) {
+        return segments.get(index, key -> Segment.open(key, regionSize));
+    }
+
+    private List<TransactionView> read(Path index, Block block) {
+        try {
+            return segment(index).read(block);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read archive block at " + block.offset() + " of " + index, e);
+        }
+    }
+
+    private static LocalDateTime start(YearMonth month) {
+        return month.atDay(1).atStartOfDay();
+    }
+
+    private static Path dataFile(Path index) {
+        Matcher matcher = INDEX.matcher(index.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Not a segment index: " + index);
+        }
+        return index.resolveSibling("segment-" + matcher.group(1) + DATA_SUFFIX);
+    }
+
+    /**
+     * Writes one segment: rows are buffered into blocks, each compressed as its own gzip member.
+     */
+    public final class SegmentWriter implements Closeable {
+        private final YearMonth month;
+        private final Path data;
+        private final Path index;
+        private final Path dataTemp;
+        private final Path indexTemp;
+        private final OutputStream out;
+        private final List<TransactionView> block = new ArrayList<>();
+        private final List<String> blocks = new ArrayList<>();
+        private long offset;
+        private int rows;
+        private boolean committed;
+
+        private SegmentWriter(YearMonth month, Path base) throws IOException {
+            this.month = month;
+            this.data = base.resolveSibling(base.getFileName() + DATA_SUFFIX);
+            this.index = base.resolveSibling(base.getFileName() + ".idx");
+            this.dataTemp = base.resolveSibling(data.getFileName() + ".tmp");
+            this.indexTemp = base.resolveSibling(index.getFileName() + ".tmp");
+            this.out = new BufferedOutputStream(Files.newOutputStream(dataTemp));
+        }
+
+        public void append(TransactionView row) throws IOException {
+            block.add(row);
+            if (block.size() == blockSize) {
+                flush();
+            }
+        }
+
+        /**
+         * Syncs and publishes the segment, returning its row count. An empty segment is discarded.
+         */
+        public int commit() throws IOException {
+            flush();
+            out.close();
+            if (rows > 0) {
+                sync(dataTemp);
+                Files.write(indexTemp, blocks, StandardCharsets.UTF_8);
+                sync(indexTemp);
+                Files.move(dataTemp, data, StandardCopyOption.ATOMIC_MOVE);
+                Files.move(indexTemp, index, StandardCopyOption.ATOMIC_MOVE);
+                months.computeIfAbsent(month, key -> new CopyOnWriteArrayList<>()).add(index);
+            }
+            committed = true;
+            return rows;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+            Files.deleteIfExists(dataTemp);
+            Files.deleteIfExists(indexTemp);
+            if (!committed) {
+                log.warn("Discarded unfinished archive segment {}", data);
+            }
+        }
+
+        private void flush() throws IOException {
+            if (block.isEmpty()) {
+                return;
+            }
+            ByteArrayOutputStream member = new ByteArrayOutputStream();
+            try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(member), StandardCharsets.UTF_8)) {
+                for (TransactionView row : block) {
+                    writer.write(MAPPER.writeValueAsString(row));
+                    writer.write('\n');
+                }
+            }
+            LocalDateTime first = block.stream().map(TransactionView::timestamp).min(Comparator.naturalOrder()).orElseThrow();
+            LocalDateTime last = block.stream().map(TransactionView::timestamp).max(Comparator.naturalOrder()).orElseThrow();
+            Set<Long> cards = new HashSet<>();
+            block.forEach(row -> {
+                cards.add(row.sourceCardId());
+                cards.add(row.targetCardId());
+            });
+            member.writeTo(out);
+            blocks.add(offset + " " + member.size() + " " + first + " " + last + " " + CardFilter.of(cards).encode());
+            offset += member.size();
+            rows += block.size();
+            block.clear();
+        }
+
+        private static void sync(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+        }
+    }
+
+    /**
+     * @param cards the cards the block's transfers are from or to; null in indexes written before it existed
+     */
+    private record Block(long offset, long length, LocalDateTime first, LocalDateTime last, CardFilter cards) {
+
+        static Block parse(String line) {
+            String[] fields = line.split(" ");
+            return new Block(Long.parseLong(fields[0]), Long.parseLong(fields[1]),
+                    LocalDateTime.parse(fields[2]), LocalDateTime.parse(fields[3]),
+                    fields.length > 4 ? CardFilter.decode(fields[4]) : null);
+        }
+
+        boolean mayContain(Long cardId) {
+            return cards == null || cards.mightContain(cardId);
+        }
+
+        boolean overlaps(LocalDateTime from, LocalDateTime to) {
+            return (from == null || !last.isBefore(from)) && first.isBefore(to);
+        }
+
+        /**
+         * Whether no row of this block can sort before {@code worst} when the listing is ordered by timestamp.
+         */
+        boolean outranked(TransactionView worst, Sort.Direction timestampOrder) {
+            if (timestampOrder == null) {
+                return false;
+            }
+            return timestampOrder.isAscending()
+                    ? first.isAfter(worst.timestamp())
+                    : last.isBefore(worst.timestamp());
+        }
+    }
+
+    /**
+     * Bloom filter of the card ids of a block, about 1% false positives, so a card's lookups skip the blocks
+     * without it before decompressing them.
+     */
+    private record CardFilter(long[] bits) {
+        private static final int BITS_PER_CARD = 10;
+        private static final int HASHES = 7;
+
+        static CardFilter of(Collection<Long> cardIds) {
+            CardFilter filter = new CardFilter(new long[Math.max(1, (cardIds.size() * BITS_PER_CARD + 63) / 64)]);
+            for (Long cardId : cardIds) {
+                for (int i = 0; i < HASHES; i++) {
+                    int bit = filter.bit(cardId, i);
+                    filter.bits[bit >>> 6] |= 1L << bit;
+                }
+            }
+            return filter;
+        }
+
+        static CardFilter decode(String encoded) {
+            ByteBuffer buffer = ByteBuffer.wrap(Base64.getDecoder().decode(encoded));
+            long[] bits = new long[buffer.remaining() / Long.BYTES];
+            buffer.asLongBuffer().get(bits);
+            return new CardFilter(bits);
+        }
+
+        String encode() {
+            ByteBuffer buffer = ByteBuffer.allocate(bits.length * Long.BYTES);
+            buffer.asLongBuffer().put(bits);
+            return Base64.getEncoder().encodeToString(buffer.array());
+        }
+
+        boolean mightContain(long cardId) {
+            for (int i = 0; i < HASHES; i++) {
+                int bit = bit(cardId, i);
+                if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // double hashing over a SplitMix64 mix of the id
+        private int bit(long cardId, int i) {
+            long hash = cardId * 0x9E3779B97F4A7C15L;
+            hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+            hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+            hash ^= hash >>> 31;
+            int combined = (int) hash + i * (int) (hash >>> 32);
+            return Math.floorMod(combined, bits.length * 64);
+        }
+    }
+
+    /**
+     * An open segment: its block index and the data file mapped read-only in windows, so offsets past 2 GB work.
+     */
+    private record Segment(List<MappedByteBuffer> regions, long regionSize, List<Block> blocks) {
+
+        static Segment open(Path index, long regionSize) {
+            try (FileChannel channel = FileChannel.open(dataFile(index), StandardOpenOption.READ)) {
+                List<Block> blocks = Files.readAllLines(index, StandardCharsets.UTF_8).stream()
+                        .map(Block::parse)
+                        .toList();
+                long span = regionSize + blocks.stream().mapToLong(Block::length).max().orElse(0);
+                List<MappedByteBuffer> regions = new ArrayList<>();
+                for (long start = 0; start < channel.size(); start += regionSize) {
+                    regions.add(channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(span, channel.size() - start)));
+                }
+                return new Segment(regions, regionSize, blocks);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open archive segment " + index, e);
+            }
+        }
+
+        List<TransactionView> read(Block block) throws IOException {
+            int region = Math.toIntExact(block.offset() / regionSize);
+            ByteBuffer member = regions.get(region).slice(Math.toIntExact(block.offset() - region * regionSize),
+                    Math.toIntExact(block.length()));
+            List<TransactionView> rows = new ArrayList<>();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(new BufferInputStream(member)), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    rows.add(MAPPER.readValue(line, TransactionView.class));
+                }
+            }
+            return rows;
+        }
+    }
+
+    private static final class BufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
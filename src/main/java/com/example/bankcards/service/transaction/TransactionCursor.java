@@ -0,0 +1,33 @@
+package com.example.bankcards.service.transaction;
+
+import com.example.bankcards.exception.exception.BadRequestException;
+import com.example.bankcards.repository.projection.TransactionView;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+public record TransactionCursor(LocalDateTime timestamp, long id) {
+    private static final String SEPARATOR = "|";
+
+    public static TransactionCursor after(TransactionView transaction) {
+        return new TransactionCursor(transaction.timestamp(), transaction.id());
+    }
+
+    public String encode() {
+        String value = timestamp + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TransactionCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException();
+            }
+            return new TransactionCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -1,23 +1,43 @@
 package com.example.bankcards.service.transaction;
 
 import com.example.bankcards.dto.transaction.TransactionFullResponse;
+import com.example.bankcards.dto.transaction.TransactionHistoryResponse;
 import com.example.bankcards.dto.transaction.TransactionRequest;
 import com.example.bankcards.dto.transaction.TransactionResponse;
 import com.example.bankcards.dto.transaction.TransactionUpdateRequest;
 import com.example.bankcards.entity.transaction.TransactionStatus;
+import com.example.bankcards.security.jwt.model.JwtPrincipal;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.bind.annotation.RequestParam;
 
-import java.security.Principal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface TransactionService {
-    TransactionResponse createTransaction(Principal principal, TransactionRequest request);
+    /**
+     * @param idempotencyKey optional; a repeated key returns the response of its first request
+     */
+    TransactionResponse createTransaction(JwtPrincipal principal, TransactionRequest request, String idempotencyKey);
 
+    /**
+     * Resolves a PENDING transfer: SUCCESS settles it under the card locks, which may still end it FAILED;
+     * FAILED cancels it. Settled transfers and changes back to PENDING are rejected.
+     */
     TransactionResponse updateStatusTransaction(Long transactionId, TransactionUpdateRequest transactionUpdateRequest);
 
-    List<TransactionFullResponse> getTransactions(Long sourceCardId, TransactionStatus status, Pageable pageable);
+    /**
+     * Transactions with {@code from <= timestamp < to}; without {@code from} the whole history up to {@code to}.
+     */
+    List<TransactionFullResponse> getTransactions(Long sourceCardId, TransactionStatus status,
+                                                  LocalDateTime from, LocalDateTime to, Pageable pageable);
 
-    List<TransactionFullResponse> getTransactionsByCard(Long cardId, TransactionStatus status, Pageable pageable);
+    /**
+     * Like {@link #getTransactions}, but archived months are only read for an explicit {@code from} before the
+     * archive horizon.
+     */
+    List<TransactionFullResponse> getTransactionsByCard(Long cardId, TransactionStatus status,
+                                                        LocalDateTime from, LocalDateTime to, Pageable pageable);
+
+    TransactionHistoryResponse getCardHistory(JwtPrincipal principal, Long cardId, String cursor, int size);
 }
@@ -1,30 +1,34 @@
 package com.example.bankcards.service.transaction;
 
 import com.example.bankcards.dto.transaction.TransactionFullResponse;
+import com.example.bankcards.dto.transaction.TransactionHistoryResponse;
 import com.example.bankcards.dto.transaction.TransactionRequest;
 import com.example.bankcards.dto.transaction.TransactionResponse;
 import com.example.bankcards.dto.transaction.TransactionUpdateRequest;
 import com.example.bankcards.entity.card.Card;
-import com.example.bankcards.entity.card.CardStatus;
 import com.example.bankcards.entity.transaction.Transaction;
 import com.example.bankcards.entity.transaction.TransactionStatus;
-import com.example.bankcards.entity.user.User;
 import com.example.bankcards.exception.exception.BadRequestException;
 import com.example.bankcards.exception.exception.CreationException;
 import com.example.bankcards.exception.exception.NotFoundException;
 import com.example.bankcards.mapper.TransactionMapper;
 import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.TransactionRepository;
-import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.repository.projection.TransactionView;
+import com.example.bankcards.security.jwt.model.JwtPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.security.Principal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 @Service
@@ -32,26 +36,69 @@ import java.util.List;
 @Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class TransactionServiceImpl implements TransactionService {
+    private static final int MAX_HISTORY_SIZE = 100;
+    // deepest row a page over archived months may start at: both sources hold every row up to the page end
+    static final int MAX_ARCHIVE_OFFSET = 10_000;
+
     private final TransactionRepository transactionRepository;
-    private final UserRepository userRepository;
     private final CardRepository cardRepository;
     private final TransactionMapper transactionMapper;
+    private final TransferSettlement transferSettlement;
+    private final SettlementQueue settlementQueue;
+    private final TransferLanes transferLanes;
+    private final IdempotencyKeys idempotencyKeys;
+    private final TransactionArchive transactionArchive;
+    private final TransactionTemplate transactionTemplate;
 
+    /**
+     * Runs in its own transaction, on the card lanes when they are enabled for synchronous settlement.
+     * A retried idempotency key is answered from the cache before any of that.
+     */
     @Override
-    @Transactional
-    public TransactionResponse createTransaction(Principal principal, TransactionRequest request) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public TransactionResponse createTransaction(JwtPrincipal principal, TransactionRequest request, String idempotencyKey) {
         log.info("Creating transaction for user: {}", principal.getName());
         log.debug("Transaction request: {}", request);
 
-        User user = findUserByName(principal.getName());
-        log.debug("Found user: {}", user.getUsername());
+        long startedAt = System.nanoTime();
+        String requestHash = null;
+        if (idempotencyKey != null) {
+            requestHash = IdempotencyKeys.requestHash(request);
+            TransactionResponse cached = idempotencyKeys.cached(principal.getId(), idempotencyKey, requestHash, startedAt);
+            if (cached != null) {
+                log.info("Replayed cached transaction response for user: {}", principal.getName());
+                return cached;
+            }
+        }
+
+        String hash = requestHash;
+        TransactionResponse response;
+        if (transferLanes.isEnabled() && !settlementQueue.isAsync()) {
+            response = transferLanes.execute(request.getSourceCardId(), request.getTargetCardId(),
+                    () -> transactionTemplate.execute(status -> create(principal, request, idempotencyKey, hash, startedAt)));
+        } else {
+            response = transactionTemplate.execute(status -> create(principal, request, idempotencyKey, hash, startedAt));
+        }
+
+        if (idempotencyKey != null) {
+            idempotencyKeys.remember(principal.getId(), idempotencyKey, requestHash, response);
+        }
+        return response;
+    }
+
+    private TransactionResponse create(JwtPrincipal principal, TransactionRequest request,
+                                       String idempotencyKey, String requestHash, long startedAt) {
+        if (idempotencyKey != null && !idempotencyKeys.claim(principal.getId(), idempotencyKey, requestHash)) {
+            return idempotencyKeys.stored(principal.getId(), idempotencyKey, requestHash, startedAt);
+        }
 
         Card sourceCard = getCardById(request.getSourceCardId());
         Card targetCard = getCardById(request.getTargetCardId());
         log.debug("Source card: {}, Target card: {}", sourceCard.getId(), targetCard.getId());
 
-        if (!sourceCard.getOwner().equals(user) || !targetCard.getOwner().equals(user)) {
-            log.warn("Transaction rejected - cards don't belong to user: {}", user.getUsername());
+        if (!sourceCard.getOwner().getId().equals(principal.getId())
+                || !targetCard.getOwner().getId().equals(principal.getId())) {
+            log.warn("Transaction rejected - cards don't belong to user: {}", principal.getName());
             throw new BadRequestException("Transaction can only be made between your cards");
         }
 
@@ -59,24 +106,13 @@ public class TransactionServiceImpl implements TransactionService {
         log.debug("Created transaction entity: {}", transaction);
 
         String message;
-        if (sourceCard.getStatus() == CardStatus.BLOCKED || targetCard.getStatus() == CardStatus.BLOCKED) {
-            transaction.setStatus(TransactionStatus.FAILED);
-            message = "Cannot use blocked card";
-            log.warn("Transaction failed - card blocked: {}",
-                    sourceCard.getStatus() == CardStatus.BLOCKED ? "source" : "target");
-        } else if (sourceCard.getStatus() == CardStatus.EXPIRED || targetCard.getStatus() == CardStatus.EXPIRED) {
-            transaction.setStatus(TransactionStatus.FAILED);
-            message = "Cannot use expired card";
-            log.warn("Transaction failed - card expired: {}",
-                    sourceCard.getStatus() == CardStatus.EXPIRED ? "source" : "target");
-        } else if (sourceCard.getBalance().compareTo(request.getAmount()) < 0) {
-            transaction.setStatus(TransactionStatus.FAILED);
-            message = "Insufficient funds";
-            log.warn("Transaction failed - insufficient funds. Balance: {}, Amount: {}",
-                    sourceCard.getBalance(), request.getAmount());
-        } else {
+        if (settlementQueue.isAsync()) {
+            settlementQueue.admit();
             message = "Transaction in processing";
-            log.info("Transaction processing started");
+            log.info("Transaction queued for settlement");
+        } else {
+            message = transferSettlement.settle(transaction);
+            log.info("Transaction settled with status: {}", transaction.getStatus());
         }
         try {
             Transaction savedTransaction = transactionRepository.save(transaction);
@@ -85,6 +121,9 @@ public class TransactionServiceImpl implements TransactionService {
             TransactionResponse response = transactionMapper.toTransactionResponse(savedTransaction, message);
             log.debug("Prepared response: {}", response);
 
+            if (idempotencyKey != null) {
+                idempotencyKeys.complete(principal.getId(), idempotencyKey, response);
+            }
             return response;
         } catch (Exception e) {
             log.error("Failed to create transaction: {}", e.getMessage());
@@ -97,24 +136,28 @@ public class TransactionServiceImpl implements TransactionService {
     public TransactionResponse updateStatusTransaction(Long transactionId, TransactionUpdateRequest request) {
         log.info("Updating transaction status. ID: {}, New status: {}", transactionId, request.getStatus());
 
-        Transaction transaction = transactionRepository.findById(transactionId)
+        Transaction transaction = transactionRepository.findForUpdateById(transactionId)
                 .orElseThrow(() -> {
                     log.error("Transaction not found: ID {}", transactionId);
                     return new NotFoundException(String.format("Transaction with id=%d not found", transactionId));
                 });
 
-        if (transaction.getStatus() == request.getStatus()) {
-            log.warn("Status update rejected - same status: {}", request.getStatus());
-            throw new BadRequestException(String.format("Transaction status is already %s", transaction.getStatus()));
+        if (transaction.getStatus() != TransactionStatus.PENDING || request.getStatus() == TransactionStatus.PENDING) {
+            log.warn("Status update rejected - {} to {}", transaction.getStatus(), request.getStatus());
+            throw new BadRequestException(String.format("Transaction status cannot change from %s to %s",
+                    transaction.getStatus(), request.getStatus()));
         }
 
         log.debug("Current status: {}, New status: {}", transaction.getStatus(), request.getStatus());
-        transaction.setStatus(request.getStatus());
+        String message = "Status changed";
+        if (request.getStatus() == TransactionStatus.SUCCESS) {
+            message = transferSettlement.settle(transaction);
+        } else {
+            transaction.setStatus(request.getStatus());
+        }
 
         Transaction updatedTransaction = transactionRepository.save(transaction);
-        log.info("Transaction status updated. ID: {}, Status: {}", transactionId, request.getStatus());
-
-        String message = "Status changed";
+        log.info("Transaction status updated. ID: {}, Status: {}", transactionId, updatedTransaction.getStatus());
 
         TransactionResponse response = transactionMapper.toTransactionResponse(updatedTransaction, message);
         log.debug("Prepared response: {}", response);
@@ -123,40 +166,65 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     @Override
-    public List<TransactionFullResponse> getTransactions(Long sourceCardId, TransactionStatus status, Pageable pageable) {
-        log.info("Fetching transactions. Source card: {}, Status: {}, Page: {}",
-                sourceCardId, status, pageable.getPageNumber());
+    public List<TransactionFullResponse> getTransactions(Long sourceCardId, TransactionStatus status,
+                                                         LocalDateTime from, LocalDateTime to, Pageable pageable) {
+        log.info("Fetching transactions. Source card: {}, Status: {}, From: {}, To: {}, Page: {}",
+                sourceCardId, status, from, to, pageable.getPageNumber());
 
-        Card filterCard = sourceCardId != null ? getCardById(sourceCardId) : null;
-        if (filterCard != null) {
-            log.debug("Filtering by card: {}", filterCard.getId());
+        if (sourceCardId != null) {
+            requireCard(sourceCardId);
         }
-
-        return filterAndMapTransactions(
-                transactionRepository.findAll(pageable),
-                filterCard,
-                status
-        );
+        return findTransactions(sourceCardId, status, from, to, pageable, true);
     }
 
     @Override
-    public List<TransactionFullResponse> getTransactionsByCard(Long cardId, TransactionStatus status, Pageable pageable) {
-        log.info("Fetching transactions for card: {}, Status: {}", cardId, status);
-        Card card = getCardById(cardId);
-        return filterAndMapTransactions(
-                transactionRepository.findAll(pageable),
-                card,
-                status
-        );
+    public List<TransactionFullResponse> getTransactionsByCard(Long cardId, TransactionStatus status,
+                                                               LocalDateTime from, LocalDateTime to, Pageable pageable) {
+        log.info("Fetching transactions for card: {}, Status: {}, From: {}, To: {}", cardId, status, from, to);
+        requireCard(cardId);
+        return findTransactions(cardId, status, from, to, pageable, false);
     }
 
-    private User findUserByName(String username) {
-        log.debug("Looking for user: {}", username);
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> {
-                    log.error("User not found: {}", username);
-                    return new UsernameNotFoundException(String.format("User %s not found", username));
-                });
+    @Override
+    public TransactionHistoryResponse getCardHistory(JwtPrincipal principal, Long cardId, String cursor, int size) {
+        log.info("Fetching history of card {} for user {}, size: {}", cardId, principal.getName(), size);
+
+        if (size < 1 || size > MAX_HISTORY_SIZE) {
+            throw new BadRequestException(String.format("Size must be between 1 and %d", MAX_HISTORY_SIZE));
+        }
+        if (!cardRepository.existsByIdAndOwnerId(cardId, principal.getId())) {
+            log.warn("Card {} not found for user {}", cardId, principal.getName());
+            throw new NotFoundException(String.format("Card with id=%d not found", cardId));
+        }
+
+        TransactionCursor before = cursor != null ? TransactionCursor.decode(cursor) : null;
+        LocalDateTime beforeTimestamp = before != null ? before.timestamp() : null;
+        Long beforeId = before != null ? before.id() : null;
+        List<TransactionView> transactions = transactionRepository.findCardHistory(cardId, beforeTimestamp, beforeId, size + 1);
+
+        // rows before the horizon are served by the archive only, even while the job is still deleting them
+        LocalDateTime horizon = transactionArchive.horizon();
+        if (horizon != null) {
+            transactions = new ArrayList<>(transactions.stream()
+                    .filter(transaction -> !transaction.timestamp().isBefore(horizon))
+                    .toList());
+            if (transactions.size() <= size) {
+                log.debug("Reading archived history of card {}", cardId);
+                transactions.addAll(transactionArchive.findCardHistory(cardId, beforeTimestamp, beforeId,
+                        size + 1 - transactions.size()));
+            }
+        }
+
+        boolean hasNext = transactions.size() > size;
+        if (hasNext) {
+            transactions = transactions.subList(0, size);
+        }
+        log.debug("Found {} transactions, has next: {}", transactions.size(), hasNext);
+
+        return TransactionHistoryResponse.builder()
+                .content(transactions.stream().map(this::mapToFullResponse).toList())
+                .nextCursor(hasNext ? TransactionCursor.after(transactions.get(size - 1)).encode() : null)
+                .build();
     }
 
     private Card getCardById(Long cardId) {
@@ -168,14 +236,37 @@ public class TransactionServiceImpl implements TransactionService {
                 });
     }
 
-    private List<TransactionFullResponse> filterAndMapTransactions(Page<Transaction> page, Card filterCard, TransactionStatus status) {
-        log.debug("Filtering transactions. Card filter: {}, Status filter: {}",
-                filterCard != null ? filterCard.getId() : "none",
-                status);
+    private void requireCard(Long cardId) {
+        if (!cardRepository.existsById(cardId)) {
+            log.error("Card not found: {}", cardId);
+            throw new NotFoundException(String.format("Card with id=%d not found", cardId));
+        }
+    }
+
+    /**
+     * Reads archived months when {@code from} is before the archive horizon, or when it is missing and
+     * {@code archiveWithoutFrom} is set; otherwise only the database.
+     */
+    private List<TransactionFullResponse> findTransactions(Long sourceCardId, TransactionStatus status,
+                                                           LocalDateTime from, LocalDateTime to, Pageable pageable,
+                                                           boolean archiveWithoutFrom) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from;
+        if (start != null && !start.isBefore(end)) {
+            throw new BadRequestException("Parameter 'from' must be before 'to'");
+        }
+        log.debug("Filtering transactions. Card filter: {}, Status filter: {}, Range: [{}, {})",
+                sourceCardId != null ? sourceCardId : "none",
+                status, start, end);
+        Comparator<TransactionView> order = TransactionArchive.comparator(pageable.getSort());
+
+        LocalDateTime horizon = transactionArchive.horizon();
+        boolean archived = horizon != null && (start != null ? start.isBefore(horizon) : archiveWithoutFrom);
+        List<TransactionView> rows = archived
+                ? findWithArchive(sourceCardId, status, start, end, horizon, pageable, order)
+                : findViews(sourceCardId, status, start, end, pageable).getContent();
 
-        List<TransactionFullResponse> result = page.stream()
-                .filter(t -> filterCard == null || (t.getSourceCard() != null && t.getSourceCard().equals(filterCard)))
-                .filter(t -> status == null || t.getStatus() == status)
+        List<TransactionFullResponse> result = rows.stream()
                 .map(this::mapToFullResponse)
                 .toList();
 
@@ -183,7 +274,63 @@ public class TransactionServiceImpl implements TransactionService {
         return result;
     }
 
-    private TransactionFullResponse mapToFullResponse(Transaction transaction) {
+    /**
+     * Reads the archived part of the range from {@link TransactionArchive} and the rest from the database. Both
+     * return their first {@code offset + size} rows in page order, which are merged and sliced to the page, so
+     * a page costs as much as all pages before it and its offset is capped.
+     */
+    private List<TransactionView> findWithArchive(Long sourceCardId, TransactionStatus status, LocalDateTime start,
+                                                  LocalDateTime end, LocalDateTime horizon, Pageable pageable,
+                                                  Comparator<TransactionView> order) {
+        if (pageable.getOffset() > MAX_ARCHIVE_OFFSET) {
+            throw new BadRequestException(String.format(
+                    "Pages past the first %d archived transactions are not available; narrow 'from' and 'to'",
+                    MAX_ARCHIVE_OFFSET));
+        }
+        int limit = Math.toIntExact(pageable.getOffset() + pageable.getPageSize());
+        LocalDateTime archivedEnd = end.isBefore(horizon) ? end : horizon;
+        log.debug("Reading archived transactions in [{}, {})", start, archivedEnd);
+
+        List<TransactionView> rows = new ArrayList<>(
+                transactionArchive.find(sourceCardId, status, start, archivedEnd, pageable.getSort(), limit));
+        if (end.isAfter(horizon)) {
+            rows.addAll(findViews(sourceCardId, status, horizon, end, PageRequest.of(0, limit, pageable.getSort())).getContent());
+        }
+        return rows.stream()
+                .sorted(order)
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .toList();
+    }
+
+    private Slice<TransactionView> findViews(Long sourceCardId, TransactionStatus status, LocalDateTime start,
+                                            LocalDateTime end, Pageable pageable) {
+        if (start == null) {
+            return findViewsBefore(sourceCardId, status, end, pageable);
+        }
+        if (sourceCardId != null && status != null) {
+            return transactionRepository.findViewsBySourceCardIdAndStatus(sourceCardId, status, start, end, pageable);
+        } else if (sourceCardId != null) {
+            return transactionRepository.findViewsBySourceCardId(sourceCardId, start, end, pageable);
+        } else if (status != null) {
+            return transactionRepository.findViewsByStatus(status, start, end, pageable);
+        }
+        return transactionRepository.findAllViews(start, end, pageable);
+    }
+
+    private Slice<TransactionView> findViewsBefore(Long sourceCardId, TransactionStatus status, LocalDateTime end,
+                                                   Pageable pageable) {
+        if (sourceCardId != null && status != null) {
+            return transactionRepository.findViewsBySourceCardIdAndStatusBefore(sourceCardId, status, end, pageable);
+        } else if (sourceCardId != null) {
+            return transactionRepository.findViewsBySourceCardIdBefore(sourceCardId, end, pageable);
+        } else if (status != null) {
+            return transactionRepository.findViewsByStatusBefore(status, end, pageable);
+        }
+        return transactionRepository.findAllViewsBefore(end, pageable);
+    }
+
+    private TransactionFullResponse mapToFullResponse(TransactionView transaction) {
         TransactionFullResponse response = transactionMapper.toFullResponse(transaction);
         log.trace("Mapped transaction to full response: {}", response);
         return response;
@@ -0,0 +1,160 @@
+package com.example.bankcards.service.transaction;
+
+import com.example.bankcards.exception.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Orders transfers per card in memory, so a hot card queues here instead of on its row lock.
+ */
+@Slf4j
+@Component
+public class TransferLanes {
+    static final String EXECUTOR_NAME = "transfer.lanes";
+
+    private static final CompletableFuture<Void> IDLE = CompletableFuture.completedFuture(null);
+
+    private final boolean enabled;
+    private final int queueCapacity;
+    private final List<Lane> lanes = new ArrayList<>();
+    private final ThreadPoolExecutor threadPool;
+    private final ExecutorService executor;
+
+    public TransferLanes(@Value("${transfer.lanes.enabled:false}") boolean enabled,
+                         @Value("${transfer.lanes.count:8}") int count,
+                         @Value("${transfer.lanes.queue-capacity:1000}") int queueCapacity,
+                         MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.queueCapacity = queueCapacity;
+        if (!enabled) {
+            threadPool = null;
+            executor = null;
+            return;
+        }
+        threadPool = new ThreadPoolExecutor(
+                count,
+                count,
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new CustomizableThreadFactory("transfer-lane-"));
+        executor = ExecutorServiceMetrics.monitor(meterRegistry, threadPool, EXECUTOR_NAME);
+        for (int i = 0; i < count; i++) {
+            Lane lane = new Lane();
+            lanes.add(lane);
+            Gauge.builder(EXECUTOR_NAME + ".queued", lane.queued, AtomicInteger::get)
+                    .description("Transfers admitted to the lane and not finished yet")
+                    .tag("lane", String.valueOf(i))
+                    .register(meterRegistry);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Runs {@code transfer} once every earlier transfer of either card has finished, and waits for its result.
+     */
+    public <T> T execute(long sourceCardId, long targetCardId, Supplier<T> transfer) {
+        Lane lower = lanes.get(Math.min(lane(sourceCardId), lane(targetCardId)));
+        Lane higher = lanes.get(Math.max(lane(sourceCardId), lane(targetCardId)));
+
+        CompletableFuture<T> result;
+        synchronized (lower) {
+            synchronized (higher) {
+                admit(lower, higher);
+                CompletableFuture<Void> previous = CompletableFuture.allOf(tail(sourceCardId), tail(targetCardId));
+                result = previous.thenApplyAsync(ignored -> transfer.get(), executor);
+                CompletableFuture<Void> done = result.handle((value, error) -> null);
+                enqueue(sourceCardId, done);
+                if (targetCardId != sourceCardId) {
+                    enqueue(targetCardId, done);
+                }
+                done.thenRun(() -> {
+                    release(sourceCardId, done);
+                    if (targetCardId != sourceCardId) {
+                        release(targetCardId, done);
+                    }
+                    lower.queued.decrementAndGet();
+                    if (higher != lower) {
+                        higher.queued.decrementAndGet();
+                    }
+                });
+            }
+        }
+        return await(result);
+    }
+
+    int lane(long cardId) {
+        return Math.floorMod(Long.hashCode(cardId * 0x9E3779B97F4A7C15L), lanes.size());
+    }
+
+    @PreDestroy
+    public void close() {
+        if (threadPool != null) {
+            threadPool.shutdown();
+        }
+    }
+
+    private void admit(Lane lower, Lane higher) {
+        for (Lane lane : higher == lower ? List.of(lower) : List.of(lower, higher)) {
+            if (lane.queued.get() >= queueCapacity) {
+                log.warn("Transfer rejected - lane {} is full: {} queued", lanes.indexOf(lane), lane.queued.get());
+                throw new ServiceUnavailableException("Too many transfers for this card, please retry later.");
+            }
+        }
+        lower.queued.incrementAndGet();
+        if (higher != lower) {
+            higher.queued.incrementAndGet();
+        }
+    }
+
+    private CompletableFuture<Void> tail(long cardId) {
+        return lanes.get(lane(cardId)).tails.getOrDefault(cardId, IDLE);
+    }
+
+    private void enqueue(long cardId, CompletableFuture<Void> done) {
+        lanes.get(lane(cardId)).tails.put(cardId, done);
+    }
+
+    private void release(long cardId, CompletableFuture<Void> done) {
+        Lane lane = lanes.get(lane(cardId));
+        synchronized (lane) {
+            lane.tails.remove(cardId, done);
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Transfer was interrupted.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static final class Lane {
+        private final Map<Long, CompletableFuture<Void>> tails = new HashMap<>();
+        private final AtomicInteger queued = new AtomicInteger();
+    }
+}
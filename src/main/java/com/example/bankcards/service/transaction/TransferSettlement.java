@@ -0,0 +1,80 @@
+package com.example.bankcards.service.transaction;
+
+import com.example.bankcards.entity.card.Card;
+import com.example.bankcards.entity.card.CardStatus;
+import com.example.bankcards.entity.transaction.Transaction;
+import com.example.bankcards.entity.transaction.TransactionStatus;
+import com.example.bankcards.repository.CardRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Moves the money of a transfer with both cards locked in ascending id order.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class TransferSettlement {
+    static final String COMPLETED = "Transaction completed";
+
+    private final CardRepository cardRepository;
+
+    /**
+     * Settles the transfer and returns the message for its response.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public String settle(Transaction transaction) {
+        cardRepository.lockForUpdate(List.of(transaction.getSourceCard(), transaction.getTargetCard()));
+        return apply(transaction);
+    }
+
+    /**
+     * Settles a batch in list order. The cards of the whole batch are locked up front, still in ascending id
+     * order, so a batch never holds one card while waiting for a lower one.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void settleAll(List<Transaction> transactions) {
+        cardRepository.lockForUpdate(transactions.stream()
+                .flatMap(transaction -> Stream.of(transaction.getSourceCard(), transaction.getTargetCard()))
+                .toList());
+        transactions.forEach(this::apply);
+    }
+
+    private String apply(Transaction transaction) {
+        Card source = transaction.getSourceCard();
+        Card target = transaction.getTargetCard();
+
+        String failure = check(source, target, transaction.getAmount());
+        if (failure != null) {
+            transaction.setStatus(TransactionStatus.FAILED);
+            log.warn("Transaction failed - {}. Source card: {}, Target card: {}", failure, source.getId(), target.getId());
+            return failure;
+        }
+
+        source.setBalance(source.getBalance().subtract(transaction.getAmount()));
+        target.setBalance(target.getBalance().add(transaction.getAmount()));
+        transaction.setStatus(TransactionStatus.SUCCESS);
+        log.debug("Moved {} from card {} to card {}", transaction.getAmount(), source.getId(), target.getId());
+        return COMPLETED;
+    }
+
+    private String check(Card source, Card target, BigDecimal amount) {
+        if (source.getStatus() == CardStatus.BLOCKED || target.getStatus() == CardStatus.BLOCKED) {
+            return "Cannot use blocked card";
+        }
+        if (source.getStatus() == CardStatus.EXPIRED || target.getStatus() == CardStatus.EXPIRED) {
+            return "Cannot use expired card";
+        }
+        if (source.getBalance().compareTo(amount) < 0) {
+            return "Insufficient funds";
+        }
+        return null;
+    }
+}
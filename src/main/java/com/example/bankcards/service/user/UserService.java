@@ -4,18 +4,23 @@ import com.example.bankcards.dto.user.ChangeRoleRequest;
 import com.example.bankcards.dto.user.UserRegistrationRequest;
 import com.example.bankcards.dto.user.UserResponse;
 import com.example.bankcards.dto.user.UserUpdateRequest;
+import com.example.bankcards.security.jwt.model.JwtPrincipal;
+import com.example.bankcards.security.jwt.model.JwtUserDetails;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
-import java.security.Principal;
 import java.util.List;
 
 public interface UserService extends UserDetailsService {
+    @Override
+    JwtUserDetails loadUserByUsername(String username) throws UsernameNotFoundException;
+
     UserResponse create(UserRegistrationRequest userRegistrationRequest);
 
-    UserResponse changeUserRole(Principal principal, ChangeRoleRequest changeRoleRequest);
+    UserResponse changeUserRole(JwtPrincipal principal, ChangeRoleRequest changeRoleRequest);
 
-    UserResponse update(Principal principal, UserUpdateRequest userUpdateRequest);
+    UserResponse update(JwtPrincipal principal, UserUpdateRequest userUpdateRequest);
 
     List<UserResponse> getAll(Pageable pageable);
 
@@ -23,5 +28,5 @@ public interface UserService extends UserDetailsService {
 
     UserResponse getByUsername(String username);
 
-    void deleteById(Long userId, Principal principal);
+    void deleteById(Long userId, JwtPrincipal principal);
 }
@@ -12,17 +12,18 @@ import com.example.bankcards.exception.exception.NotFoundException;
 import com.example.bankcards.mapper.UserMapper;
 import com.example.bankcards.repository.RoleRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.jwt.metrics.LoginMetrics;
+import com.example.bankcards.security.jwt.model.JwtPrincipal;
+import com.example.bankcards.security.jwt.model.JwtUserDetails;
+import com.example.bankcards.security.jwt.service.RefreshTokenService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.security.Principal;
 import java.util.List;
 
 import static com.example.bankcards.util.GlobalConstants.DEFAULT_ROLE;
@@ -37,24 +38,25 @@ public class UserServiceImpl implements UserService {
     private final RoleRepository roleRepository;
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
+    private final LoginMetrics loginMetrics;
+    private final RefreshTokenService refreshTokenService;
 
 
     @Override
     @Transactional
-    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+    public JwtUserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         log.info("Executing loadUserByUsername for username: {}", username);
+        long startedAt = System.nanoTime();
 
-        User user = findUserByUsername(username);
+        try {
+            User user = findUserByUsername(username);
 
-        log.info("User {} found, creating UserDetails", username);
+            log.info("User {} found, creating UserDetails", username);
 
-        return new org.springframework.security.core.userdetails.User(
-                user.getUsername(),
-                user.getPassword(),
-                user.getRoles().stream()
-                        .map(role -> new SimpleGrantedAuthority(role.getName()))
-                        .toList()
-        );
+            return userMapper.toUserDetails(user);
+        } finally {
+            loginMetrics.recordUserLookup(startedAt);
+        }
     }
 
     @Override
@@ -93,20 +95,19 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional
-    public UserResponse changeUserRole(Principal principal, ChangeRoleRequest changeRoleRequest) {
+    public UserResponse changeUserRole(JwtPrincipal principal, ChangeRoleRequest changeRoleRequest) {
         log.info("Executing changeUserRole for initiator: {}, target: {}, operation: {}, role: {}",
                 principal.getName(),
                 changeRoleRequest.getUsername(),
                 changeRoleRequest.getOperationType(),
                 changeRoleRequest.getRole());
 
-        User sourceUser = findUserByUsername(principal.getName());
         User targetUser = findUserByUsername(changeRoleRequest.getUsername());
         String roleName = ROLE_PREFIX + changeRoleRequest.getRole().toUpperCase();
 
-        log.debug("Source user ID: {}, Target user ID: {}", sourceUser.getId(), targetUser.getId());
+        log.debug("Source user ID: {}, Target user ID: {}", principal.getId(), targetUser.getId());
 
-        if (sourceUser.getId().equals(targetUser.getId())) {
+        if (principal.getId().equals(targetUser.getId())) {
             log.error("User {} attempted to modify own roles", principal.getName());
             throw new BadRequestException(String.format("User cannot %s the role himself.", changeRoleRequest.getOperationType()));
         }
@@ -140,10 +141,10 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional
-    public UserResponse update(Principal principal, UserUpdateRequest updates) {
+    public UserResponse update(JwtPrincipal principal, UserUpdateRequest updates) {
         log.info("Starting update for user: {}", principal.getName());
 
-        User user = findUserByUsername(principal.getName());
+        User user = findUserById(principal.getId());
 
         if (updates.getUsername() != null) {
             log.debug("Updating username to: {}", updates.getUsername());
@@ -153,6 +154,7 @@ public class UserServiceImpl implements UserService {
         if (updates.getPassword() != null) {
             log.debug("Updating password");
             user.setPassword(passwordEncoder.encode(updates.getPassword()));
+            refreshTokenService.revokeAll(user.getId());
         }
 
         if (updates.getEmail() != null) {
@@ -187,11 +189,7 @@ public class UserServiceImpl implements UserService {
     public UserResponse getById(Long userId) {
         log.info("Executing getById for user ID: {}", userId);
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> {
-                    log.error("User with ID {} not found", userId);
-                    return new NotFoundException(String.format("User with id=%d not found", userId));
-                });
+        User user = findUserById(userId);
 
         log.debug("Mapping user entity to response DTO");
         return userMapper.toUserResponse(user);
@@ -207,7 +205,7 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional
-    public void deleteById(Long userId, Principal principal) {
+    public void deleteById(Long userId, JwtPrincipal principal) {
         log.info("Starting deleteById for user ID: {}, initiator: {}", userId, principal.getName());
 
         if (!userRepository.existsById(userId)) {
@@ -215,9 +213,7 @@ public class UserServiceImpl implements UserService {
             throw new NotFoundException(String.format("User with id=%d not found.", userId));
         }
 
-        User initiator = findUserByUsername(principal.getName());
-
-        if (initiator.getId().equals(userId)) {
+        if (principal.getId().equals(userId)) {
             log.error("User {} attempted self-deletion", principal.getName());
             throw new BadRequestException("User cannot delete himself.");
         }
@@ -236,6 +232,16 @@ public class UserServiceImpl implements UserService {
                 });
     }
 
+    private User findUserById(Long userId) {
+        log.debug("Searching for user by ID: {}", userId);
+
+        return userRepository.findById(userId)
+                .orElseThrow(() -> {
+                    log.error("User with ID {} not found", userId);
+                    return new NotFoundException(String.format("User with id=%d not found", userId));
+                });
+    }
+
     private Role findRoleByName(String name) {
         log.debug("Searching for role: {}", name);
 
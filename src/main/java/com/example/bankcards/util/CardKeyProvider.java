@@ -0,0 +1,147 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.exception.exception.EncryptionException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Card number AES keys by version and the blind index key, derived in the background at startup.
+ */
+@Slf4j
+@Component
+public class CardKeyProvider {
+    private static final String PBKDF2_ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int ITERATIONS = 65536;
+    private static final int KEY_LENGTH = 512;
+
+    public static final int INITIAL_VERSION = 1;
+    public static final int MAX_VERSION = 255;
+
+    private final CompletableFuture<Keys> keys;
+    private final Map<Integer, SecretKey> additionalKeys = new HashMap<>();
+    private final int activeVersion;
+
+    public CardKeyProvider(@Value("${encryption.password:}") String password,
+                           @Value("${encryption.salt:}") String salt,
+                           @Value("${encryption.aes-key:}") String aesKey,
+                           @Value("${encryption.hmac-key:}") String hmacKey,
+                           @Value("${encryption.additional-keys:}") List<String> additionalKeys,
+                           @Value("${encryption.active-version:1}") int activeVersion,
+                           ApplicationStartup applicationStartup) {
+        for (String entry : additionalKeys) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf(':');
+            int version = Integer.parseInt(entry.substring(0, separator).trim());
+            if (version == INITIAL_VERSION) {
+                throw new EncryptionException("Key version 1 is the configured or derived key");
+            }
+            if (version < INITIAL_VERSION || version > MAX_VERSION) {
+                throw new EncryptionException(String.format("Card key version %d is out of range", version));
+            }
+            this.additionalKeys.put(version, new SecretKeySpec(Base64.getDecoder().decode(entry.substring(separator + 1).trim()), "AES"));
+        }
+        if (activeVersion != INITIAL_VERSION && !this.additionalKeys.containsKey(activeVersion)) {
+            throw new EncryptionException(String.format("Active card key version %d is not configured", activeVersion));
+        }
+        this.activeVersion = activeVersion;
+
+        if (!aesKey.isEmpty() && !hmacKey.isEmpty()) {
+            log.info("Using pre-derived card encryption keys");
+            this.keys = CompletableFuture.completedFuture(new Keys(
+                    new SecretKeySpec(Base64.getDecoder().decode(aesKey), "AES"),
+                    new SecretKeySpec(Base64.getDecoder().decode(hmacKey), "HmacSHA256")));
+            return;
+        }
+        if (password.isEmpty() || salt.isEmpty()) {
+            throw new EncryptionException("Card encryption keys are not configured");
+        }
+
+        ExecutorService executor = Executors.newSingleThreadExecutor(daemonThreadFactory());
+        this.keys = CompletableFuture.supplyAsync(() -> derive(password, salt, applicationStartup), executor);
+        executor.shutdown();
+    }
+
+    public int activeVersion() {
+        return activeVersion;
+    }
+
+    public SecretKey aesKey() {
+        return aesKey(activeVersion);
+    }
+
+    public SecretKey aesKey(int version) {
+        if (version == INITIAL_VERSION) {
+            return keys().aesKey();
+        }
+
+        SecretKey key = additionalKeys.get(version);
+        if (key == null) {
+            throw new EncryptionException(String.format("Card key version %d is not configured", version));
+        }
+        return key;
+    }
+
+    public SecretKey hmacKey() {
+        return keys().hmacKey();
+    }
+
+    private Keys keys() {
+        try {
+            return keys.join();
+        } catch (CompletionException e) {
+            throw new EncryptionException("Failed to initialize encryption");
+        }
+    }
+
+    private static Keys derive(String password, String salt, ApplicationStartup applicationStartup) {
+        StartupStep step = applicationStartup.start("bankcards.card-keys.derive")
+                .tag("iterations", String.valueOf(ITERATIONS));
+        long startedAt = System.nanoTime();
+        try {
+            SecretKeyFactory factory = SecretKeyFactory.getInstance(PBKDF2_ALGORITHM);
+            PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt.getBytes(StandardCharsets.UTF_8), ITERATIONS, KEY_LENGTH);
+            byte[] derived = factory.generateSecret(spec).getEncoded();
+            spec.clearPassword();
+
+            log.info("Card encryption keys derived in {} ms", (System.nanoTime() - startedAt) / 1_000_000);
+            return new Keys(
+                    new SecretKeySpec(Arrays.copyOfRange(derived, 0, 32), "AES"),
+                    new SecretKeySpec(Arrays.copyOfRange(derived, 32, 64), "HmacSHA256"));
+        } catch (Exception e) {
+            log.error("Card encryption key derivation failed: {}", e.getMessage());
+            throw new EncryptionException("Failed to initialize encryption");
+        } finally {
+            step.end();
+        }
+    }
+
+    private static CustomizableThreadFactory daemonThreadFactory() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("card-key-derivation-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    private record Keys(SecretKey aesKey, SecretKey hmacKey) {
+    }
+}
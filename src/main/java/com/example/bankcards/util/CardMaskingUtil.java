@@ -1,8 +1,29 @@
 package com.example.bankcards.util;
 
+import com.example.bankcards.entity.card.Card;
+
 public class CardMaskingUtil {
+    private static final String MASK_PREFIX = "**** **** **** ";
+
     public static String mask(String cardNumber) {
         if (cardNumber == null || cardNumber.length() < 16) return cardNumber;
-        return "**** **** **** " + cardNumber.substring(12);
+        return MASK_PREFIX + cardNumber.substring(12);
+    }
+
+    /**
+     * Masks from the plaintext last four digits; only rows not yet backfilled fall back to decrypting the number.
+     */
+    public static String maskedNumber(Card card) {
+        return card.getLast4() != null ? maskLast4(card.getLast4()) : mask(card.getCardNumber());
+    }
+
+    public static String maskLast4(String last4) {
+        if (last4 == null) return null;
+        return MASK_PREFIX + last4;
+    }
+
+    public static String last4(String cardNumber) {
+        if (cardNumber == null || cardNumber.length() < 4) return null;
+        return cardNumber.substring(cardNumber.length() - 4);
     }
-}
\ No newline at end of file
+}
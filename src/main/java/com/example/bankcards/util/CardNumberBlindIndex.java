@@ -0,0 +1,33 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.exception.exception.EncryptionException;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+
+/**
+ * Keyed HMAC-SHA256 of a card number for equality lookups.
+ */
+@Component
+public class CardNumberBlindIndex {
+    private final ThreadLocal<Mac> mac;
+
+    public CardNumberBlindIndex(CardKeyProvider keyProvider) {
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(keyProvider.hmacKey());
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new EncryptionException("Failed to initialize card number index");
+            }
+        });
+    }
+
+    public String hash(String cardNumber) {
+        return HexFormat.of().formatHex(mac.get().doFinal(cardNumber.getBytes(StandardCharsets.UTF_8)));
+    }
+}
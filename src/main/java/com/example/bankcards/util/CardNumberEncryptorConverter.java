@@ -3,61 +3,119 @@ package com.example.bankcards.util;
 import com.example.bankcards.exception.exception.EncryptionException;
 import jakarta.persistence.AttributeConverter;
 import jakarta.persistence.Converter;
+import org.springframework.stereotype.Component;
 
 import javax.crypto.*;
 import javax.crypto.spec.*;
-import java.security.spec.KeySpec;
-import java.util.Base64;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
 
+/**
+ * Stores card numbers as {@code version || nonce || AES-GCM ciphertext}.
+ */
+@Component
 @Converter
-public class CardNumberEncryptorConverter implements AttributeConverter<String, String> {
+public class CardNumberEncryptorConverter implements AttributeConverter<String, byte[]> {
 
-    private static final String ALGORITHM = "AES/CBC/PKCS5Padding";
-    private static final String PBKDF2_ALGORITHM = "PBKDF2WithHmacSHA256";
-    private static final int ITERATIONS = 65536;
-    private static final int KEY_LENGTH = 256;
+    private static final String GCM_ALGORITHM = "AES/GCM/NoPadding";
+    private static final String LEGACY_ALGORITHM = "AES/CBC/PKCS5Padding";
+    private static final int LEGACY_VERSION = 0;
+    private static final int NONCE_LENGTH = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+    private static final int HEADER_LENGTH = 1 + NONCE_LENGTH;
 
-    private static final String PASSWORD;
-    private static final String SALT;
+    private static final IvParameterSpec LEGACY_IV = new IvParameterSpec(new byte[16]);
+    private static final SecureRandom RANDOM = new SecureRandom();
 
-    private static final SecretKey SECRET_KEY;
-    private static final IvParameterSpec IV;
+    private final CardKeyProvider keyProvider;
+    private final byte activeVersion;
 
-    static {
+    /**
+     * Cipher lookup is cached per thread. GCM ciphers are re-initialised with a fresh nonce for every value;
+     * the legacy cipher is initialised once, since {@code doFinal} resets it to its initialised state.
+     */
+    private final ThreadLocal<Cipher> gcmCipher = ThreadLocal.withInitial(() -> cipher(GCM_ALGORITHM));
+    private final ThreadLocal<Cipher> legacyDecryptCipher;
 
-        //TODO небезопасно
-        PASSWORD = "uB7!kP2#qR9@zY5*eF3$jH6%mN1^wL4&";
-        SALT = "sE7#rT2@kY9!pL5*";
-
-        try {
-            SecretKeyFactory factory = SecretKeyFactory.getInstance(PBKDF2_ALGORITHM);
-            KeySpec spec = new PBEKeySpec(PASSWORD.toCharArray(), SALT.getBytes(), ITERATIONS, KEY_LENGTH);
-            SECRET_KEY = new SecretKeySpec(factory.generateSecret(spec).getEncoded(), "AES");
-            IV = new IvParameterSpec(new byte[16]);
-        } catch (Exception e) {
-            throw new EncryptionException("Failed to initialize encryption");
-        }
+    public CardNumberEncryptorConverter(CardKeyProvider keyProvider) {
+        this.keyProvider = keyProvider;
+        this.activeVersion = (byte) keyProvider.activeVersion();
+        this.legacyDecryptCipher = ThreadLocal.withInitial(() -> {
+            try {
+                Cipher cipher = cipher(LEGACY_ALGORITHM);
+                cipher.init(Cipher.DECRYPT_MODE, keyProvider.aesKey(CardKeyProvider.INITIAL_VERSION), LEGACY_IV);
+                return cipher;
+            } catch (GeneralSecurityException e) {
+                throw new EncryptionException("Failed to initialize cipher");
+            }
+        });
     }
 
     @Override
-    public String convertToDatabaseColumn(String cardNumber) {
+    public byte[] convertToDatabaseColumn(String cardNumber) {
+        if (cardNumber == null) {
+            throw new EncryptionException("Encryption failed");
+        }
+
         try {
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.ENCRYPT_MODE, SECRET_KEY, IV);
-            return Base64.getEncoder().encodeToString(cipher.doFinal(cardNumber.getBytes()));
-        } catch (Exception e) {
+            byte[] plain = cardNumber.getBytes(StandardCharsets.UTF_8);
+            byte[] output = new byte[HEADER_LENGTH + plain.length + TAG_LENGTH_BITS / 8];
+            byte[] nonce = new byte[NONCE_LENGTH];
+            RANDOM.nextBytes(nonce);
+            output[0] = activeVersion;
+            System.arraycopy(nonce, 0, output, 1, NONCE_LENGTH);
+
+            Cipher cipher = gcmCipher.get();
+            cipher.init(Cipher.ENCRYPT_MODE, keyProvider.aesKey(), new GCMParameterSpec(TAG_LENGTH_BITS, nonce));
+            cipher.doFinal(plain, 0, plain.length, output, HEADER_LENGTH);
+            return output;
+        } catch (GeneralSecurityException e) {
+            gcmCipher.remove();
             throw new EncryptionException("Encryption failed");
         }
     }
 
     @Override
-    public String convertToEntityAttribute(String encryptedCardNumber) {
+    public String convertToEntityAttribute(byte[] encryptedCardNumber) {
+        if (encryptedCardNumber == null || encryptedCardNumber.length < 2) {
+            throw new EncryptionException("Decryption failed");
+        }
+
+        int version = Byte.toUnsignedInt(encryptedCardNumber[0]);
         try {
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.DECRYPT_MODE, SECRET_KEY, IV);
-            return new String(cipher.doFinal(Base64.getDecoder().decode(encryptedCardNumber)));
-        } catch (Exception e) {
+            if (version == LEGACY_VERSION) {
+                byte[] decrypted = legacyDecryptCipher.get().doFinal(encryptedCardNumber, 1, encryptedCardNumber.length - 1);
+                return new String(decrypted, StandardCharsets.UTF_8);
+            }
+            if (encryptedCardNumber.length <= HEADER_LENGTH) {
+                throw new EncryptionException("Decryption failed");
+            }
+
+            Cipher cipher = gcmCipher.get();
+            cipher.init(Cipher.DECRYPT_MODE, keyProvider.aesKey(version),
+                    new GCMParameterSpec(TAG_LENGTH_BITS, encryptedCardNumber, 1, NONCE_LENGTH));
+            byte[] decrypted = cipher.doFinal(encryptedCardNumber, HEADER_LENGTH, encryptedCardNumber.length - HEADER_LENGTH);
+            return new String(decrypted, StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException e) {
+            gcmCipher.remove();
+            legacyDecryptCipher.remove();
             throw new EncryptionException("Decryption failed");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Whether a stored value is already GCM under the active key version, i.e. needs no re-encryption.
+     */
+    public boolean isCurrent(byte[] encryptedCardNumber) {
+        return encryptedCardNumber.length > 0 && encryptedCardNumber[0] == activeVersion;
+    }
+
+    private static Cipher cipher(String algorithm) {
+        try {
+            return Cipher.getInstance(algorithm);
+        } catch (GeneralSecurityException e) {
+            throw new EncryptionException("Failed to initialize cipher");
+        }
+    }
+}
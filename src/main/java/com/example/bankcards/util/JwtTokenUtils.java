@@ -1,11 +1,13 @@
 package com.example.bankcards.util;
 
+import com.example.bankcards.security.jwt.model.JwtPrincipal;
+import com.example.bankcards.security.jwt.model.JwtUserDetails;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
@@ -14,18 +16,29 @@ import java.util.*;
 
 @Component
 public class JwtTokenUtils {
-    @Value("${jwt.secret}")
-    private String secret;
+    private static final String ROLES_CLAIM = "roles";
+    private static final String USER_ID_CLAIM = "uid";
 
-    @Value("${jwt.lifetime}")
-    private Duration lifetime;
+    private final Duration lifetime;
+    private final SecretKey signingKey;
+    private final JwtParser jwtParser;
 
-    public String generateToken(UserDetails userDetails) {
+    public JwtTokenUtils(@Value("${jwt.secret}") String secret,
+                         @Value("${jwt.lifetime}") Duration lifetime) {
+        this.lifetime = lifetime;
+        this.signingKey = Keys.hmacShaKeyFor(Base64.getDecoder().decode(secret));
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+    }
+
+    public String generateToken(JwtUserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
         List<String> roles = userDetails.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .toList();
-        claims.put("roles", roles);
+        claims.put(USER_ID_CLAIM, userDetails.getId());
+        claims.put(ROLES_CLAIM, roles);
         claims.put("iss", "bank-card-system");
         claims.put("aud", "banking-app");
 
@@ -34,31 +47,30 @@ public class JwtTokenUtils {
 
         return Jwts.builder()
                 .claims(claims)
+                .id(UUID.randomUUID().toString())
                 .subject(userDetails.getUsername())
                 .issuedAt(issuedAt)
                 .expiration(expiresAt)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    public String getUsername(String token) {
-        return getClaimsFromToken(token).getSubject();
-    }
-
-    public List<String> getRoles(String token) {
-        return getClaimsFromToken(token).get("roles", List.class);
-    }
-
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Base64.getDecoder().decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
+    /**
+     * Verifies the token signature once and extracts everything the request filter needs.
+     */
+    public JwtPrincipal parseToken(String token) {
+        Claims claims = jwtParser.parseSignedClaims(token).getPayload();
 
-    private Claims getClaimsFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        Date issuedAt = claims.getIssuedAt();
+        Date expiration = claims.getExpiration();
+        return new JwtPrincipal(
+                claims.get(USER_ID_CLAIM, Long.class),
+                claims.getId(),
+                claims.getSubject(),
+                roles == null ? List.of() : roles.stream().map(String::valueOf).toList(),
+                issuedAt == null ? null : issuedAt.toInstant(),
+                expiration == null ? null : expiration.toInstant()
+        );
     }
 }
@@ -0,0 +1,117 @@
+package com.example.bankcards.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Card lookup by number: deterministic ciphertext versus blind index (needs Docker).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CardLookupBenchmark {
+    private static final byte[] AES_KEY = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HMAC_KEY = "fedcba9876543210fedcba9876543210".getBytes(StandardCharsets.US_ASCII);
+
+    @Param({"10000000"})
+    private int rows;
+
+    private PostgreSQLContainer<?> postgres;
+    private Connection connection;
+    private PreparedStatement byCiphertext;
+    private PreparedStatement byHash;
+    private Cipher legacyCipher;
+    private Mac mac;
+
+    @Setup
+    public void setUp() throws Exception {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+        connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE EXTENSION pgcrypto");
+            statement.execute("CREATE TABLE cards (id bigserial PRIMARY KEY, card_number varchar(255) NOT NULL, "
+                    + "card_number_hash varchar(64) NOT NULL)");
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO cards (card_number, card_number_hash) "
+                        + "SELECT encode(encrypt(convert_to(lpad(g::text, 16, '4'), 'UTF8'), ?, 'aes-cbc/pad:pkcs'), 'base64'), "
+                        + "encode(hmac(convert_to(lpad(g::text, 16, '4'), 'UTF8'), ?, 'sha256'), 'hex') "
+                        + "FROM generate_series(1, ?) g")) {
+            insert.setBytes(1, AES_KEY);
+            insert.setBytes(2, HMAC_KEY);
+            insert.setInt(3, rows);
+            insert.execute();
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE UNIQUE INDEX uk_cards_card_number ON cards (card_number)");
+            statement.execute("CREATE UNIQUE INDEX uk_cards_card_number_hash ON cards (card_number_hash)");
+            statement.execute("VACUUM ANALYZE cards");
+        }
+
+        byCiphertext = connection.prepareStatement("SELECT id FROM cards WHERE card_number = ?");
+        byHash = connection.prepareStatement("SELECT id FROM cards WHERE card_number_hash = ?");
+
+        legacyCipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+        legacyCipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(AES_KEY, "AES"), new IvParameterSpec(new byte[16]));
+        mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(HMAC_KEY, "HmacSHA256"));
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public long legacyCiphertext() throws Exception {
+        byte[] encrypted = legacyCipher.doFinal(randomPan().getBytes(StandardCharsets.UTF_8));
+        byCiphertext.setString(1, Base64.getEncoder().encodeToString(encrypted));
+        return singleId(byCiphertext);
+    }
+
+    @Benchmark
+    public long blindIndex() throws Exception {
+        byHash.setString(1, HexFormat.of().formatHex(mac.doFinal(randomPan().getBytes(StandardCharsets.UTF_8))));
+        return singleId(byHash);
+    }
+
+    private String randomPan() {
+        String number = Integer.toString(ThreadLocalRandom.current().nextInt(1, rows + 1));
+        return "4".repeat(16 - number.length()) + number;
+    }
+
+    private static long singleId(PreparedStatement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            if (!resultSet.next()) {
+                throw new IllegalStateException("Card not found");
+            }
+            return resultSet.getLong(1);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CardLookupBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
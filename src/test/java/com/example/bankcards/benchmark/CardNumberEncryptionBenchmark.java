@@ -0,0 +1,98 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.util.CardKeyProvider;
+import com.example.bankcards.util.CardNumberEncryptorConverter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.metrics.ApplicationStartup;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of decrypting card numbers: current converter versus the first one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CardNumberEncryptionBenchmark {
+    private static final String PASSWORD = "uB7!kP2#qR9@zY5*eF3$jH6%mN1^wL4&";
+    private static final String SALT = "sE7#rT2@kY9!pL5*";
+
+    @Param({"1", "100", "10000"})
+    private int conversions;
+
+    private CardNumberEncryptorConverter converter;
+    private SecretKeySpec legacyKey;
+    private byte[][] encrypted;
+    private String[] legacyEncrypted;
+
+    @Setup
+    public void setUp() throws Exception {
+        converter = new CardNumberEncryptorConverter(
+                new CardKeyProvider(PASSWORD, SALT, "", "", List.of(), 1, ApplicationStartup.DEFAULT));
+        SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
+        legacyKey = new SecretKeySpec(factory.generateSecret(
+                new PBEKeySpec(PASSWORD.toCharArray(), SALT.getBytes(), 65536, 256)).getEncoded(), "AES");
+
+        encrypted = new byte[conversions][];
+        legacyEncrypted = new String[conversions];
+        Cipher legacyCipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+        legacyCipher.init(Cipher.ENCRYPT_MODE, legacyKey, new IvParameterSpec(new byte[16]));
+        for (int i = 0; i < conversions; i++) {
+            String cardNumber = String.format("4000%012d", i);
+            encrypted[i] = converter.convertToDatabaseColumn(cardNumber);
+            legacyEncrypted[i] = Base64.getEncoder().encodeToString(legacyCipher.doFinal(cardNumber.getBytes()));
+        }
+    }
+
+    @Benchmark
+    public void legacyDecrypt(Blackhole blackhole) throws Exception {
+        for (String value : legacyEncrypted) {
+            Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+            cipher.init(Cipher.DECRYPT_MODE, legacyKey, new IvParameterSpec(new byte[16]));
+            blackhole.consume(new String(cipher.doFinal(Base64.getDecoder().decode(value))));
+        }
+    }
+
+    @Benchmark
+    public void decrypt(Blackhole blackhole) {
+        for (byte[] value : encrypted) {
+            blackhole.consume(converter.convertToEntityAttribute(value));
+        }
+    }
+
+    @Benchmark
+    public void legacyEncrypt(Blackhole blackhole) throws Exception {
+        for (int i = 0; i < conversions; i++) {
+            Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+            cipher.init(Cipher.ENCRYPT_MODE, legacyKey, new IvParameterSpec(new byte[16]));
+            blackhole.consume(Base64.getEncoder().encodeToString(cipher.doFinal("4000123412341234".getBytes())));
+        }
+    }
+
+    @Benchmark
+    public void encrypt(Blackhole blackhole) {
+        for (int i = 0; i < conversions; i++) {
+            blackhole.consume(converter.convertToDatabaseColumn("4000123412341234"));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CardNumberEncryptionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
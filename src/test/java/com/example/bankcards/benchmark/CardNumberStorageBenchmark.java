@@ -0,0 +1,155 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.util.CardKeyProvider;
+import com.example.bankcards.util.CardNumberEncryptorConverter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Card number storage as Base64 {@code varchar} versus {@code bytea} (needs Docker).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CardNumberStorageBenchmark {
+    private static final String CHANGESET = "db/changelog/changeset/convert-cards-card-number-to-bytea.yaml";
+
+    @Param({"varchar", "bytea"})
+    private String storage;
+
+    @Param({"1000000"})
+    private int rows;
+
+    @Param({"1000"})
+    private int pageSize;
+
+    private PostgreSQLContainer<?> postgres;
+    private Connection connection;
+    private PreparedStatement page;
+    private CardNumberEncryptorConverter converter;
+
+    @Setup
+    public void setUp() throws Exception {
+        converter = new CardNumberEncryptorConverter(new CardKeyProvider("", "",
+                Base64.getEncoder().encodeToString(new byte[32]), Base64.getEncoder().encodeToString(new byte[32]),
+                List.of(), 1, ApplicationStartup.DEFAULT));
+
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+        connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE cards (id bigserial PRIMARY KEY, card_number varchar(255) NOT NULL)");
+        }
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO cards (card_number) VALUES (?)")) {
+            for (int i = 1; i <= rows; i++) {
+                byte[] encrypted = converter.convertToDatabaseColumn(String.format("4000%012d", i));
+                insert.setString(1, "k1:" + Base64.getEncoder().encodeToString(Arrays.copyOfRange(encrypted, 1, encrypted.length)));
+                insert.addBatch();
+                if (i % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+
+        if (storage.equals("bytea")) {
+            long startedAt = System.nanoTime();
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ALTER TABLE cards ADD COLUMN card_number_bin bytea");
+                statement.execute(conversionSql());
+                statement.execute("ALTER TABLE cards DROP COLUMN card_number");
+                statement.execute("ALTER TABLE cards RENAME COLUMN card_number_bin TO card_number");
+                statement.execute("ALTER TABLE cards ALTER COLUMN card_number SET NOT NULL");
+                statement.execute("VACUUM FULL cards");
+            }
+            System.out.printf("%nConverted %d rows in %d ms%n", rows, (System.nanoTime() - startedAt) / 1_000_000);
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE INDEX idx_cards_card_number ON cards (card_number)");
+            statement.execute("VACUUM ANALYZE cards");
+            try (ResultSet sizes = statement.executeQuery("SELECT pg_size_pretty(pg_table_size('cards')), "
+                    + "pg_size_pretty(pg_indexes_size('cards')), avg(pg_column_size(card_number)) FROM cards")) {
+                sizes.next();
+                System.out.printf("%n%s: table %s, indexes %s, avg card_number %.1f bytes%n",
+                        storage, sizes.getString(1), sizes.getString(2), sizes.getDouble(3));
+            }
+        }
+
+        page = connection.prepareStatement("SELECT card_number FROM cards WHERE id > ? ORDER BY id LIMIT ?");
+        page.setInt(2, pageSize);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public void readPage(Blackhole blackhole) throws SQLException {
+        page.setLong(1, ThreadLocalRandom.current().nextLong(rows - pageSize));
+        try (ResultSet resultSet = page.executeQuery()) {
+            while (resultSet.next()) {
+                blackhole.consume(converter.convertToEntityAttribute(storage.equals("bytea")
+                        ? resultSet.getBytes(1)
+                        : fromText(resultSet.getString(1))));
+            }
+        }
+    }
+
+    /**
+     * What the text converter did before decrypting: strip the version prefix and decode Base64.
+     */
+    private static byte[] fromText(String value) {
+        byte[] payload = Base64.getDecoder().decode(value.substring(value.indexOf(':') + 1));
+        byte[] encrypted = new byte[payload.length + 1];
+        encrypted[0] = 1;
+        System.arraycopy(payload, 0, encrypted, 1, payload.length);
+        return encrypted;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String conversionSql() throws Exception {
+        try (InputStream changelog = CardNumberStorageBenchmark.class.getClassLoader().getResourceAsStream(CHANGESET)) {
+            Map<String, Object> root = new Yaml().load(new String(changelog.readAllBytes(), StandardCharsets.UTF_8));
+            for (Map<String, Object> entry : (List<Map<String, Object>>) root.get("databaseChangeLog")) {
+                Map<String, Object> changeSet = (Map<String, Object>) entry.get("changeSet");
+                if ("fill-cards-card-number-bin".equals(changeSet.get("id"))) {
+                    Map<String, Object> change = ((List<Map<String, Object>>) changeSet.get("changes")).get(0);
+                    return (String) ((Map<String, Object>) change.get("sql")).get("sql");
+                }
+            }
+        }
+        throw new IllegalStateException("Conversion changeset not found");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CardNumberStorageBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.bankcards.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deep admin card pages: offset versus keyset (needs Docker).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CardScrollBenchmark {
+    @Param({"1", "10000"})
+    private int page;
+
+    @Param({"1000000"})
+    private int rows;
+
+    @Param({"20"})
+    private int size;
+
+    private PostgreSQLContainer<?> postgres;
+    private Connection connection;
+    private PreparedStatement offset;
+    private PreparedStatement keyset;
+
+    @Setup
+    public void setUp() throws Exception {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+        connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE cards (id bigserial PRIMARY KEY, owner_id bigint NOT NULL, "
+                    + "last4 varchar(4), expiration_date date NOT NULL, balance numeric(19, 2) NOT NULL, status varchar(255))");
+            statement.execute("INSERT INTO cards (owner_id, last4, expiration_date, balance, status) "
+                    + "SELECT g % 1000, lpad((g % 10000)::text, 4, '0'), current_date + (g % 1500), "
+                    + "round((random() * 50000)::numeric, 2), 'ACTIVE' FROM generate_series(1, " + rows + ") g");
+            statement.execute("CREATE INDEX idx_cards_balance_id ON cards (balance, id)");
+            statement.execute("VACUUM ANALYZE cards");
+        }
+
+        offset = connection.prepareStatement("SELECT * FROM cards ORDER BY balance, id OFFSET ? LIMIT ?");
+        offset.setInt(1, (page - 1) * size);
+        offset.setInt(2, size);
+
+        keyset = connection.prepareStatement(page == 1
+                ? "SELECT * FROM cards ORDER BY balance, id LIMIT ?"
+                : "SELECT * FROM cards WHERE (balance, id) > (?, ?) ORDER BY balance, id LIMIT ?");
+        if (page == 1) {
+            keyset.setInt(1, size + 1);
+        } else {
+            try (PreparedStatement previous = connection.prepareStatement(
+                    "SELECT balance, id FROM cards ORDER BY balance, id OFFSET ? LIMIT 1")) {
+                previous.setInt(1, (page - 1) * size - 1);
+                try (ResultSet resultSet = previous.executeQuery()) {
+                    resultSet.next();
+                    BigDecimal balance = resultSet.getBigDecimal(1);
+                    keyset.setBigDecimal(1, balance);
+                    keyset.setLong(2, resultSet.getLong(2));
+                }
+            }
+            keyset.setInt(3, size + 1);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public void offset(Blackhole blackhole) throws SQLException {
+        read(offset, blackhole);
+    }
+
+    @Benchmark
+    public void keyset(Blackhole blackhole) throws SQLException {
+        read(keyset, blackhole);
+    }
+
+    private static void read(PreparedStatement statement, Blackhole blackhole) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                blackhole.consume(resultSet.getLong("id"));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CardScrollBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
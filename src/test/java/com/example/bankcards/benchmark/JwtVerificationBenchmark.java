@@ -0,0 +1,68 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.security.jwt.model.JwtPrincipal;
+import com.example.bankcards.security.jwt.model.JwtUserDetails;
+import com.example.bankcards.util.JwtTokenUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of authenticating a bearer token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+    private static final String SECRET = "FnEn4/+++2q7Nf7mjdfLMAn3GmflxXn1GKmBingHfJs=";
+
+    private JwtTokenUtils jwtTokenUtils;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtTokenUtils = new JwtTokenUtils(SECRET, Duration.ofHours(1));
+        token = jwtTokenUtils.generateToken(new JwtUserDetails(1L, "user", "password", List.of(
+                new SimpleGrantedAuthority("ROLE_USER"),
+                new SimpleGrantedAuthority("ROLE_ADMIN"))));
+    }
+
+    @Benchmark
+    public Object legacy() {
+        String username = legacyClaims(token).getSubject();
+        List<?> roles = legacyClaims(token).get("roles", List.class);
+        return new Object[]{username, roles};
+    }
+
+    @Benchmark
+    public JwtPrincipal singleParse() {
+        return jwtTokenUtils.parseToken(token);
+    }
+
+    private static Claims legacyClaims(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(Base64.getDecoder().decode(SECRET)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.BankCardsApplication;
+import com.example.bankcards.mapper.CardMapper;
+import com.example.bankcards.mapper.TransactionMapper;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.TransactionRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency and allocation of a 1,000-row page: mapped entities versus projections (needs Docker).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ListingProjectionBenchmark {
+    private static final Pageable CARD_PAGE = PageRequest.of(0, 1000, Sort.by("balance"));
+    private static final Pageable TRANSACTION_PAGE = PageRequest.of(0, 1000, Sort.by("timestamp"));
+    private static final LocalDateTime FROM = LocalDateTime.of(2000, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2100, 1, 1, 0, 0);
+
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext context;
+    private CardRepository cardRepository;
+    private TransactionRepository transactionRepository;
+    private CardMapper cardMapper;
+    private TransactionMapper transactionMapper;
+    private TransactionTemplate readOnly;
+
+    @Setup
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+        context = new SpringApplicationBuilder(BankCardsApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        "spring.jpa.show-sql=false")
+                .run();
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO users (username, password, email) "
+                + "SELECT 'owner' || g, 'password', 'owner' || g || '@example.com' FROM generate_series(1, 200) g");
+        jdbcTemplate.update("INSERT INTO user_roles (user_id, role_id) "
+                + "SELECT u.id, r.id FROM users u, roles r WHERE r.name = 'ROLE_USER' AND u.username LIKE 'owner%'");
+        jdbcTemplate.update("INSERT INTO cards (card_number, card_number_hash, last4, owner_id, expiration_date, balance, status) "
+                + "SELECT '\\x00'::bytea, md5(g::text), lpad((g % 10000)::text, 4, '0'), "
+                + "(SELECT min(id) FROM users WHERE username LIKE 'owner%') + g % 200, current_date + 365, "
+                + "round((random() * 50000)::numeric, 2), 'ACTIVE' FROM generate_series(1, 20000) g");
+        jdbcTemplate.update("INSERT INTO transactions (source_card_id, target_card_id, amount, timestamp, status) "
+                + "SELECT c.id, c.id + 1, 10, now() - (c.id || ' seconds')::interval, 'SUCCESS' "
+                + "FROM cards c WHERE c.id < (SELECT max(id) FROM cards)");
+        jdbcTemplate.execute("VACUUM ANALYZE");
+
+        cardRepository = context.getBean(CardRepository.class);
+        transactionRepository = context.getBean(TransactionRepository.class);
+        cardMapper = context.getBean(CardMapper.class);
+        transactionMapper = context.getBean(TransactionMapper.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public List<?> cardEntities() {
+        return readOnly.execute(status -> cardRepository.findPage(null, null, Sort.Order.asc("balance"), null, null, CARD_PAGE.getPageSize()).stream().map(cardMapper::toCardResponse).toList());
+    }
+
+    @Benchmark
+    public List<?> cardViews() {
+        return readOnly.execute(status -> cardRepository.findAllViews(CARD_PAGE).stream().map(cardMapper::toCardResponse).toList());
+    }
+
+    @Benchmark
+    public List<?> transactionEntities() {
+        return readOnly.execute(status -> transactionRepository.findAll(TRANSACTION_PAGE).stream()
+                .map(transactionMapper::toFullResponse).toList());
+    }
+
+    @Benchmark
+    public List<?> transactionViews() {
+        return readOnly.execute(status -> transactionRepository.findAllViews(FROM, TO, TRANSACTION_PAGE).stream()
+                .map(transactionMapper::toFullResponse).toList());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ListingProjectionBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
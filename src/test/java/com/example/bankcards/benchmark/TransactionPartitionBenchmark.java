@@ -0,0 +1,113 @@
+package com.example.bankcards.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Month-bounded history queries on the plain versus the partitioned table (needs Docker).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TransactionPartitionBenchmark {
+    private static final int MONTHS = 24;
+    private static final int CARDS = 1_000_000;
+    private static final LocalDate START = LocalDate.of(2023, 1, 1);
+
+    @Param({"plain", "partitioned"})
+    private String layout;
+
+    @Param({"100000000"})
+    private long rows;
+
+    private PostgreSQLContainer<?> postgres;
+    private Connection connection;
+    private PreparedStatement cardHistory;
+    private PreparedStatement statusPage;
+
+    @Setup
+    public void setUp() throws Exception {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+        connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+
+        try (Statement statement = connection.createStatement()) {
+            String columns = "(id bigint NOT NULL, source_card_id bigint NOT NULL, target_card_id bigint NOT NULL, "
+                    + "amount numeric(19, 2) NOT NULL, timestamp timestamp NOT NULL, status varchar(255) NOT NULL, "
+                    + "PRIMARY KEY (id, timestamp))";
+            if (layout.equals("partitioned")) {
+                statement.execute("CREATE TABLE transactions " + columns + " PARTITION BY RANGE (timestamp)");
+                for (int i = 0; i < MONTHS; i++) {
+                    LocalDate from = START.plusMonths(i);
+                    statement.execute(String.format("CREATE TABLE transactions_p%d PARTITION OF transactions "
+                            + "FOR VALUES FROM ('%s') TO ('%s')", i, from, from.plusMonths(1)));
+                }
+            } else {
+                statement.execute("CREATE TABLE transactions " + columns);
+            }
+            statement.execute("INSERT INTO transactions "
+                    + "SELECT g, g % " + CARDS + ", (g * 7) % " + CARDS + ", 10, "
+                    + "timestamp '" + START + "' + (g::float8 / " + rows + ") * interval '" + MONTHS + " months', "
+                    + "CASE WHEN g % 20 = 0 THEN 'FAILED' ELSE 'SUCCESS' END FROM generate_series(1, " + rows + ") g");
+            statement.execute("CREATE INDEX idx_transactions_source_card_timestamp ON transactions (source_card_id, timestamp)");
+            statement.execute("CREATE INDEX idx_transactions_status_timestamp ON transactions (status, timestamp)");
+            statement.execute("VACUUM ANALYZE transactions");
+        }
+
+        cardHistory = connection.prepareStatement("SELECT * FROM transactions WHERE source_card_id = ? "
+                + "AND timestamp >= ? AND timestamp < ? ORDER BY timestamp DESC LIMIT 20");
+        statusPage = connection.prepareStatement("SELECT * FROM transactions WHERE status = 'FAILED' "
+                + "AND timestamp >= ? AND timestamp < ? ORDER BY timestamp DESC LIMIT 20");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public void cardHistory(Blackhole blackhole) throws SQLException {
+        cardHistory.setLong(1, ThreadLocalRandom.current().nextInt(CARDS));
+        bindMonth(cardHistory, 2);
+        read(cardHistory, blackhole);
+    }
+
+    @Benchmark
+    public void statusPage(Blackhole blackhole) throws SQLException {
+        bindMonth(statusPage, 1);
+        read(statusPage, blackhole);
+    }
+
+    private static void bindMonth(PreparedStatement statement, int index) throws SQLException {
+        LocalDate from = START.plusMonths(ThreadLocalRandom.current().nextInt(MONTHS));
+        statement.setTimestamp(index, Timestamp.valueOf(from.atStartOfDay()));
+        statement.setTimestamp(index + 1, Timestamp.valueOf(from.plusMonths(1).atStartOfDay()));
+    }
+
+    private static void read(PreparedStatement statement, Blackhole blackhole) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                blackhole.consume(resultSet.getLong("id"));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TransactionPartitionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
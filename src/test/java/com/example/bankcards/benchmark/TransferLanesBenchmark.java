@@ -0,0 +1,114 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.BankCardsApplication;
+import com.example.bankcards.dto.transaction.TransactionRequest;
+import com.example.bankcards.security.jwt.model.JwtPrincipal;
+import com.example.bankcards.service.transaction.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transfer throughput over Zipf-distributed hot cards, with and without lanes (needs Docker).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(32)
+@Fork(1)
+public class TransferLanesBenchmark {
+    private static final int CARDS = 1_000;
+    private static final double ZIPF_EXPONENT = 1.1;
+    private static final BigDecimal AMOUNT = BigDecimal.ONE;
+
+    @Param({"false", "true"})
+    public boolean lanes;
+
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private JwtPrincipal principal;
+    private long[] cardIds;
+    private double[] cumulative;
+
+    @Setup
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+        context = new SpringApplicationBuilder(BankCardsApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        "spring.datasource.hikari.maximum-pool-size=32",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.com.example.bankcards=WARN",
+                        "transfer.lanes.enabled=" + lanes)
+                .run();
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO users (username, password, email) VALUES ('payer', 'password', 'payer@example.com')");
+        Long ownerId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'payer'", Long.class);
+        jdbcTemplate.update("INSERT INTO cards (card_number, card_number_hash, last4, owner_id, expiration_date, balance, status) "
+                + "SELECT '\\x00'::bytea, md5(g::text), lpad(g::text, 4, '0'), ?, current_date + 365, 1000000000, 'ACTIVE' "
+                + "FROM generate_series(1, ?) g", ownerId, CARDS);
+        jdbcTemplate.execute("VACUUM ANALYZE");
+
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM cards ORDER BY id", Long.class);
+        cardIds = ids.stream().mapToLong(Long::longValue).toArray();
+        cumulative = new double[CARDS];
+        double total = 0;
+        for (int rank = 0; rank < CARDS; rank++) {
+            total += 1 / Math.pow(rank + 1, ZIPF_EXPONENT);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < CARDS; rank++) {
+            cumulative[rank] /= total;
+        }
+
+        transactionService = context.getBean(TransactionService.class);
+        principal = new JwtPrincipal(ownerId, null, "payer", List.of("ROLE_USER"), null, null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public Object transfer() {
+        long source = zipfCard();
+        long target = zipfCard();
+        while (target == source) {
+            target = zipfCard();
+        }
+        return transactionService.createTransaction(principal, new TransactionRequest(source, target, AMOUNT), null);
+    }
+
+    private long zipfCard() {
+        int rank = Arrays.binarySearch(cumulative, ThreadLocalRandom.current().nextDouble());
+        return cardIds[Math.min(rank < 0 ? -rank - 1 : rank, CARDS - 1)];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TransferLanesBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.bankcards.job;
+
+import com.example.bankcards.util.CardKeyProvider;
+import com.example.bankcards.util.CardNumberEncryptorConverter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardKeyRotationJobTest {
+
+    private static final String PASSWORD = "uB7!kP2#qR9@zY5*eF3$jH6%mN1^wL4&";
+    private static final String SALT = "sE7#rT2@kY9!pL5*";
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private TransactionTemplate transactionTemplate;
+
+    private final CardNumberEncryptorConverter oldConverter = new CardNumberEncryptorConverter(
+            new CardKeyProvider(PASSWORD, SALT, "", "", List.of(), 1, ApplicationStartup.DEFAULT));
+    private CardNumberEncryptorConverter converter;
+    private CardKeyRotationJob job;
+
+    @BeforeEach
+    void setUp() {
+        CardKeyProvider keyProvider = new CardKeyProvider(PASSWORD, SALT, "", "",
+                List.of("2:" + Base64.getEncoder().encodeToString(new byte[32])), 2, ApplicationStartup.DEFAULT);
+        converter = new CardNumberEncryptorConverter(keyProvider);
+        job = new CardKeyRotationJob(jdbcTemplate, transactionTemplate, converter, keyProvider, 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_ReencryptsOneBatchAndRecordsProgress() throws Exception {
+        byte[] current = converter.convertToDatabaseColumn("4000000000000002");
+        byte[] old = oldConverter.convertToDatabaseColumn("4000000000000001");
+        when(jdbcTemplate.query(anyString(), any(ResultSetExtractor.class), eq(2))).thenReturn(null);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(0L), eq(2)))
+                .thenAnswer(invocation -> rows(invocation.getArgument(1), new Object[]{1L, old}, new Object[]{2L, current}));
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        job.run();
+
+        ArgumentCaptor<List<Object[]>> updates = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(contains("UPDATE cards"), updates.capture());
+        assertEquals(1, updates.getValue().size());
+        Object[] update = updates.getValue().get(0);
+        assertEquals(2, ((byte[]) update[0])[0]);
+        assertEquals("4000000000000001", converter.convertToEntityAttribute((byte[]) update[0]));
+        assertEquals(1L, update[1]);
+        assertEquals(old, update[2]);
+        verify(jdbcTemplate).update(contains("INSERT INTO card_key_rotation"),
+                eq(2), eq(2L), eq(1), any(), any(), isNull());
+    }
+
+    @Test
+    void run_InitialKeyActive_DoesNothing() {
+        CardKeyProvider keyProvider = new CardKeyProvider(PASSWORD, SALT, "", "", List.of(), 1, ApplicationStartup.DEFAULT);
+        new CardKeyRotationJob(jdbcTemplate, transactionTemplate, oldConverter, keyProvider, 2).run();
+
+        verifyNoInteractions(jdbcTemplate, transactionTemplate);
+    }
+
+    private static List<Object> rows(RowMapper<?> mapper, Object[]... rows) throws Exception {
+        List<Object> mapped = new ArrayList<>();
+        for (int i = 0; i < rows.length; i++) {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getLong("id")).thenReturn((Long) rows[i][0]);
+            when(rs.getBytes("card_number")).thenReturn((byte[]) rows[i][1]);
+            mapped.add(mapper.mapRow(rs, i));
+        }
+        return mapped;
+    }
+}
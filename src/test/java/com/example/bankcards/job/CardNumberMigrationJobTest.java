@@ -0,0 +1,120 @@
+package com.example.bankcards.job;
+
+import com.example.bankcards.util.CardKeyProvider;
+import com.example.bankcards.util.CardNumberBlindIndex;
+import com.example.bankcards.util.CardNumberEncryptorConverter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardNumberMigrationJobTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private TransactionTemplate transactionTemplate;
+
+    private final CardKeyProvider keyProvider = new CardKeyProvider("uB7!kP2#qR9@zY5*eF3$jH6%mN1^wL4&", "sE7#rT2@kY9!pL5*", "", "", List.of(), 1, ApplicationStartup.DEFAULT);
+    private final CardNumberEncryptorConverter converter = new CardNumberEncryptorConverter(keyProvider);
+    private final CardNumberBlindIndex cardNumberBlindIndex = new CardNumberBlindIndex(keyProvider);
+    private CardNumberMigrationJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new CardNumberMigrationJob(jdbcTemplate, transactionTemplate, converter, cardNumberBlindIndex, 2);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<int[]>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_MigratesInBatches_ThenStopsPolling() throws Exception {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), anyLong(), eq(2)))
+                .thenAnswer(invocation -> rows(invocation.getArgument(1), 1L, 2L))
+                .thenAnswer(invocation -> rows(invocation.getArgument(1), 3L));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenAnswer(invocation -> {
+                    int[] results = new int[invocation.<List<?>>getArgument(1).size()];
+                    Arrays.fill(results, 1);
+                    return results;
+                });
+
+        job.run();
+        job.run();
+
+        ArgumentCaptor<List<Object[]>> updates = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), updates.capture());
+        assertEquals(2, updates.getAllValues().get(0).size());
+        Object[] update = updates.getAllValues().get(1).get(0);
+        assertEquals(1, ((byte[]) update[0])[0]);
+        assertEquals(cardNumberBlindIndex.hash("4000000000000003"), update[1]);
+        assertEquals("0003", update[2]);
+        assertEquals(3L, update[3]);
+        verify(jdbcTemplate).query(anyString(), any(RowMapper.class), eq(0L), eq(2));
+        verify(jdbcTemplate).query(anyString(), any(RowMapper.class), eq(2L), eq(2));
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_DuplicateNumberInBatch_MigratesRowByRowAndCompletes() throws Exception {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), anyLong(), eq(2)))
+                .thenAnswer(invocation -> rows(invocation.getArgument(1), 1L))
+                .thenReturn(List.of());
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new DuplicateKeyException("uk_cards_card_number_hash"));
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenThrow(new DuplicateKeyException("uk_cards_card_number_hash"));
+
+        job.run();
+        job.run();
+
+        verify(jdbcTemplate).update(anyString(), any(Object[].class));
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowMapper.class), anyLong(), eq(2));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_UndecryptableRow_SkipsItAndCompletes() throws Exception {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), anyLong(), eq(2)))
+                .thenAnswer(invocation -> {
+                    ResultSet resultSet = mock(ResultSet.class);
+                    when(resultSet.getLong("id")).thenReturn(1L);
+                    when(resultSet.getBytes("card_number")).thenReturn(new byte[]{1, 2, 3});
+                    return List.of(invocation.<RowMapper<Object>>getArgument(1).mapRow(resultSet, 0));
+                });
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[0]);
+
+        job.run();
+        job.run();
+
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowMapper.class), anyLong(), eq(2));
+    }
+
+    private List<Object> rows(RowMapper<Object> rowMapper, long... ids) throws Exception {
+        List<Object> rows = new ArrayList<>();
+        for (long id : ids) {
+            ResultSet resultSet = mock(ResultSet.class);
+            when(resultSet.getLong("id")).thenReturn(id);
+            when(resultSet.getBytes("card_number"))
+                    .thenReturn(converter.convertToDatabaseColumn(String.format("400000000000%04d", id)));
+            rows.add(rowMapper.mapRow(resultSet, 0));
+        }
+        return rows;
+    }
+}
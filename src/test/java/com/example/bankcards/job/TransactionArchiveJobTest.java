@@ -0,0 +1,152 @@
+package com.example.bankcards.job;
+
+import com.example.bankcards.entity.transaction.TransactionStatus;
+import com.example.bankcards.repository.projection.TransactionView;
+import com.example.bankcards.service.transaction.TransactionArchive;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionArchiveJobTest {
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-06-15T10:00:00Z"), ZoneOffset.UTC);
+    private static final YearMonth MARCH = YearMonth.of(2024, 3);
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2024, 4, 1, 0, 0);
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2024, 6, 1, 0, 0);
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private TransactionArchive transactionArchive;
+    @Mock private TransactionArchive.SegmentWriter segment;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_ArchivesOldMonthWithoutDeletingIt() throws Exception {
+        TransactionView first = row(1, 1);
+        TransactionView second = row(2, 2);
+        TransactionView third = row(3, 5);
+        Statement statement = advisoryLock(true);
+        oldest(first.timestamp());
+        when(transactionArchive.archivedIds(MARCH)).thenReturn(Set.of(1L));
+        when(transactionArchive.newSegment(MARCH)).thenReturn(segment);
+        when(jdbcTemplate.query(eq(TransactionArchiveJob.MONTH_BATCH), any(RowMapper.class),
+                eq(START), eq(END), eq(START), eq(Long.MIN_VALUE), eq(2)))
+                .thenReturn(List.of(first, second));
+        when(jdbcTemplate.query(eq(TransactionArchiveJob.MONTH_BATCH), any(RowMapper.class),
+                eq(START), eq(END), eq(second.timestamp()), eq(2L), eq(2)))
+                .thenReturn(List.of(third));
+        when(segment.commit()).thenReturn(2);
+
+        job(true).run();
+
+        InOrder inOrder = inOrder(segment);
+        inOrder.verify(segment).append(second);
+        inOrder.verify(segment).append(third);
+        inOrder.verify(segment).commit();
+        inOrder.verify(segment).close();
+        verify(statement).executeQuery(TransactionArchiveJob.UNLOCK);
+        verify(segment, never()).append(first);
+        verify(jdbcTemplate, never()).update(eq(TransactionArchiveJob.DELETE_BATCH), any(Object[].class));
+        assertEquals(2.0, meterRegistry.get("transaction.archive.rows").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_MonthArchivedByPreviousRun_DeletesIt() throws Exception {
+        TransactionView first = row(1, 1);
+        TransactionView second = row(2, 2);
+        advisoryLock(true);
+        oldest(first.timestamp());
+        when(transactionArchive.archivedIds(MARCH)).thenReturn(Set.of(1L, 2L));
+        when(transactionArchive.newSegment(MARCH)).thenReturn(segment);
+        when(jdbcTemplate.query(eq(TransactionArchiveJob.MONTH_BATCH), any(RowMapper.class),
+                eq(START), eq(END), eq(START), eq(Long.MIN_VALUE), eq(2)))
+                .thenReturn(List.of(first, second));
+        when(jdbcTemplate.query(eq(TransactionArchiveJob.MONTH_BATCH), any(RowMapper.class),
+                eq(START), eq(END), eq(second.timestamp()), eq(2L), eq(2)))
+                .thenReturn(List.of());
+        when(segment.commit()).thenReturn(0);
+        when(jdbcTemplate.update(TransactionArchiveJob.DELETE_BATCH, START, second.timestamp(), 2L, 2, START, second.timestamp()))
+                .thenReturn(2, 0);
+
+        job(true).run();
+
+        verify(segment, never()).append(any());
+        verify(jdbcTemplate, times(2)).update(TransactionArchiveJob.DELETE_BATCH,
+                START, second.timestamp(), 2L, 2, START, second.timestamp());
+        assertEquals(0.0, meterRegistry.get("transaction.archive.rows").counter().count());
+    }
+
+    @Test
+    void run_AnotherInstanceArchiving_Skips() throws Exception {
+        Statement statement = advisoryLock(false);
+
+        job(true).run();
+
+        verify(statement).executeQuery(TransactionArchiveJob.TRY_LOCK);
+        verify(statement, never()).executeQuery(TransactionArchiveJob.UNLOCK);
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(LocalDateTime.class), any());
+        verifyNoInteractions(transactionArchive);
+    }
+
+    @Test
+    void run_Disabled_DoesNothing() {
+        job(false).run();
+
+        verifyNoInteractions(jdbcTemplate, transactionArchive);
+    }
+
+    private void oldest(LocalDateTime timestamp) {
+        when(jdbcTemplate.queryForObject(anyString(), eq(LocalDateTime.class), eq(CUTOFF))).thenReturn(timestamp);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Statement advisoryLock(boolean acquired) throws Exception {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getBoolean(1)).thenReturn(acquired);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenAnswer(invocation -> invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection));
+        return statement;
+    }
+
+    private TransactionArchiveJob job(boolean enabled) {
+        return new TransactionArchiveJob(jdbcTemplate, transactionArchive, meterRegistry, enabled, Period.ofMonths(12), 2, CLOCK);
+    }
+
+    private static TransactionView row(long id, int day) {
+        return new TransactionView(id, 1L, 2L, "1111", "2222", BigDecimal.TEN, MARCH.atDay(day).atStartOfDay(),
+                TransactionStatus.SUCCESS);
+    }
+}
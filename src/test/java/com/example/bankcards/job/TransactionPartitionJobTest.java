@@ -0,0 +1,174 @@
+package com.example.bankcards.job;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionPartitionJobTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-06-15T10:00:00Z"), ZoneOffset.UTC);
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private TransactionTemplate transactionTemplate;
+
+    @Test
+    void run_CreatesMissingMonthsAhead() {
+        partitions("transactions_p202506", "transactions_p202507");
+
+        job(2, 0, false).run();
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).execute(sql.capture());
+        assertEquals("CREATE TABLE IF NOT EXISTS transactions_p202508 PARTITION OF transactions "
+                + "FOR VALUES FROM ('2025-08-01') TO ('2025-09-01')", sql.getValue());
+    }
+
+    @Test
+    void run_LegacyPartition_SkipsMonthsItCovers() {
+        partitions("transactions_legacy", "transactions_p202508");
+
+        job(3, 0, false).run();
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).execute(sql.capture());
+        assertEquals("CREATE TABLE IF NOT EXISTS transactions_p202509 PARTITION OF transactions "
+                + "FOR VALUES FROM ('2025-09-01') TO ('2025-10-01')", sql.getValue());
+    }
+
+    @Test
+    void run_MonthRowsInDefaultPartition_MovesThemIntoNewPartition() {
+        partitions("transactions_default", "transactions_p202506");
+        LocalDateTime july = LocalDateTime.of(2025, 7, 1, 0, 0);
+        LocalDateTime august = LocalDateTime.of(2025, 8, 1, 0, 0);
+        when(jdbcTemplate.queryForObject(TransactionPartitionJob.DEFAULT_ROWS, Long.class, july, august)).thenReturn(3L);
+        runInTransaction();
+
+        job(1, 0, false).run();
+
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).execute("LOCK TABLE transactions_default IN ACCESS EXCLUSIVE MODE");
+        inOrder.verify(jdbcTemplate).execute("CREATE TABLE transactions_p202507 (LIKE transactions INCLUDING DEFAULTS)");
+        inOrder.verify(jdbcTemplate).update("WITH moved AS (DELETE FROM transactions_default WHERE timestamp >= ? "
+                + "AND timestamp < ? RETURNING *) INSERT INTO transactions_p202507 SELECT * FROM moved", july, august);
+        inOrder.verify(jdbcTemplate).execute("ALTER TABLE transactions ATTACH PARTITION transactions_p202507 "
+                + "FOR VALUES FROM ('2025-07-01') TO ('2025-08-01')");
+    }
+
+    @Test
+    void run_RetentionWithoutDefaultPartition_DetachesConcurrently() {
+        partitions("transactions_p202502", "transactions_p202503", "transactions_p202506");
+
+        job(0, 3, false).run();
+
+        verify(jdbcTemplate).execute("ALTER TABLE transactions DETACH PARTITION transactions_p202502 CONCURRENTLY");
+        verify(jdbcTemplate, never()).execute(startsWith("ALTER TABLE transactions DETACH PARTITION transactions_p202503"));
+        verify(jdbcTemplate, never()).execute(startsWith("DROP"));
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    void run_RetentionWithDefaultPartition_DetachesWithLockTimeout() {
+        partitions("transactions_default", "transactions_p202502", "transactions_p202506");
+        runInTransaction();
+
+        job(0, 3, false).run();
+
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).execute("SET LOCAL lock_timeout = 5000");
+        inOrder.verify(jdbcTemplate).execute("ALTER TABLE transactions DETACH PARTITION transactions_p202502");
+    }
+
+    @Test
+    void run_DetachTimesOut_KeepsPartitionForNextRun() {
+        partitions("transactions_default", "transactions_p202501", "transactions_p202506");
+        doThrow(new CannotAcquireLockException("lock timeout"))
+                .when(transactionTemplate).executeWithoutResult(any());
+
+        job(0, 3, true).run();
+
+        verify(jdbcTemplate, never()).execute("DROP TABLE transactions_p202501");
+    }
+
+    @Test
+    void run_DropExpired_DropsDetachedMonth() {
+        partitions("transactions_p202501", "transactions_p202506");
+
+        job(0, 3, true).run();
+
+        verify(jdbcTemplate).execute("ALTER TABLE transactions DETACH PARTITION transactions_p202501 CONCURRENTLY");
+        verify(jdbcTemplate).execute("DROP TABLE transactions_p202501");
+    }
+
+    @Test
+    void run_DetachPending_FinalizesIt() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{"transactions_p202501", true});
+        rows.add(new Object[]{"transactions_p202506", false});
+        stubPartitions(rows);
+
+        job(0, 0, false).run();
+
+        verify(jdbcTemplate).execute("ALTER TABLE transactions DETACH PARTITION transactions_p202501 FINALIZE");
+        verify(jdbcTemplate, never()).execute(startsWith("DROP"));
+    }
+
+    private TransactionPartitionJob job(int monthsAhead, int retentionMonths, boolean dropExpired) {
+        return new TransactionPartitionJob(jdbcTemplate, transactionTemplate, monthsAhead, retentionMonths, dropExpired,
+                Duration.ofSeconds(5), CLOCK);
+    }
+
+    private void partitions(String... names) {
+        List<Object[]> rows = new ArrayList<>();
+        for (String name : names) {
+            rows.add(new Object[]{name, false});
+        }
+        stubPartitions(rows);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubPartitions(List<Object[]> rows) {
+        when(jdbcTemplate.query(eq(TransactionPartitionJob.PARTITIONS), any(RowMapper.class), eq("transactions")))
+                .thenAnswer(invocation -> {
+                    RowMapper<Object> mapper = invocation.getArgument(1);
+                    List<Object> partitions = new ArrayList<>();
+                    for (Object[] row : rows) {
+                        ResultSet resultSet = mock(ResultSet.class);
+                        when(resultSet.getString(1)).thenReturn((String) row[0]);
+                        when(resultSet.getBoolean(2)).thenReturn((Boolean) row[1]);
+                        partitions.add(mapper.mapRow(resultSet, partitions.size()));
+                    }
+                    return partitions;
+                });
+    }
+
+    private void runInTransaction() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.bankcards.job;
+
+import com.example.bankcards.repository.PostgresContainerSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A time-bounded query must only read the partitions of its range, and a listing without a lower bound none
+ * after its upper one. Skipped without Docker.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TransactionPartitionPruningTest extends PostgresContainerSupport {
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    @Test
+    void boundedQuery_ReadsOnlyPartitionsInRange() {
+        new TransactionPartitionJob(jdbcTemplate, transactionTemplate, 2, 0, false, Duration.ofSeconds(5),
+                Clock.fixed(Instant.parse("2024-03-15T00:00:00Z"), ZoneOffset.UTC)).run();
+
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN SELECT * FROM transactions t "
+                + "WHERE t.timestamp >= timestamp '2024-04-01' AND t.timestamp < timestamp '2024-05-01'", String.class));
+
+        assertTrue(plan.contains("transactions_p202404"), plan);
+        assertFalse(plan.contains("transactions_p202403"), plan);
+        assertFalse(plan.contains("transactions_p202405"), plan);
+        assertFalse(plan.contains("transactions_default"), plan);
+    }
+
+    @Test
+    void queryWithoutLowerBound_SkipsLaterPartitions() {
+        new TransactionPartitionJob(jdbcTemplate, transactionTemplate, 2, 0, false, Duration.ofSeconds(5),
+                Clock.fixed(Instant.parse("2024-03-15T00:00:00Z"), ZoneOffset.UTC)).run();
+
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN SELECT * FROM transactions t "
+                + "WHERE t.timestamp < timestamp '2024-04-01'", String.class));
+
+        assertTrue(plan.contains("transactions_p202403"), plan);
+        assertFalse(plan.contains("transactions_p202404"), plan);
+        assertFalse(plan.contains("transactions_p202405"), plan);
+    }
+}
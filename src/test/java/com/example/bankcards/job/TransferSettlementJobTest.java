@@ -0,0 +1,99 @@
+package com.example.bankcards.job;
+
+import com.example.bankcards.entity.transaction.Transaction;
+import com.example.bankcards.entity.transaction.TransactionStatus;
+import com.example.bankcards.repository.TransactionRepository;
+import com.example.bankcards.service.transaction.SettlementQueue;
+import com.example.bankcards.service.transaction.TransferSettlement;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferSettlementJobTest {
+
+    @Mock private TransactionTemplate transactionTemplate;
+    @Mock private TransactionRepository transactionRepository;
+    @Mock private TransferSettlement transferSettlement;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SettlementQueue settlementQueue = new SettlementQueue(true, 100, meterRegistry);
+    private TransferSettlementJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new TransferSettlementJob(transactionTemplate, transactionRepository, transferSettlement,
+                settlementQueue, meterRegistry, 2, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        job.close();
+    }
+
+    @Test
+    void settleBatch_SettlesClaimedTransfersAndRecordsMetrics() {
+        List<Transaction> transactions = List.of(pending(1L), pending(2L));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(transactionRepository.claimPendingIds(2)).thenReturn(List.of(1L, 2L));
+        when(transactionRepository.findAllWithCardsByIdIn(List.of(1L, 2L))).thenReturn(transactions);
+        settlementQueue.refresh(3);
+
+        assertEquals(2, job.settleBatch());
+
+        verify(transferSettlement).settleAll(transactions);
+        assertEquals(1, settlementQueue.depth());
+        assertEquals(2.0, meterRegistry.get("transfer.settlement.batch.size").summary().totalAmount());
+        assertEquals(2, meterRegistry.get("transfer.settlement.latency").timer().count());
+    }
+
+    @Test
+    void settleBatch_NothingPending_ReturnsZero() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(transactionRepository.claimPendingIds(2)).thenReturn(List.of());
+
+        assertEquals(0, job.settleBatch());
+        verifyNoInteractions(transferSettlement);
+    }
+
+    @Test
+    void run_SyncMode_DoesNothing() {
+        new TransferSettlementJob(transactionTemplate, transactionRepository, transferSettlement,
+                new SettlementQueue(false, 100, meterRegistry), meterRegistry, 2, 2).run();
+
+        verifyNoInteractions(transactionRepository, transactionTemplate);
+    }
+
+    @Test
+    void run_RefreshesQueueDepth() {
+        when(transactionRepository.countByStatus(TransactionStatus.PENDING)).thenReturn(0L);
+        settlementQueue.refresh(7);
+
+        job.run();
+
+        assertEquals(0, settlementQueue.depth());
+    }
+
+    private static Transaction pending(Long id) {
+        return Transaction.builder()
+                .id(id)
+                .status(TransactionStatus.PENDING)
+                .timestamp(LocalDateTime.now().minusSeconds(1))
+                .build();
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.bankcards.mapper;
+
+import com.example.bankcards.dto.card.CardResponse;
+import com.example.bankcards.entity.card.Card;
+import com.example.bankcards.entity.card.CardStatus;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.projection.CardView;
+import com.example.bankcards.util.CardNumberBlindIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardMapperTest {
+
+    @Mock private CardNumberBlindIndex cardNumberBlindIndex;
+    @Mock private CardRepository cardRepository;
+
+    @InjectMocks private CardMapper cardMapper;
+
+    @Test
+    void toCardResponse_ViewWithLast4_DoesNotLoadCard() {
+        CardResponse response = cardMapper.toCardResponse(view("5678"));
+
+        assertEquals("**** **** **** 5678", response.getMaskedCardNumber());
+        verifyNoInteractions(cardRepository);
+    }
+
+    @Test
+    void toCardResponse_ViewNotBackfilled_MasksDecryptedNumber() {
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(Card.builder().cardNumber("1234567812345678").build()));
+
+        CardResponse response = cardMapper.toCardResponse(view(null));
+
+        assertEquals("**** **** **** 5678", response.getMaskedCardNumber());
+    }
+
+    private static CardView view(String last4) {
+        return new CardView(1L, last4, "owner", LocalDate.of(2030, 1, 1), BigDecimal.TEN, CardStatus.ACTIVE);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.bankcards.mapper;
+
+import com.example.bankcards.dto.transaction.TransactionFullResponse;
+import com.example.bankcards.entity.transaction.TransactionStatus;
+import com.example.bankcards.repository.projection.TransactionView;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionMapperTest {
+
+    @Mock private CardMapper cardMapper;
+
+    @InjectMocks private TransactionMapper transactionMapper;
+
+    @Test
+    void toFullResponse_ViewNotBackfilled_MasksEachCardById() {
+        TransactionView view = new TransactionView(1L, 10L, 20L, null, "2222", BigDecimal.TEN,
+                LocalDateTime.of(2024, 3, 1, 0, 0), TransactionStatus.SUCCESS);
+        when(cardMapper.maskedNumber(10L, null)).thenReturn("**** **** **** 1111");
+        when(cardMapper.maskedNumber(20L, "2222")).thenReturn("**** **** **** 2222");
+
+        TransactionFullResponse response = transactionMapper.toFullResponse(view);
+
+        assertEquals("**** **** **** 1111", response.getSourceCardNumber());
+        assertEquals("**** **** **** 2222", response.getTargetCardNumber());
+    }
+}
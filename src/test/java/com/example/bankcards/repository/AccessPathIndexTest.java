@@ -0,0 +1,78 @@
+package com.example.bankcards.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Fails if a hot query plans a sequential scan. Skipped without Docker.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class AccessPathIndexTest extends PostgresContainerSupport {
+    private static final Map<String, String> HOT_QUERIES = new LinkedHashMap<>();
+
+    static {
+        String cardView = "SELECT c.id, c.last4, o.username, c.expiration_date, c.balance, c.status "
+                + "FROM cards c JOIN users o ON o.id = c.owner_id ";
+        HOT_QUERIES.put("cards by owner", cardView + "WHERE o.id = 42 ORDER BY c.balance LIMIT 20");
+        HOT_QUERIES.put("cards by owner and status", cardView + "WHERE c.status = 'BLOCKED' AND o.id = 42 ORDER BY c.balance LIMIT 20");
+        HOT_QUERIES.put("cards by status", cardView + "WHERE c.status = 'BLOCKED' ORDER BY c.balance LIMIT 20");
+        HOT_QUERIES.put("cards page", cardView + "ORDER BY c.balance LIMIT 20");
+        HOT_QUERIES.put("cards keyset", "SELECT * FROM cards c WHERE (c.balance, c.id) > (25000, 1) ORDER BY c.balance, c.id LIMIT 21");
+        HOT_QUERIES.put("cards keyset by expiration date", "SELECT * FROM cards c "
+                + "WHERE (c.expiration_date, c.id) > (current_date + 700, 1) ORDER BY c.expiration_date, c.id LIMIT 21");
+        HOT_QUERIES.put("owner cards keyset by expiration date", "SELECT * FROM cards c WHERE c.owner_id = 42 "
+                + "AND (c.expiration_date, c.id) > (current_date + 700, 1) ORDER BY c.expiration_date, c.id LIMIT 21");
+        HOT_QUERIES.put("transactions by source card and status", "SELECT * FROM transactions t "
+                + "WHERE t.source_card_id = 42 AND t.status = 'SUCCESS' ORDER BY t.timestamp DESC LIMIT 20");
+        HOT_QUERIES.put("transactions by target card", "SELECT * FROM transactions t "
+                + "WHERE t.target_card_id = 42 ORDER BY t.timestamp DESC LIMIT 20");
+        HOT_QUERIES.put("card history page", "SELECT u.* FROM ("
+                + "(SELECT t.* FROM transactions t WHERE t.source_card_id = 42 "
+                + "AND (t.timestamp, t.id) < (timestamp '2024-06-01', 200000) ORDER BY t.timestamp DESC, t.id DESC LIMIT 21) "
+                + "UNION ALL "
+                + "(SELECT t.* FROM transactions t WHERE t.target_card_id = 42 AND t.source_card_id <> 42 "
+                + "AND (t.timestamp, t.id) < (timestamp '2024-06-01', 200000) ORDER BY t.timestamp DESC, t.id DESC LIMIT 21)"
+                + ") u ORDER BY u.timestamp DESC, u.id DESC LIMIT 21");
+        HOT_QUERIES.put("transactions in time range", "SELECT count(*) FROM transactions t "
+                + "WHERE t.timestamp >= timestamp '2024-03-01 10:00' AND t.timestamp < timestamp '2024-03-01 11:00'");
+    }
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void hotQueries_NeverSequentialScan() {
+        jdbcTemplate.update("INSERT INTO users (username, password, email) "
+                + "SELECT 'owner' || g, 'password', 'owner' || g || '@example.com' FROM generate_series(1, 1000) g");
+        jdbcTemplate.update("INSERT INTO cards (card_number, card_number_hash, last4, owner_id, expiration_date, balance, status) "
+                + "SELECT '\\x00'::bytea, md5(g::text), lpad((g % 10000)::text, 4, '0'), "
+                + "(SELECT min(id) FROM users) + g % 1000, current_date + g % 1500, round((random() * 50000)::numeric, 2), "
+                + "CASE WHEN g % 50 = 0 THEN 'EXPIRED' WHEN g % 12 = 0 THEN 'BLOCKED' ELSE 'ACTIVE' END "
+                + "FROM generate_series(1, 100000) g");
+        jdbcTemplate.update("INSERT INTO transactions (source_card_id, target_card_id, amount, timestamp, status) "
+                + "SELECT (SELECT min(id) FROM cards) + g % 100000, (SELECT min(id) FROM cards) + (g * 7) % 100000, 10, "
+                + "timestamp '2024-01-01' + g * interval '1 minute', "
+                + "CASE WHEN g % 20 = 0 THEN 'FAILED' ELSE 'SUCCESS' END FROM generate_series(1, 300000) g");
+        jdbcTemplate.execute("ANALYZE");
+
+        List<String> sequentialScans = new ArrayList<>();
+        HOT_QUERIES.forEach((name, sql) -> {
+            String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+            if (plan.contains("Seq Scan")) {
+                sequentialScans.add(name + ":\n" + plan);
+            }
+        });
+
+        assertEquals(List.of(), sequentialScans);
+    }
+}
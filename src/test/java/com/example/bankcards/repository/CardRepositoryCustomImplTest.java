@@ -0,0 +1,46 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.card.Card;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class CardRepositoryCustomImplTest {
+
+    @Mock
+    private EntityManager entityManager;
+    @InjectMocks
+    private CardRepositoryCustomImpl cardRepository;
+
+    @Test
+    void lockForUpdate_LocksInAscendingIdOrder() {
+        Card high = Card.builder().id(9L).build();
+        Card low = Card.builder().id(3L).build();
+
+        cardRepository.lockForUpdate(List.of(high, low));
+
+        InOrder order = inOrder(entityManager);
+        order.verify(entityManager).refresh(low, LockModeType.PESSIMISTIC_WRITE);
+        order.verify(entityManager).refresh(high, LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    @Test
+    void lockForUpdate_SameCard_LocksOnce() {
+        Card card = Card.builder().id(5L).build();
+
+        cardRepository.lockForUpdate(List.of(card, card));
+
+        verify(entityManager).refresh(card, LockModeType.PESSIMISTIC_WRITE);
+    }
+}
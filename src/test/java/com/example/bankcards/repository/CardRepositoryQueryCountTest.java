@@ -0,0 +1,137 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.card.Card;
+import com.example.bankcards.entity.card.CardStatus;
+import com.example.bankcards.entity.role.Role;
+import com.example.bankcards.entity.user.User;
+import com.example.bankcards.repository.projection.CardView;
+import com.example.bankcards.util.CardKeyProvider;
+import com.example.bankcards.util.CardNumberBlindIndex;
+import com.example.bankcards.util.CardNumberEncryptorConverter;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * A page of 100 cards must cost a constant number of statements for every listing finder: the page and its count
+ * for the projections, the page and one roles batch for the entity scroll (owner name, which drags in the eager
+ * roles). Skipped when Docker is not available.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CardKeyProvider.class, CardNumberEncryptorConverter.class, CardNumberBlindIndex.class})
+class CardRepositoryQueryCountTest extends PostgresContainerSupport {
+    private static final int OWNERS = 30;
+    private static final int CARDS = 150;
+    private static final Pageable PAGE = PageRequest.of(0, 100, Sort.by("balance"));
+
+    @Autowired private CardRepository cardRepository;
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private CardNumberBlindIndex cardNumberBlindIndex;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        Role role = entityManager.getEntityManager()
+                .createQuery("select r from Role r where r.name = 'ROLE_USER'", Role.class)
+                .getSingleResult();
+
+        for (int i = 0; i < OWNERS; i++) {
+            User user = entityManager.persist(User.builder()
+                    .username("owner" + i)
+                    .password("password")
+                    .email("owner" + i + "@example.com")
+                    .roles(Set.of(role))
+                    .build());
+            if (i == 0) {
+                owner = user;
+            }
+        }
+        for (int i = 0; i < CARDS; i++) {
+            String cardNumber = String.format("4000%012d", i);
+            entityManager.persist(Card.builder()
+                    .cardNumber(cardNumber)
+                    .cardNumberHash(cardNumberBlindIndex.hash(cardNumber))
+                    .last4(cardNumber.substring(12))
+                    .owner(i < 110 ? owner : entityManager.find(User.class, owner.getId() + 1 + i % (OWNERS - 1)))
+                    .expirationDate(LocalDate.now().plusYears(1))
+                    .balance(BigDecimal.valueOf(i))
+                    .status(i % 2 == 0 ? CardStatus.ACTIVE : CardStatus.BLOCKED)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findAllViews_PageOf100_ConstantStatements() {
+        assertViewStatements(() -> cardRepository.findAllViews(PAGE));
+    }
+
+    @Test
+    void findViewsByStatus_ConstantStatements() {
+        assertViewStatements(() -> cardRepository.findViewsByStatus(CardStatus.ACTIVE, PageRequest.of(0, 50, Sort.by("balance"))));
+    }
+
+    @Test
+    void findViewsByOwnerId_PageOf100_ConstantStatements() {
+        assertViewStatements(() -> cardRepository.findViewsByOwnerId(owner.getId(), PAGE));
+    }
+
+    @Test
+    void findViewsByStatusAndOwnerId_ConstantStatements() {
+        assertViewStatements(() -> cardRepository.findViewsByStatusAndOwnerId(CardStatus.ACTIVE, owner.getId(),
+                PageRequest.of(0, 50, Sort.by("balance"))));
+    }
+
+    @Test
+    void findPage_PageOf100_ConstantStatements() {
+        Statistics statistics = statistics();
+
+        List<String> owners = cardRepository.findPage(null, null, Sort.Order.asc("balance"), null, null, 100).stream()
+                .map(card -> card.getOwner().getUsername() + card.getOwner().getRoles())
+                .toList();
+
+        assertEquals(100, owners.size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    private void assertViewStatements(Supplier<Page<CardView>> finder) {
+        Statistics statistics = statistics();
+
+        List<String> owners = finder.get().stream()
+                .map(CardView::ownerName)
+                .toList();
+
+        assertFalse(owners.isEmpty());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
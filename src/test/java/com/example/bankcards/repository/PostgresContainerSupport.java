@@ -0,0 +1,32 @@
+package com.example.bankcards.repository;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * PostgreSQL in Testcontainers, migrated by Liquibase. Skipped without Docker.
+ */
+public abstract class PostgresContainerSupport {
+    private static PostgreSQLContainer<?> postgres;
+
+    @BeforeAll
+    public static void requireDocker() {
+        assumeTrue(DockerClientFactory.instance().isDockerAvailable(), "Docker is not available");
+    }
+
+    @DynamicPropertySource
+    public static void datasource(DynamicPropertyRegistry registry) {
+        if (postgres == null) {
+            postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+            postgres.start();
+        }
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.bankcards.security.jwt.cache;
+
+import com.example.bankcards.security.jwt.model.JwtPrincipal;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T10:00:00Z");
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
+    private final List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
+    private JwtPrincipal principal(Duration validFor) {
+        return new JwtPrincipal(1L, null, "user", List.of("ROLE_USER"), null, NOW.plus(validFor));
+    }
+
+    @Test
+    void get_AfterPut_ReturnsCachedEntryAndCountsHit() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 10, meterRegistry, clock);
+        JwtPrincipal principal = principal(Duration.ofMinutes(5));
+
+        assertNull(cache.get("token"));
+        cache.put("token", principal, authorities);
+        VerifiedTokenCache.Entry entry = cache.get("token");
+
+        assertNotNull(entry);
+        assertSame(principal, entry.principal());
+        assertEquals(authorities, entry.authorities());
+        assertEquals(1.0, meterRegistry.get("jwt.cache.requests").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("jwt.cache.requests").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void get_ExpiredEntry_ReturnsNullAndRemovesIt() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 10, meterRegistry, clock);
+        cache.put("token", principal(Duration.ZERO), authorities);
+
+        assertNull(cache.get("token"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void put_OverMaxSize_EvictsDownToMaxSize() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 2, meterRegistry, clock);
+        cache.put("first", principal(Duration.ofMinutes(5)), authorities);
+        cache.put("second", principal(Duration.ofMinutes(5)), authorities);
+
+        cache.put("third", principal(Duration.ofMinutes(5)), authorities);
+
+        assertEquals(2, cache.size());
+        assertEquals(1.0, meterRegistry.get("jwt.cache.evictions").counter().count());
+    }
+
+    @Test
+    void get_Disabled_AlwaysMisses() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(false, 10, meterRegistry, clock);
+        cache.put("token", principal(Duration.ofMinutes(5)), authorities);
+
+        assertNull(cache.get("token"));
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.bankcards.security.jwt.revocation;
+
+import com.example.bankcards.security.jwt.model.JwtPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenRevocationListTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+
+    private final TokenRevocationList revocationList = new TokenRevocationList(100, 0.01, new SimpleMeterRegistry());
+
+    private JwtPrincipal principal(Long userId, String tokenId, Instant issuedAt) {
+        return new JwtPrincipal(userId, tokenId, "user", List.of("ROLE_USER"), issuedAt, issuedAt.plus(Duration.ofMinutes(15)));
+    }
+
+    @Test
+    void isRevoked_RevokedTokenId_ReturnsTrue() {
+        revocationList.revokeToken("revoked", NOW.plusSeconds(60));
+
+        assertTrue(revocationList.isRevoked(principal(1L, "revoked", NOW)));
+        assertFalse(revocationList.isRevoked(principal(1L, "other", NOW)));
+    }
+
+    @Test
+    void isRevoked_UserCutoff_RevokesOnlyTokensIssuedBeforeIt() {
+        revocationList.revokeUser(1L, NOW, NOW.plusSeconds(900));
+
+        assertTrue(revocationList.isRevoked(principal(1L, "old", NOW.minusSeconds(10))));
+        assertFalse(revocationList.isRevoked(principal(1L, "new", NOW.plusSeconds(10))));
+        assertFalse(revocationList.isRevoked(principal(2L, "other-user", NOW.minusSeconds(10))));
+    }
+
+    @Test
+    void purgeExpired_DropsExpiredEntriesAndKeepsLiveOnes() {
+        revocationList.revokeToken("expired", NOW.minusSeconds(1));
+        revocationList.revokeToken("live", NOW.plusSeconds(60));
+        revocationList.revokeUser(1L, NOW.minusSeconds(1000), NOW.minusSeconds(1));
+
+        revocationList.purgeExpired(NOW);
+
+        assertFalse(revocationList.isRevoked(principal(2L, "expired", NOW)));
+        assertTrue(revocationList.isRevoked(principal(2L, "live", NOW)));
+        assertFalse(revocationList.isRevoked(principal(1L, "any", NOW.minusSeconds(2000))));
+    }
+
+    @Test
+    void isRevoked_ManyRevocations_NoFalseNegatives() {
+        List<String> tokenIds = Stream.generate(() -> UUID.randomUUID().toString()).limit(1000).toList();
+        tokenIds.forEach(tokenId -> revocationList.revokeToken(tokenId, NOW.plusSeconds(60)));
+        revocationList.purgeExpired(NOW);
+
+        tokenIds.forEach(tokenId -> assertTrue(revocationList.isRevoked(principal(1L, tokenId, NOW))));
+    }
+}
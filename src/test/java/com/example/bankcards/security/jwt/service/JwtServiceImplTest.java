@@ -0,0 +1,107 @@
+package com.example.bankcards.security.jwt.service;
+
+import com.example.bankcards.entity.token.RefreshToken;
+import com.example.bankcards.entity.user.User;
+import com.example.bankcards.exception.exception.UnauthorizedException;
+import com.example.bankcards.mapper.UserMapper;
+import com.example.bankcards.security.jwt.dto.JwtRequest;
+import com.example.bankcards.security.jwt.dto.JwtResponse;
+import com.example.bankcards.security.jwt.dto.RefreshTokenRequest;
+import com.example.bankcards.security.jwt.metrics.LoginMetrics;
+import com.example.bankcards.security.jwt.model.JwtUserDetails;
+import com.example.bankcards.util.JwtTokenUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtServiceImplTest {
+
+    @Mock private JwtTokenUtils jwtTokenUtils;
+    @Mock private AuthenticationManager authenticationManager;
+    @Mock private LoginMetrics loginMetrics;
+    @Mock private RefreshTokenService refreshTokenService;
+    @Mock private UserMapper userMapper;
+
+    @InjectMocks private JwtServiceImpl jwtService;
+
+    private JwtRequest request(String username, String password) {
+        JwtRequest request = new JwtRequest();
+        request.setUsername(username);
+        request.setPassword(password);
+        return request;
+    }
+
+    @Test
+    void createToken_ValidCredentials_UsesAuthenticatedPrincipal() {
+        JwtUserDetails userDetails = new JwtUserDetails(1L, "user", "encoded",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+        when(authenticationManager.authenticate(any()))
+                .thenReturn(new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+        when(jwtTokenUtils.generateToken(userDetails)).thenReturn("token");
+        when(refreshTokenService.create(1L)).thenReturn("refresh");
+
+        JwtResponse response = jwtService.createToken(request("user", "password"));
+
+        assertEquals("token", response.getToken());
+        assertEquals("refresh", response.getRefreshToken());
+        verify(loginMetrics).recordSigning(anyLong());
+        verify(loginMetrics).recordLogin(anyLong(), eq(true));
+    }
+
+    @Test
+    void createToken_BadCredentials_ThrowsUnauthorized() {
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+
+        assertThrows(UnauthorizedException.class, () -> jwtService.createToken(request("user", "wrong")));
+        verify(jwtTokenUtils, never()).generateToken(any());
+        verify(loginMetrics).recordLogin(anyLong(), eq(false));
+        verify(refreshTokenService, never()).create(any());
+    }
+
+    @Test
+    void refreshToken_ValidToken_RotatesTokens() {
+        User user = User.builder().id(1L).username("user").build();
+        JwtUserDetails userDetails = new JwtUserDetails(1L, "user", "encoded",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        RefreshTokenRequest refreshTokenRequest = new RefreshTokenRequest();
+        refreshTokenRequest.setRefreshToken("old");
+
+        when(refreshTokenService.consume("old")).thenReturn(RefreshToken.builder().id(5L).user(user).build());
+        when(userMapper.toUserDetails(user)).thenReturn(userDetails);
+        when(jwtTokenUtils.generateToken(userDetails)).thenReturn("token");
+        when(refreshTokenService.create(1L)).thenReturn("new");
+
+        JwtResponse response = jwtService.refreshToken(refreshTokenRequest);
+
+        assertEquals("token", response.getToken());
+        assertEquals("new", response.getRefreshToken());
+        verifyNoInteractions(authenticationManager);
+    }
+
+    @Test
+    void refreshToken_InvalidToken_ThrowsUnauthorized() {
+        RefreshTokenRequest refreshTokenRequest = new RefreshTokenRequest();
+        refreshTokenRequest.setRefreshToken("reused");
+
+        when(refreshTokenService.consume("reused")).thenThrow(new UnauthorizedException("Invalid refresh token."));
+
+        assertThrows(UnauthorizedException.class, () -> jwtService.refreshToken(refreshTokenRequest));
+        verify(jwtTokenUtils, never()).generateToken(any());
+        verify(refreshTokenService, never()).create(any());
+    }
+}
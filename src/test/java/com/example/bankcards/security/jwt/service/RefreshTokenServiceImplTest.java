@@ -0,0 +1,93 @@
+package com.example.bankcards.security.jwt.service;
+
+import com.example.bankcards.entity.token.RefreshToken;
+import com.example.bankcards.entity.user.User;
+import com.example.bankcards.exception.exception.UnauthorizedException;
+import com.example.bankcards.repository.RefreshTokenRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.util.TokenHashUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceImplTest {
+
+    @Mock private RefreshTokenRepository refreshTokenRepository;
+    @Mock private UserRepository userRepository;
+
+    private RefreshTokenServiceImpl refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenServiceImpl(refreshTokenRepository, userRepository, Duration.ofDays(30));
+    }
+
+    @Test
+    void create_StoresOnlyHashOfIssuedToken() {
+        User user = User.builder().id(1L).build();
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
+
+        String rawToken = refreshTokenService.create(1L);
+
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        RefreshToken saved = captor.getValue();
+        assertNotEquals(rawToken, saved.getTokenHash());
+        assertEquals(TokenHashUtil.sha256Hex(rawToken), saved.getTokenHash());
+        assertSame(user, saved.getUser());
+        assertTrue(saved.getExpiresAt().isAfter(LocalDateTime.now().plusDays(29)));
+    }
+
+    @Test
+    void consume_ValidToken_RemovesAndReturnsIt() {
+        RefreshToken stored = storedToken(LocalDateTime.now().plusDays(1));
+        when(refreshTokenRepository.removeById(stored.getId())).thenReturn(1);
+
+        assertSame(stored, refreshTokenService.consume("raw"));
+    }
+
+    @Test
+    void consume_AlreadyUsedToken_ThrowsUnauthorized() {
+        RefreshToken stored = storedToken(LocalDateTime.now().plusDays(1));
+        when(refreshTokenRepository.removeById(stored.getId())).thenReturn(0);
+
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.consume("raw"));
+    }
+
+    @Test
+    void consume_ExpiredToken_ThrowsUnauthorized() {
+        RefreshToken stored = storedToken(LocalDateTime.now().minusMinutes(1));
+        when(refreshTokenRepository.removeById(stored.getId())).thenReturn(1);
+
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.consume("raw"));
+    }
+
+    @Test
+    void consume_UnknownToken_ThrowsUnauthorized() {
+        when(refreshTokenRepository.findByTokenHash(TokenHashUtil.sha256Hex("raw"))).thenReturn(Optional.empty());
+
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.consume("raw"));
+        verify(refreshTokenRepository, never()).removeById(any());
+    }
+
+    private RefreshToken storedToken(LocalDateTime expiresAt) {
+        RefreshToken stored = RefreshToken.builder()
+                .id(10L)
+                .tokenHash(TokenHashUtil.sha256Hex("raw"))
+                .expiresAt(expiresAt)
+                .build();
+        when(refreshTokenRepository.findByTokenHash(stored.getTokenHash())).thenReturn(Optional.of(stored));
+        return stored;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.bankcards.security.jwt.service;
+
+import com.example.bankcards.entity.token.RevokedToken;
+import com.example.bankcards.exception.exception.NotFoundException;
+import com.example.bankcards.repository.RevokedTokenRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.jwt.revocation.TokenRevocationList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceImplTest {
+
+    @Mock private RevokedTokenRepository revokedTokenRepository;
+    @Mock private UserRepository userRepository;
+    @Mock private RefreshTokenService refreshTokenService;
+    @Mock private TokenRevocationList tokenRevocationList;
+
+    private TokenRevocationServiceImpl tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocationService = new TokenRevocationServiceImpl(revokedTokenRepository, userRepository,
+                refreshTokenService, tokenRevocationList, Duration.ofMinutes(15));
+    }
+
+    @Test
+    void revokeToken_PersistsAndAppliesLocally() {
+        when(revokedTokenRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        tokenRevocationService.revokeToken("jti");
+
+        verify(revokedTokenRepository).save(argThat(revoked -> "jti".equals(revoked.getTokenId())
+                && revoked.getExpiresAt().equals(revoked.getRevokedAt().plusMinutes(15))));
+        verify(tokenRevocationList).revokeToken(eq("jti"), any());
+    }
+
+    @Test
+    void revokeToken_InTransaction_AppliesOnlyAfterCommit() {
+        when(revokedTokenRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tokenRevocationService.revokeToken("jti");
+            verifyNoInteractions(tokenRevocationList);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(tokenRevocationList).revokeToken(eq("jti"), any());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void revokeUserTokens_RevokedAtTruncatedToSeconds() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(revokedTokenRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        tokenRevocationService.revokeUserTokens(1L);
+
+        verify(revokedTokenRepository).save(argThat(revoked -> revoked.getRevokedAt().getNano() == 0));
+    }
+
+    @Test
+    void revokeUserTokens_ExistingUser_RevokesAccessAndRefreshTokens() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(revokedTokenRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        tokenRevocationService.revokeUserTokens(1L);
+
+        verify(tokenRevocationList).revokeUser(eq(1L), any(), any());
+        verify(refreshTokenService).revokeAll(1L);
+    }
+
+    @Test
+    void revokeUserTokens_UnknownUser_ThrowsNotFound() {
+        when(userRepository.existsById(99L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> tokenRevocationService.revokeUserTokens(99L));
+        verifyNoInteractions(revokedTokenRepository, tokenRevocationList, refreshTokenService);
+    }
+
+    @Test
+    void refresh_FirstRunLoadsAllLiveRows_ThenOnlyRecentOnes() {
+        LocalDateTime now = LocalDateTime.now();
+        RevokedToken revoked = RevokedToken.builder().tokenId("jti").revokedAt(now).expiresAt(now.plusMinutes(15)).build();
+        when(revokedTokenRepository.findAllByExpiresAtAfter(any())).thenReturn(List.of(revoked));
+
+        tokenRevocationService.refresh();
+        tokenRevocationService.refresh();
+
+        verify(revokedTokenRepository).findAllByExpiresAtAfter(any());
+        verify(revokedTokenRepository).findAllByRevokedAtAfterAndExpiresAtAfter(any(), any());
+        verify(tokenRevocationList).revokeToken(eq("jti"), any());
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.entity.card.Card;
+import com.example.bankcards.exception.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardCursorTest {
+
+    @Test
+    void encodeDecode_Balance_RoundTrip() {
+        Card card = Card.builder().id(42L).balance(new BigDecimal("1234.50")).build();
+
+        CardCursor cursor = CardCursor.decode(CardCursor.after(Sort.Order.desc("balance"), card).encode());
+
+        assertEquals(Sort.Order.desc("balance"), cursor.order());
+        assertEquals(new BigDecimal("1234.50"), cursor.key());
+        assertEquals(42L, cursor.id());
+    }
+
+    @Test
+    void encodeDecode_ExpirationDate_RoundTrip() {
+        Card card = Card.builder().id(7L).expirationDate(LocalDate.of(2030, 1, 31)).build();
+
+        CardCursor cursor = CardCursor.decode(CardCursor.after(Sort.Order.asc("expirationDate"), card).encode());
+
+        assertEquals(LocalDate.of(2030, 1, 31), cursor.key());
+        assertEquals(7L, cursor.id());
+    }
+
+    @Test
+    void decode_Garbage_ThrowsBadRequest() {
+        assertThrows(BadRequestException.class, () -> CardCursor.decode("not a cursor"));
+        assertThrows(BadRequestException.class, () -> CardCursor.decode("b3duZXJ8QVNDfDF8MQ"));
+    }
+
+    @Test
+    void order_UnsortedDefaultsToBalance_UnknownPropertyRejected() {
+        assertEquals(Sort.Order.asc("balance"), CardCursor.order(Sort.unsorted()));
+        assertThrows(BadRequestException.class, () -> CardCursor.order(Sort.by("cardNumber")));
+        assertThrows(BadRequestException.class, () -> CardCursor.order(Sort.by("balance", "id")));
+    }
+}
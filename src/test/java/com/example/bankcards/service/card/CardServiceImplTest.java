@@ -2,6 +2,7 @@ package com.example.bankcards.service.card;
 
 import com.example.bankcards.dto.card.CardRequest;
 import com.example.bankcards.dto.card.CardResponse;
+import com.example.bankcards.dto.card.CardScrollResponse;
 import com.example.bankcards.dto.card.CardUpdateStatusRequest;
 import com.example.bankcards.entity.card.Card;
 import com.example.bankcards.entity.card.CardStatus;
@@ -12,6 +13,9 @@ import com.example.bankcards.exception.exception.NotFoundException;
 import com.example.bankcards.mapper.CardMapper;
 import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.repository.projection.CardView;
+import com.example.bankcards.security.jwt.model.JwtPrincipal;
+import com.example.bankcards.util.CardNumberBlindIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -26,10 +30,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.data.domain.Sort;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.math.BigDecimal;
-import java.security.Principal;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
@@ -37,6 +41,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,7 +50,7 @@ class CardServiceImplTest {
     @Mock private CardRepository cardRepository;
     @Mock private UserRepository userRepository;
     @Mock private CardMapper cardMapper;
-    @Mock private Principal principal;
+    @Mock private CardNumberBlindIndex cardNumberBlindIndex;
 
     @InjectMocks private CardServiceImpl cardService;
 
@@ -53,9 +58,11 @@ class CardServiceImplTest {
 
     private User testUser;
     private Card testCard;
+    private CardView testCardView;
     private CardRequest cardRequest;
     private final LocalDate futureDate = LocalDate.now().plusYears(1);
     private final String cardNumber = "1234567890123456";
+    private final JwtPrincipal principal = new JwtPrincipal(1L, null, "testUser", List.of("ROLE_USER"), null, null);
 
     @BeforeEach
     void setUp() {
@@ -71,13 +78,14 @@ class CardServiceImplTest {
         testCard.setBalance(BigDecimal.ZERO);
         testCard.setStatus(CardStatus.ACTIVE);
 
+        testCardView = new CardView(1L, "3456", "testUser", futureDate, BigDecimal.ZERO, CardStatus.ACTIVE);
+
         cardRequest = new CardRequest(cardNumber, futureDate);
     }
 
     @Test
     void createCard_ValidRequest_ShouldReturnResponse() {
-        when(principal.getName()).thenReturn("testUser");
-        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(testUser));
+        when(userRepository.getReferenceById(1L)).thenReturn(testUser);
         when(cardMapper.toCard(cardRequest, testUser)).thenReturn(testCard);
         when(cardRepository.save(testCard)).thenReturn(testCard);
         when(cardMapper.toCardResponse(testCard)).thenReturn(new CardResponse());
@@ -89,19 +97,30 @@ class CardServiceImplTest {
     }
 
     @Test
-    void createCard_UserNotFound_ShouldThrowException() {
-        when(principal.getName()).thenReturn("unknownUser");
-        when(userRepository.findByUsername("unknownUser")).thenReturn(Optional.empty());
+    void createCard_DuplicateNumber_ShouldThrowBadRequestException() {
+        testCard.setCardNumberHash("hash");
+        when(userRepository.getReferenceById(1L)).thenReturn(testUser);
+        when(cardMapper.toCard(cardRequest, testUser)).thenReturn(testCard);
+        when(cardRepository.existsByCardNumberHash(testCard.getCardNumberHash())).thenReturn(true);
+
+        assertThrows(BadRequestException.class, () -> cardService.create(principal, cardRequest));
+        verify(cardRepository, never()).save(any());
+    }
+
+    @Test
+    void createCard_UserNotFound_ShouldThrowCreationException() {
+        when(userRepository.getReferenceById(1L)).thenReturn(testUser);
+        when(cardMapper.toCard(cardRequest, testUser)).thenReturn(testCard);
+        when(cardRepository.save(testCard)).thenThrow(new DataIntegrityViolationException("fk_cards_owner_id"));
 
-        assertThrows(UsernameNotFoundException.class, () -> {
+        assertThrows(CreationException.class, () -> {
             cardService.create(principal, cardRequest);
         });
     }
 
     @Test
     void createCard_SaveFails_ShouldThrowCreationException() {
-        when(principal.getName()).thenReturn("testUser");
-        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(testUser));
+        when(userRepository.getReferenceById(1L)).thenReturn(testUser);
         when(cardMapper.toCard(cardRequest, testUser)).thenReturn(testCard);
         when(cardRepository.save(testCard)).thenThrow(new RuntimeException("DB error"));
 
@@ -112,8 +131,6 @@ class CardServiceImplTest {
 
     @Test
     void deleteOwnerCard_ValidRequest_ShouldDeleteCard() {
-        when(principal.getName()).thenReturn("testUser");
-        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(testUser));
         when(cardRepository.findById(1L)).thenReturn(Optional.of(testCard));
 
         cardService.deleteOwnerCard(principal, 1L);
@@ -123,22 +140,17 @@ class CardServiceImplTest {
 
     @Test
     void deleteOwnerCard_NotCardOwner_ShouldThrowException() {
-        User otherUser = new User();
-        otherUser.setId(2L);
+        JwtPrincipal otherUser = new JwtPrincipal(2L, null, "otherUser", List.of("ROLE_USER"), null, null);
 
-        when(principal.getName()).thenReturn("otherUser");
-        when(userRepository.findByUsername("otherUser")).thenReturn(Optional.of(otherUser));
         when(cardRepository.findById(1L)).thenReturn(Optional.of(testCard));
 
         assertThrows(BadRequestException.class, () -> {
-            cardService.deleteOwnerCard(principal, 1L);
+            cardService.deleteOwnerCard(otherUser, 1L);
         });
     }
 
     @Test
     void deleteOwnerCard_CardNotFound_ShouldThrowException() {
-        when(principal.getName()).thenReturn("testUser");
-        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(testUser));
         when(cardRepository.findById(1L)).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> {
@@ -149,47 +161,45 @@ class CardServiceImplTest {
     @Test
     void getCardsByOwner_ShouldReturnPagedResults() {
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Card> page = new PageImpl<>(Collections.singletonList(testCard));
+        Page<CardView> page = new PageImpl<>(Collections.singletonList(testCardView));
 
-        when(principal.getName()).thenReturn("testUser");
-        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(testUser));
-        when(cardRepository.findByOwnerId(testUser.getId(), pageable)).thenReturn(page);
-        when(cardMapper.toCardResponse(testCard)).thenReturn(new CardResponse());
+        when(cardRepository.findViewsByOwnerId(testUser.getId(), pageable)).thenReturn(page);
+        when(cardMapper.toCardResponse(testCardView)).thenReturn(new CardResponse());
 
         List<CardResponse> result = cardService.getCardsByOwner(principal, pageable);
 
         assertEquals(1, result.size());
-        verify(cardRepository).findByOwnerId(testUser.getId(), pageable);
+        verify(cardRepository).findViewsByOwnerId(testUser.getId(), pageable);
     }
 
     @Test
     void getCards_WithUsernameAndStatus_ShouldFilter() {
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Card> page = new PageImpl<>(Collections.singletonList(testCard));
+        Page<CardView> page = new PageImpl<>(Collections.singletonList(testCardView));
 
         when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(testUser));
-        when(cardRepository.findByStatusAndOwner(eq(CardStatus.ACTIVE), eq(testUser), eq(pageable)))
+        when(cardRepository.findViewsByStatusAndOwnerId(eq(CardStatus.ACTIVE), eq(testUser.getId()), eq(pageable)))
                 .thenReturn(page);
-        when(cardMapper.toCardResponse(testCard)).thenReturn(new CardResponse());
+        when(cardMapper.toCardResponse(testCardView)).thenReturn(new CardResponse());
 
         List<CardResponse> result = cardService.getCards(CardStatus.ACTIVE, "testUser", pageable);
 
         assertEquals(1, result.size());
-        verify(cardRepository).findByStatusAndOwner(CardStatus.ACTIVE, testUser, pageable);
+        verify(cardRepository).findViewsByStatusAndOwnerId(CardStatus.ACTIVE, testUser.getId(), pageable);
     }
 
     @Test
     void getCards_WithoutFilters_ShouldReturnAll() {
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Card> page = new PageImpl<>(Collections.singletonList(testCard));
+        Page<CardView> page = new PageImpl<>(Collections.singletonList(testCardView));
 
-        when(cardRepository.findAll(pageable)).thenReturn(page);
-        when(cardMapper.toCardResponse(testCard)).thenReturn(new CardResponse());
+        when(cardRepository.findAllViews(pageable)).thenReturn(page);
+        when(cardMapper.toCardResponse(testCardView)).thenReturn(new CardResponse());
 
         List<CardResponse> result = cardService.getCards(null, null, pageable);
 
         assertEquals(1, result.size());
-        verify(cardRepository).findAll(pageable);
+        verify(cardRepository).findAllViews(pageable);
     }
 
     @ParameterizedTest
@@ -198,7 +208,8 @@ class CardServiceImplTest {
         testCard.setStatus(newStatus == CardStatus.ACTIVE ? CardStatus.BLOCKED : CardStatus.ACTIVE);
         CardUpdateStatusRequest request = new CardUpdateStatusRequest(cardNumber, newStatus);
 
-        when(cardRepository.findByCardNumber(cardNumber)).thenReturn(Optional.of(testCard));
+        when(cardNumberBlindIndex.hash(cardNumber)).thenReturn("hash");
+        when(cardRepository.findByCardNumberHash("hash")).thenReturn(Optional.of(testCard));
 
         cardService.updateStatus(request);
 
@@ -210,7 +221,8 @@ class CardServiceImplTest {
     void updateStatus_ToExpired_ShouldThrowException() {
         CardUpdateStatusRequest request = new CardUpdateStatusRequest(cardNumber, CardStatus.EXPIRED);
 
-        when(cardRepository.findByCardNumber(cardNumber)).thenReturn(Optional.of(testCard));
+        when(cardNumberBlindIndex.hash(cardNumber)).thenReturn("hash");
+        when(cardRepository.findByCardNumberHash("hash")).thenReturn(Optional.of(testCard));
 
         assertThrows(BadRequestException.class, () -> {
             cardService.updateStatus(request);
@@ -222,7 +234,8 @@ class CardServiceImplTest {
         testCard.setStatus(CardStatus.ACTIVE);
         CardUpdateStatusRequest request = new CardUpdateStatusRequest(cardNumber, CardStatus.ACTIVE);
 
-        when(cardRepository.findByCardNumber(cardNumber)).thenReturn(Optional.of(testCard));
+        when(cardNumberBlindIndex.hash(cardNumber)).thenReturn("hash");
+        when(cardRepository.findByCardNumberHash("hash")).thenReturn(Optional.of(testCard));
 
         assertThrows(BadRequestException.class, () -> {
             cardService.updateStatus(request);
@@ -234,7 +247,8 @@ class CardServiceImplTest {
         testCard.setStatus(CardStatus.EXPIRED);
         CardUpdateStatusRequest request = new CardUpdateStatusRequest(cardNumber, CardStatus.ACTIVE);
 
-        when(cardRepository.findByCardNumber(cardNumber)).thenReturn(Optional.of(testCard));
+        when(cardNumberBlindIndex.hash(cardNumber)).thenReturn("hash");
+        when(cardRepository.findByCardNumberHash("hash")).thenReturn(Optional.of(testCard));
 
         assertThrows(BadRequestException.class, () -> {
             cardService.updateStatus(request);
@@ -245,7 +259,8 @@ class CardServiceImplTest {
     void updateStatus_CardNotFound_ShouldThrowException() {
         CardUpdateStatusRequest request = new CardUpdateStatusRequest("invalid", CardStatus.ACTIVE);
 
-        when(cardRepository.findByCardNumber("invalid")).thenReturn(Optional.empty());
+        when(cardNumberBlindIndex.hash("invalid")).thenReturn("invalid-hash");
+        when(cardRepository.findByCardNumberHash("invalid-hash")).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> {
             cardService.updateStatus(request);
@@ -269,4 +284,41 @@ class CardServiceImplTest {
             cardService.delete(1L);
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void scrollCardsByOwner_MorePages_ReturnsCursorOfLastCard() {
+        Card second = Card.builder().id(2L).owner(testUser).balance(BigDecimal.TEN).build();
+        Card third = Card.builder().id(3L).owner(testUser).balance(BigDecimal.TEN).build();
+        testCard.setBalance(BigDecimal.ONE);
+        when(cardRepository.findPage(isNull(), eq(1L), eq(Sort.Order.asc("balance")), isNull(), isNull(), eq(3)))
+                .thenReturn(List.of(testCard, second, third));
+        when(cardMapper.toCardResponse(any(Card.class))).thenReturn(new CardResponse());
+
+        CardScrollResponse response = cardService.scrollCardsByOwner(principal, null, Sort.by("balance"), 2);
+
+        assertEquals(2, response.getContent().size());
+        CardCursor next = CardCursor.decode(response.getNextCursor());
+        assertEquals(BigDecimal.TEN, next.key());
+        assertEquals(2L, next.id());
+    }
+
+    @Test
+    void scrollCards_WithCursor_SeeksAfterItAndKeepsItsSort() {
+        String cursor = new CardCursor(Sort.Order.desc("balance"), new BigDecimal("5.00"), 9L).encode();
+        when(cardRepository.findPage(CardStatus.ACTIVE, null, Sort.Order.desc("balance"), new BigDecimal("5.00"), 9L, 11))
+                .thenReturn(List.of(testCard));
+        when(cardMapper.toCardResponse(testCard)).thenReturn(new CardResponse());
+
+        CardScrollResponse response = cardService.scrollCards(CardStatus.ACTIVE, null, cursor, Sort.by("id"), 10);
+
+        assertEquals(1, response.getContent().size());
+        assertNull(response.getNextCursor());
+    }
+
+    @Test
+    void scrollCards_SizeOutOfRange_ShouldThrowException() {
+        assertThrows(BadRequestException.class, () -> cardService.scrollCards(null, null, null, Sort.unsorted(), 0));
+        assertThrows(BadRequestException.class, () -> cardService.scrollCards(null, null, null, Sort.unsorted(), 101));
+        verifyNoInteractions(cardRepository);
+    }
+}
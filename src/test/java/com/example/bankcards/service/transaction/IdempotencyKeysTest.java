@@ -0,0 +1,146 @@
+package com.example.bankcards.service.transaction;
+
+import com.example.bankcards.dto.transaction.TransactionRequest;
+import com.example.bankcards.dto.transaction.TransactionResponse;
+import com.example.bankcards.entity.transaction.IdempotencyKey;
+import com.example.bankcards.entity.transaction.TransactionStatus;
+import com.example.bankcards.exception.exception.BadRequestException;
+import com.example.bankcards.repository.IdempotencyKeyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyKeysTest {
+
+    private static final Instant NOW = Instant.parse("2024-03-01T12:00:00Z");
+    private static final TransactionResponse RESPONSE = new TransactionResponse(TransactionStatus.SUCCESS, "Transaction completed");
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MutableClock clock = new MutableClock();
+    private IdempotencyKeys keys;
+
+    @BeforeEach
+    void setUp() {
+        keys = new IdempotencyKeys(idempotencyKeyRepository, Duration.ofHours(1), 2, 100, meterRegistry, clock);
+    }
+
+    @Test
+    void cached_RememberedKey_ReplaysAndCountsHit() {
+        keys.remember(1L, "key", "hash", RESPONSE);
+
+        assertSame(RESPONSE, keys.cached(1L, "key", "hash", System.nanoTime()));
+        assertNull(keys.cached(2L, "key", "hash", System.nanoTime()));
+        assertEquals(1.0, meterRegistry.get("transfer.idempotency.cache.requests").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("transfer.idempotency.cache.requests").tag("result", "miss").counter().count());
+        assertEquals(1, meterRegistry.get("transfer.idempotency.replay").tag("source", "cache").timer().count());
+    }
+
+    @Test
+    void cached_DifferentRequest_ThrowsBadRequest() {
+        keys.remember(1L, "key", "hash", RESPONSE);
+
+        assertThrows(BadRequestException.class, () -> keys.cached(1L, "key", "other", System.nanoTime()));
+    }
+
+    @Test
+    void cached_ExpiredKey_Misses() {
+        keys.remember(1L, "key", "hash", RESPONSE);
+        clock.advance(Duration.ofHours(2));
+
+        assertNull(keys.cached(1L, "key", "hash", System.nanoTime()));
+        assertEquals(0, keys.size());
+    }
+
+    @Test
+    void cached_OverCapacity_EvictsLeastRecentlyUsed() {
+        keys.remember(1L, "a", "hash", RESPONSE);
+        keys.remember(1L, "b", "hash", RESPONSE);
+        keys.cached(1L, "a", "hash", System.nanoTime());
+        keys.remember(1L, "c", "hash", RESPONSE);
+
+        assertNotNull(keys.cached(1L, "a", "hash", System.nanoTime()));
+        assertNull(keys.cached(1L, "b", "hash", System.nanoTime()));
+    }
+
+    @Test
+    void cached_TooLongKey_ThrowsBadRequest() {
+        assertThrows(BadRequestException.class,
+                () -> keys.cached(1L, "k".repeat(IdempotencyKeys.MAX_KEY_LENGTH + 1), "hash", System.nanoTime()));
+    }
+
+    @Test
+    void stored_ReplaysRowAndCachesIt() {
+        when(idempotencyKeyRepository.findByUserIdAndIdempotencyKey(1L, "key")).thenReturn(Optional.of(IdempotencyKey.builder()
+                .requestHash("hash")
+                .status(TransactionStatus.FAILED)
+                .message("Insufficient funds")
+                .expiresAt(LocalDateTime.ofInstant(NOW, ZoneOffset.UTC).plusHours(1))
+                .build()));
+
+        TransactionResponse response = keys.stored(1L, "key", "hash", System.nanoTime());
+
+        assertEquals(TransactionStatus.FAILED, response.getStatus());
+        assertEquals("Insufficient funds", response.getMessage());
+        assertSame(response, keys.cached(1L, "key", "hash", System.nanoTime()));
+    }
+
+    @Test
+    void requestHash_SameAmountDifferentScale_Equal() {
+        assertEquals(IdempotencyKeys.requestHash(new TransactionRequest(1L, 2L, new BigDecimal("10"))),
+                IdempotencyKeys.requestHash(new TransactionRequest(1L, 2L, new BigDecimal("10.00"))));
+        assertNotEquals(IdempotencyKeys.requestHash(new TransactionRequest(1L, 2L, BigDecimal.TEN)),
+                IdempotencyKeys.requestHash(new TransactionRequest(2L, 1L, BigDecimal.TEN)));
+    }
+
+    @Test
+    void purgeExpired_DeletesInBatchesUntilShortBatch() {
+        when(idempotencyKeyRepository.removeExpired(any(), eq(100))).thenReturn(100, 100, 7);
+
+        keys.purgeExpired();
+
+        verify(idempotencyKeyRepository, times(3)).removeExpired(any(), eq(100));
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant = NOW;
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
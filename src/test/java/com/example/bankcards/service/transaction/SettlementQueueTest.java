@@ -0,0 +1,42 @@
+package com.example.bankcards.service.transaction;
+
+import com.example.bankcards.exception.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SettlementQueueTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SettlementQueue queue = new SettlementQueue(true, 2, meterRegistry);
+
+    @Test
+    void admit_BacklogFull_RejectsWithoutGrowing() {
+        queue.admit();
+        queue.admit();
+
+        assertThrows(ServiceUnavailableException.class, queue::admit);
+        assertEquals(2, queue.depth());
+        assertEquals(1.0, meterRegistry.get("transfer.settlement.rejected").counter().count());
+    }
+
+    @Test
+    void settled_FreesRoom() {
+        queue.refresh(2);
+        queue.settled(1);
+
+        assertDoesNotThrow(queue::admit);
+        assertEquals(2.0, meterRegistry.get("transfer.settlement.queue.depth").gauge().value());
+    }
+
+    @Test
+    void settled_MoreThanCounted_StopsAtZero() {
+        queue.admit();
+        queue.settled(5);
+
+        assertEquals(0, queue.depth());
+    }
+}
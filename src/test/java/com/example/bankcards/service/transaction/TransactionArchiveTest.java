@@ -0,0 +1,193 @@
+package com.example.bankcards.service.transaction;
+
+import com.example.bankcards.entity.transaction.TransactionStatus;
+import com.example.bankcards.exception.exception.BadRequestException;
+import com.example.bankcards.repository.projection.TransactionView;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionArchiveTest {
+    private static final YearMonth MARCH = YearMonth.of(2024, 3);
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void find_ReadsOverlappingBlocksInSortOrder() throws IOException {
+        TransactionArchive archive = archive();
+        write(archive, MARCH, 10);
+
+        List<TransactionView> page = archive.find(null, null, START.plusDays(2), START.plusDays(8),
+                Sort.by(Sort.Direction.DESC, "timestamp"), 3);
+
+        assertEquals(List.of(8L, 7L, 6L), page.stream().map(TransactionView::id).toList());
+        assertEquals(new BigDecimal("18.50"), page.get(0).amount());
+        assertEquals(LocalDateTime.of(2024, 4, 1, 0, 0), archive.horizon());
+    }
+
+    @Test
+    void find_Descending_StopsBeforeOutrankedMonths() throws IOException {
+        TransactionArchive archive = archive();
+        write(archive, MARCH, 4);
+        write(archive, MARCH.plusMonths(1), 4);
+        try (Stream<Path> files = Files.list(directory.resolve("2024-03"))) {
+            for (Path file : files.toList()) {
+                Files.write(file, new byte[]{1, 2, 3});
+            }
+        }
+
+        List<TransactionView> page = archive.find(null, null, null, START.plusMonths(2),
+                Sort.by(Sort.Direction.DESC, "timestamp"), 2);
+
+        assertEquals(List.of(4L, 3L), page.stream().map(TransactionView::id).toList());
+        assertEquals(YearMonth.of(2024, 4), YearMonth.from(page.get(0).timestamp()));
+    }
+
+    @Test
+    void find_FiltersByCardAndStatus() throws IOException {
+        TransactionArchive archive = archive();
+        write(archive, MARCH, 10);
+
+        List<TransactionView> rows = archive.find(2L, TransactionStatus.SUCCESS, START, START.plusMonths(1),
+                Sort.by("amount"), 100);
+
+        assertEquals(List.of(2L, 4L, 6L, 8L, 10L), rows.stream().map(TransactionView::id).toList());
+    }
+
+    @Test
+    void findCardHistory_IncludesIncomingAndSeeksBeforeCursor() throws IOException {
+        TransactionArchive archive = archive();
+        try (TransactionArchive.SegmentWriter segment = archive.newSegment(MARCH)) {
+            segment.append(transfer(1, 1L, 2L));
+            segment.append(transfer(2, 2L, 3L));
+            segment.append(transfer(3, 3L, 1L));
+            segment.append(transfer(4, 1L, 3L));
+            segment.commit();
+        }
+
+        assertEquals(List.of(4L, 3L), archive.findCardHistory(1L, null, null, 2).stream().map(TransactionView::id).toList());
+        assertEquals(List.of(1L), archive.findCardHistory(1L, START.plusDays(2), 3L, 10).stream().map(TransactionView::id).toList());
+    }
+
+    @Test
+    void findCardHistory_CardNotInBlocks_SkipsThemUndecompressed() throws IOException {
+        TransactionArchive archive = archive();
+        write(archive, MARCH, 6);
+        try (Stream<Path> files = Files.list(directory.resolve("2024-03"))) {
+            for (Path file : files.filter(file -> file.toString().endsWith(".gz")).toList()) {
+                Files.write(file, new byte[(int) Files.size(file)]);
+            }
+        }
+
+        assertEquals(List.of(), archive.findCardHistory(7L, null, null, 10));
+        assertEquals(List.of(), archive.find(7L, null, START, START.plusMonths(1), Sort.unsorted(), 10));
+    }
+
+    @Test
+    void find_UnknownSortProperty_ThrowsBadRequest() {
+        TransactionArchive archive = archive();
+
+        assertThrows(BadRequestException.class,
+                () -> archive.find(null, null, START, START.plusMonths(1), Sort.by("sourceLast4"), 10));
+    }
+
+    @Test
+    void newInstance_FindsPublishedSegments() throws IOException {
+        write(archive(), MARCH, 4);
+        write(archive(), MARCH.plusMonths(1), 2);
+
+        TransactionArchive reopened = archive();
+
+        assertEquals(LocalDateTime.of(2024, 5, 1, 0, 0), reopened.horizon());
+        assertEquals(Set.of(1L, 2L, 3L, 4L), reopened.archivedIds(MARCH));
+        assertEquals(6, reopened.find(null, null, START, START.plusMonths(2), Sort.unsorted(), 10).size());
+    }
+
+    @Test
+    void find_BlocksAcrossMappedRegions_ReadsEveryBlock() throws IOException {
+        write(archive(), MARCH, 10);
+        TransactionArchive archive = new TransactionArchive(directory.toString(), 3, 1, 64);
+
+        List<TransactionView> rows = archive.find(null, null, START, START.plusMonths(1), Sort.by("id"), 100);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L), rows.stream().map(TransactionView::id).toList());
+    }
+
+    @Test
+    void find_MoreSegmentsThanOpenLimit_ReopensEvictedOnes() throws IOException {
+        TransactionArchive archive = archive();
+        write(archive, MARCH, 4);
+        write(archive, MARCH.plusMonths(1), 4);
+
+        assertEquals(8, archive.find(null, null, START, START.plusMonths(2), Sort.unsorted(), 10).size());
+        assertEquals(8, archive.find(null, null, START, START.plusMonths(2), Sort.unsorted(), 10).size());
+    }
+
+    @Test
+    void refresh_PicksUpSegmentsOfAnotherInstance() throws IOException {
+        TransactionArchive reader = archive();
+        write(archive(), MARCH, 2);
+
+        reader.refresh();
+        reader.refresh();
+
+        assertEquals(LocalDateTime.of(2024, 4, 1, 0, 0), reader.horizon());
+        assertEquals(2, reader.find(null, null, START, START.plusMonths(1), Sort.unsorted(), 10).size());
+    }
+
+    @Test
+    void close_WithoutCommit_PublishesNothing() throws IOException {
+        TransactionArchive archive = archive();
+        try (TransactionArchive.SegmentWriter segment = archive.newSegment(MARCH)) {
+            segment.append(row(1));
+        }
+
+        assertNull(archive.horizon());
+        try (Stream<Path> files = Files.list(directory.resolve("2024-03"))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private TransactionArchive archive() {
+        try {
+            return new TransactionArchive(directory.toString(), 3, 1);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void write(TransactionArchive archive, YearMonth month, int rows) throws IOException {
+        try (TransactionArchive.SegmentWriter segment = archive.newSegment(month)) {
+            for (int i = 1; i <= rows; i++) {
+                TransactionView row = row(i);
+                segment.append(new TransactionView(row.id(), row.sourceCardId(), row.targetCardId(), row.sourceLast4(), row.targetLast4(),
+                        row.amount(), month.atDay(i).atStartOfDay(), row.status()));
+            }
+            assertEquals(rows, segment.commit());
+        }
+    }
+
+    private static TransactionView transfer(long id, Long sourceCardId, Long targetCardId) {
+        return new TransactionView(id, sourceCardId, targetCardId, "1111", "2222", BigDecimal.TEN, START.plusDays(id - 1),
+                TransactionStatus.SUCCESS);
+    }
+
+    private static TransactionView row(long id) {
+        return new TransactionView(id, id % 2 == 0 ? 2L : 1L, id % 2 == 0 ? 1L : 2L, "1111", "2222", new BigDecimal("10.50").add(BigDecimal.valueOf(id)),
+                START.plusDays(id - 1), id == 3 ? TransactionStatus.FAILED : TransactionStatus.SUCCESS);
+    }
+}
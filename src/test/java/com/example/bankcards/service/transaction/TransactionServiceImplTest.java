@@ -1,6 +1,7 @@
 package com.example.bankcards.service.transaction;
 
 import com.example.bankcards.dto.transaction.TransactionFullResponse;
+import com.example.bankcards.dto.transaction.TransactionHistoryResponse;
 import com.example.bankcards.dto.transaction.TransactionRequest;
 import com.example.bankcards.dto.transaction.TransactionResponse;
 import com.example.bankcards.dto.transaction.TransactionUpdateRequest;
@@ -9,29 +10,36 @@ import com.example.bankcards.entity.card.CardStatus;
 import com.example.bankcards.entity.transaction.Transaction;
 import com.example.bankcards.entity.transaction.TransactionStatus;
 import com.example.bankcards.entity.user.User;
+import com.example.bankcards.exception.exception.BadRequestException;
 import com.example.bankcards.exception.exception.CreationException;
+import com.example.bankcards.exception.exception.NotFoundException;
 import com.example.bankcards.mapper.TransactionMapper;
 import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.TransactionRepository;
-import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.repository.projection.TransactionView;
+import com.example.bankcards.security.jwt.model.JwtPrincipal;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
-import java.security.Principal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,22 +48,38 @@ class TransactionServiceImplTest {
     @Mock
     private TransactionRepository transactionRepository;
     @Mock
-    private UserRepository userRepository;
-    @Mock
     private CardRepository cardRepository;
     @Mock
     private TransactionMapper transactionMapper;
+    @Mock
+    private TransferSettlement transferSettlement;
+    @Mock
+    private SettlementQueue settlementQueue;
+    @Mock
+    private TransferLanes transferLanes;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private IdempotencyKeys idempotencyKeys;
+    @Mock
+    private TransactionArchive transactionArchive;
     @InjectMocks
     private TransactionServiceImpl transactionService;
 
-    private final Principal principal = new UsernamePasswordAuthenticationToken("user", "password");
+    private final JwtPrincipal principal = new JwtPrincipal(1L, null, "user", List.of("ROLE_USER"), null, null);
 
     private User createTestUser() {
         User user = new User();
+        user.setId(1L);
         user.setUsername("user");
         return user;
     }
 
+    private void runTransactionTemplate() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
     private Card createTestCard(User owner, CardStatus status) {
         Card card = new Card();
         card.setId(1L);
@@ -67,6 +91,7 @@ class TransactionServiceImplTest {
 
     @Test
     void createTransaction_Success() {
+        runTransactionTemplate();
         User user = createTestUser();
         Card sourceCard = createTestCard(user, CardStatus.ACTIVE);
         Card targetCard = createTestCard(user, CardStatus.ACTIVE);
@@ -75,31 +100,34 @@ class TransactionServiceImplTest {
         Transaction transaction = Transaction.builder()
                 .sourceCard(sourceCard)
                 .targetCard(targetCard)
-                .status(TransactionStatus.PENDING)
+                .amount(request.getAmount())
                 .build();
 
-        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
         when(cardRepository.findById(1L)).thenReturn(Optional.of(sourceCard));
         when(cardRepository.findById(2L)).thenReturn(Optional.of(targetCard));
         when(transactionMapper.toTransaction(request, sourceCard, targetCard)).thenReturn(transaction);
+        when(transferSettlement.settle(transaction)).thenAnswer(invocation -> {
+            transaction.setStatus(TransactionStatus.SUCCESS);
+            return TransferSettlement.COMPLETED;
+        });
         when(transactionRepository.save(transaction)).thenReturn(transaction);
-        when(transactionMapper.toTransactionResponse(transaction, "Transaction in processing"))
-                .thenReturn(new TransactionResponse(TransactionStatus.PENDING, "Transaction in processing"));
+        when(transactionMapper.toTransactionResponse(transaction, TransferSettlement.COMPLETED))
+                .thenReturn(new TransactionResponse(TransactionStatus.SUCCESS, TransferSettlement.COMPLETED));
 
-        TransactionResponse response = transactionService.createTransaction(principal, request);
+        TransactionResponse response = transactionService.createTransaction(principal, request, null);
 
-        assertEquals(TransactionStatus.PENDING, response.getStatus());
-        assertEquals("Transaction in processing", response.getMessage());
+        assertEquals(TransactionStatus.SUCCESS, response.getStatus());
+        assertEquals(TransferSettlement.COMPLETED, response.getMessage());
         verify(transactionRepository).save(transaction);
     }
 
     @Test
-    void createTransaction_CardBlocked_Failed() {
+    void createTransaction_SettlementFails_SavesFailedTransaction() {
+        runTransactionTemplate();
         User user = createTestUser();
         Card blockedCard = createTestCard(user, CardStatus.BLOCKED);
         Card activeCard = createTestCard(user, CardStatus.ACTIVE);
 
-        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
         when(cardRepository.findById(1L)).thenReturn(Optional.of(blockedCard));
         when(cardRepository.findById(2L)).thenReturn(Optional.of(activeCard));
 
@@ -108,15 +136,18 @@ class TransactionServiceImplTest {
                 .sourceCard(blockedCard)
                 .targetCard(activeCard)
                 .amount(BigDecimal.TEN)
-                .status(TransactionStatus.FAILED)
                 .build();
 
         when(transactionMapper.toTransaction(request, blockedCard, activeCard)).thenReturn(transaction);
+        when(transferSettlement.settle(transaction)).thenAnswer(invocation -> {
+            transaction.setStatus(TransactionStatus.FAILED);
+            return "Cannot use blocked card";
+        });
         when(transactionRepository.save(transaction)).thenReturn(transaction);
         when(transactionMapper.toTransactionResponse(transaction, "Cannot use blocked card"))
                 .thenReturn(new TransactionResponse(TransactionStatus.FAILED, "Cannot use blocked card"));
 
-        TransactionResponse response = transactionService.createTransaction(principal, request);
+        TransactionResponse response = transactionService.createTransaction(principal, request, null);
 
         assertEquals(TransactionStatus.FAILED, response.getStatus());
         assertEquals("Cannot use blocked card", response.getMessage());
@@ -124,86 +155,414 @@ class TransactionServiceImplTest {
     }
 
     @Test
-    void createTransaction_SaveFails_ThrowsCreationException() {
+    void createTransaction_AsyncMode_QueuesPendingTransaction() {
+        runTransactionTemplate();
         User user = createTestUser();
         Card sourceCard = createTestCard(user, CardStatus.ACTIVE);
         Card targetCard = createTestCard(user, CardStatus.ACTIVE);
+        TransactionRequest request = new TransactionRequest(1L, 2L, BigDecimal.TEN);
+        Transaction transaction = Transaction.builder().status(TransactionStatus.PENDING).build();
 
-        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
+        when(settlementQueue.isAsync()).thenReturn(true);
         when(cardRepository.findById(1L)).thenReturn(Optional.of(sourceCard));
         when(cardRepository.findById(2L)).thenReturn(Optional.of(targetCard));
-        when(transactionRepository.save(any())).thenThrow(new RuntimeException("DB error"));
+        when(transactionMapper.toTransaction(request, sourceCard, targetCard)).thenReturn(transaction);
+        when(transactionRepository.save(transaction)).thenReturn(transaction);
+        when(transactionMapper.toTransactionResponse(transaction, "Transaction in processing"))
+                .thenReturn(new TransactionResponse(TransactionStatus.PENDING, "Transaction in processing"));
+
+        TransactionResponse response = transactionService.createTransaction(principal, request, null);
+
+        assertEquals(TransactionStatus.PENDING, response.getStatus());
+        verify(settlementQueue).admit();
+        verifyNoInteractions(transferSettlement);
+    }
+
+    @Test
+    void createTransaction_LanesEnabled_RunsOnCardLanes() {
+        TransactionRequest request = new TransactionRequest(1L, 2L, BigDecimal.TEN);
+        TransactionResponse expected = new TransactionResponse(TransactionStatus.SUCCESS, TransferSettlement.COMPLETED);
+        when(transferLanes.isEnabled()).thenReturn(true);
+        when(transferLanes.execute(eq(1L), eq(2L), any())).thenReturn(expected);
+
+        assertSame(expected, transactionService.createTransaction(principal, request, null));
+        verifyNoInteractions(transactionTemplate, cardRepository);
+    }
+
+    @Test
+    void createTransaction_CachedIdempotencyKey_ReplaysWithoutTouchingCards() {
+        TransactionRequest request = new TransactionRequest(1L, 2L, BigDecimal.TEN);
+        TransactionResponse stored = new TransactionResponse(TransactionStatus.SUCCESS, TransferSettlement.COMPLETED);
+        when(idempotencyKeys.cached(eq(1L), eq("retry-1"), eq(IdempotencyKeys.requestHash(request)), anyLong()))
+                .thenReturn(stored);
+
+        assertSame(stored, transactionService.createTransaction(principal, request, "retry-1"));
+        verifyNoInteractions(transactionTemplate, cardRepository, transactionRepository, transferSettlement);
+    }
+
+    @Test
+    void createTransaction_IdempotencyKeyClaimedBefore_ReturnsStoredResponse() {
+        runTransactionTemplate();
+        TransactionRequest request = new TransactionRequest(1L, 2L, BigDecimal.TEN);
+        String requestHash = IdempotencyKeys.requestHash(request);
+        TransactionResponse stored = new TransactionResponse(TransactionStatus.FAILED, "Insufficient funds");
+        when(idempotencyKeys.claim(1L, "retry-1", requestHash)).thenReturn(false);
+        when(idempotencyKeys.stored(eq(1L), eq("retry-1"), eq(requestHash), anyLong())).thenReturn(stored);
+
+        assertSame(stored, transactionService.createTransaction(principal, request, "retry-1"));
+        verifyNoInteractions(cardRepository, transactionRepository, transferSettlement);
+    }
 
+    @Test
+    void createTransaction_NewIdempotencyKey_StoresResponse() {
+        runTransactionTemplate();
+        User user = createTestUser();
+        Card sourceCard = createTestCard(user, CardStatus.ACTIVE);
+        Card targetCard = createTestCard(user, CardStatus.ACTIVE);
         TransactionRequest request = new TransactionRequest(1L, 2L, BigDecimal.TEN);
+        String requestHash = IdempotencyKeys.requestHash(request);
+        Transaction transaction = new Transaction();
+        TransactionResponse response = new TransactionResponse(TransactionStatus.SUCCESS, TransferSettlement.COMPLETED);
+
+        when(idempotencyKeys.claim(1L, "key-1", requestHash)).thenReturn(true);
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(sourceCard));
+        when(cardRepository.findById(2L)).thenReturn(Optional.of(targetCard));
+        when(transactionMapper.toTransaction(request, sourceCard, targetCard)).thenReturn(transaction);
+        when(transferSettlement.settle(transaction)).thenReturn(TransferSettlement.COMPLETED);
+        when(transactionRepository.save(transaction)).thenReturn(transaction);
+        when(transactionMapper.toTransactionResponse(transaction, TransferSettlement.COMPLETED)).thenReturn(response);
+
+        assertSame(response, transactionService.createTransaction(principal, request, "key-1"));
+        verify(idempotencyKeys).complete(1L, "key-1", response);
+        verify(idempotencyKeys).remember(1L, "key-1", requestHash, response);
+    }
+
+    @Test
+    void createTransaction_ForeignCard_ThrowsBadRequest() {
+        runTransactionTemplate();
+        User other = createTestUser();
+        other.setId(2L);
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(createTestCard(createTestUser(), CardStatus.ACTIVE)));
+        when(cardRepository.findById(2L)).thenReturn(Optional.of(createTestCard(other, CardStatus.ACTIVE)));
+
+        assertThrows(BadRequestException.class, () -> transactionService.createTransaction(
+                principal, new TransactionRequest(1L, 2L, BigDecimal.TEN), null));
+        verifyNoInteractions(transferSettlement, transactionRepository);
+    }
+
+    @Test
+    void createTransaction_SaveFails_ThrowsCreationException() {
+        runTransactionTemplate();
+        User user = createTestUser();
+        Card sourceCard = createTestCard(user, CardStatus.ACTIVE);
+        Card targetCard = createTestCard(user, CardStatus.ACTIVE);
+
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(sourceCard));
+        when(cardRepository.findById(2L)).thenReturn(Optional.of(targetCard));
+        TransactionRequest request = new TransactionRequest(1L, 2L, BigDecimal.TEN);
+        when(transactionMapper.toTransaction(request, sourceCard, targetCard)).thenReturn(new Transaction());
+        when(transactionRepository.save(any())).thenThrow(new RuntimeException("DB error"));
 
         CreationException exception = assertThrows(CreationException.class,
-                () -> transactionService.createTransaction(principal, request));
+                () -> transactionService.createTransaction(principal, request, null));
         assertTrue(exception.getMessage().contains("DB error"));
     }
 
     @Test
-    void updateStatusTransaction_Success() {
+    void updateStatusTransaction_PendingToSuccess_SettlesTransfer() {
         TransactionUpdateRequest updateRequest = new TransactionUpdateRequest(TransactionStatus.SUCCESS);
         Transaction transaction = new Transaction();
         transaction.setStatus(TransactionStatus.PENDING);
 
-        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+        when(transactionRepository.findForUpdateById(1L)).thenReturn(Optional.of(transaction));
+        when(transferSettlement.settle(transaction)).thenAnswer(invocation -> {
+            transaction.setStatus(TransactionStatus.SUCCESS);
+            return TransferSettlement.COMPLETED;
+        });
         when(transactionRepository.save(transaction)).thenReturn(transaction);
-        when(transactionMapper.toTransactionResponse(transaction, "Status changed"))
-                .thenReturn(new TransactionResponse(TransactionStatus.SUCCESS, "Status changed"));
+        when(transactionMapper.toTransactionResponse(transaction, TransferSettlement.COMPLETED))
+                .thenReturn(new TransactionResponse(TransactionStatus.SUCCESS, TransferSettlement.COMPLETED));
 
         TransactionResponse response = transactionService.updateStatusTransaction(1L, updateRequest);
 
         assertEquals(TransactionStatus.SUCCESS, response.getStatus());
-        assertEquals("Status changed", response.getMessage());
+        assertEquals(TransferSettlement.COMPLETED, response.getMessage());
         verify(transactionRepository).save(transaction);
     }
 
     @Test
-    void getTransactions_WithFilters_Success() {
-        User user = createTestUser();
-        Card filterCard = createTestCard(user, CardStatus.ACTIVE);
+    void updateStatusTransaction_PendingToFailed_CancelsWithoutSettling() {
+        TransactionUpdateRequest updateRequest = new TransactionUpdateRequest(TransactionStatus.FAILED);
         Transaction transaction = new Transaction();
-        transaction.setSourceCard(filterCard);
         transaction.setStatus(TransactionStatus.PENDING);
 
-        Page<Transaction> page = new PageImpl<>(List.of(transaction));
+        when(transactionRepository.findForUpdateById(1L)).thenReturn(Optional.of(transaction));
+        when(transactionRepository.save(transaction)).thenReturn(transaction);
+        when(transactionMapper.toTransactionResponse(transaction, "Status changed"))
+                .thenReturn(new TransactionResponse(TransactionStatus.FAILED, "Status changed"));
+
+        TransactionResponse response = transactionService.updateStatusTransaction(1L, updateRequest);
+
+        assertEquals(TransactionStatus.FAILED, response.getStatus());
+        assertEquals(TransactionStatus.FAILED, transaction.getStatus());
+        verifyNoInteractions(transferSettlement);
+    }
+
+    @Test
+    void updateStatusTransaction_SettledTransfer_ThrowsBadRequest() {
+        TransactionUpdateRequest updateRequest = new TransactionUpdateRequest(TransactionStatus.FAILED);
+        Transaction transaction = new Transaction();
+        transaction.setStatus(TransactionStatus.SUCCESS);
+
+        when(transactionRepository.findForUpdateById(1L)).thenReturn(Optional.of(transaction));
+
+        assertThrows(BadRequestException.class, () -> transactionService.updateStatusTransaction(1L, updateRequest));
+        assertEquals(TransactionStatus.SUCCESS, transaction.getStatus());
+        verify(transactionRepository, never()).save(any());
+        verifyNoInteractions(transferSettlement);
+    }
+
+    @Test
+    void updateStatusTransaction_BackToPending_ThrowsBadRequest() {
+        TransactionUpdateRequest updateRequest = new TransactionUpdateRequest(TransactionStatus.PENDING);
+        Transaction transaction = new Transaction();
+        transaction.setStatus(TransactionStatus.FAILED);
+
+        when(transactionRepository.findForUpdateById(1L)).thenReturn(Optional.of(transaction));
+
+        assertThrows(BadRequestException.class, () -> transactionService.updateStatusTransaction(1L, updateRequest));
+        assertEquals(TransactionStatus.FAILED, transaction.getStatus());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void getTransactions_WithFilters_Success() {
+        TransactionView transaction = new TransactionView(1L, 1L, 2L, "1111", "2222", BigDecimal.TEN, null, TransactionStatus.PENDING);
 
-        when(cardRepository.findById(1L)).thenReturn(Optional.of(filterCard));
-        when(transactionRepository.findAll(any(Pageable.class))).thenReturn(page);
-        when(transactionMapper.toFullResponse(any())).thenReturn(new TransactionFullResponse());
+        Slice<TransactionView> page = new SliceImpl<>(List.of(transaction));
+
+        when(cardRepository.existsById(1L)).thenReturn(true);
+        when(transactionRepository.findViewsBySourceCardIdAndStatusBefore(eq(1L), eq(TransactionStatus.PENDING), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(page);
+        when(transactionMapper.toFullResponse(any(TransactionView.class))).thenReturn(new TransactionFullResponse());
 
         List<TransactionFullResponse> result = transactionService.getTransactions(
                 1L,
                 TransactionStatus.PENDING,
+                null,
+                null,
                 PageRequest.of(0, 10)
         );
 
         assertFalse(result.isEmpty());
-        verify(transactionRepository).findAll(any(Pageable.class));
+        verify(transactionRepository, never()).findAllViews(any(), any(), any(Pageable.class));
     }
 
     @Test
     void getTransactionsByCard_ValidCard_ReturnsTransactions() {
-        User user = createTestUser();
-        Card card = createTestCard(user, CardStatus.ACTIVE);
-        Transaction transaction = new Transaction();
-        transaction.setSourceCard(card);
-        transaction.setStatus(TransactionStatus.SUCCESS);
+        TransactionView transaction = new TransactionView(1L, 1L, 2L, "1111", "2222", BigDecimal.TEN, null, TransactionStatus.SUCCESS);
 
-        Page<Transaction> page = new PageImpl<>(List.of(transaction));
+        Slice<TransactionView> page = new SliceImpl<>(List.of(transaction));
 
-        when(cardRepository.findById(1L)).thenReturn(Optional.of(card));
-        when(transactionRepository.findAll(any(Pageable.class))).thenReturn(page);
-        when(transactionMapper.toFullResponse(any())).thenReturn(new TransactionFullResponse());
+        when(cardRepository.existsById(1L)).thenReturn(true);
+        when(transactionRepository.findViewsBySourceCardIdAndStatusBefore(eq(1L), eq(TransactionStatus.SUCCESS), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(page);
+        when(transactionMapper.toFullResponse(any(TransactionView.class))).thenReturn(new TransactionFullResponse());
 
         List<TransactionFullResponse> result = transactionService.getTransactionsByCard(
                 1L,
                 TransactionStatus.SUCCESS,
+                null,
+                null,
                 PageRequest.of(0, 10)
         );
 
         assertEquals(1, result.size());
-        verify(cardRepository).findById(1L);
+        verify(cardRepository).existsById(1L);
+    }
+
+    @Test
+    void getTransactions_StatusOnly_FiltersInQuery() {
+        Slice<TransactionView> page = new SliceImpl<>(List.of());
+        when(transactionRepository.findViewsByStatusBefore(eq(TransactionStatus.FAILED), any(LocalDateTime.class), any(Pageable.class))).thenReturn(page);
+
+        List<TransactionFullResponse> result = transactionService.getTransactions(null, TransactionStatus.FAILED, null, null, PageRequest.of(0, 10));
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(cardRepository);
+    }
+
+    @Test
+    void getTransactionsByCard_UnknownCard_ThrowsNotFound() {
+        when(cardRepository.existsById(5L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class,
+                () -> transactionService.getTransactionsByCard(5L, null, null, null, PageRequest.of(0, 10)));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void getTransactions_FromNotBeforeTo_ThrowsBadRequest() {
+        LocalDateTime to = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+        assertThrows(BadRequestException.class,
+                () -> transactionService.getTransactions(null, null, to, to, PageRequest.of(0, 10)));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void getTransactions_UnknownSortProperty_ThrowsBadRequest() {
+        assertThrows(BadRequestException.class,
+                () -> transactionService.getTransactions(null, null, null, null, PageRequest.of(0, 10, Sort.by("sourceCardId"))));
+        verifyNoInteractions(transactionRepository, transactionArchive);
+    }
+
+    @Test
+    void getTransactions_NoFrom_ListsWholeHistory() {
+        when(transactionRepository.findAllViewsBefore(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of()));
+
+        transactionService.getTransactions(null, null, null, null, PageRequest.of(0, 10));
+
+        verify(transactionRepository).findAllViewsBefore(any(LocalDateTime.class), any(Pageable.class));
+        verify(transactionRepository, never()).findAllViews(any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    void getTransactions_RangeCrossesArchiveHorizon_MergesArchiveAndDatabase() {
+        LocalDateTime horizon = LocalDateTime.of(2024, 4, 1, 0, 0);
+        LocalDateTime from = LocalDateTime.of(2024, 3, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 5, 1, 0, 0);
+        Sort sort = Sort.by(Sort.Direction.DESC, "timestamp");
+        TransactionView archived = new TransactionView(1L, 1L, 2L, "1111", "2222", BigDecimal.TEN, from.plusDays(1), TransactionStatus.SUCCESS);
+        TransactionView older = new TransactionView(2L, 1L, 2L, "1111", "2222", BigDecimal.TEN, from, TransactionStatus.SUCCESS);
+        TransactionView recent = new TransactionView(3L, 1L, 2L, "1111", "2222", BigDecimal.TEN, horizon.plusDays(1), TransactionStatus.SUCCESS);
+        when(transactionArchive.horizon()).thenReturn(horizon);
+        when(transactionArchive.find(null, null, from, horizon, sort, 2)).thenReturn(List.of(archived, older));
+        when(transactionRepository.findAllViews(horizon, to, PageRequest.of(0, 2, sort))).thenReturn(new SliceImpl<>(List.of(recent)));
+        when(transactionMapper.toFullResponse(any(TransactionView.class)))
+                .thenAnswer(invocation -> TransactionFullResponse.builder()
+                        .id(invocation.<TransactionView>getArgument(0).id())
+                        .build());
+
+        List<TransactionFullResponse> result = transactionService.getTransactions(null, null, from, to, PageRequest.of(1, 1, sort));
+
+        assertEquals(List.of(1L), result.stream().map(TransactionFullResponse::getId).toList());
+    }
+
+    @Test
+    void getTransactionsByCard_NoFrom_DoesNotReadArchive() {
+        when(cardRepository.existsById(1L)).thenReturn(true);
+        when(transactionArchive.horizon()).thenReturn(LocalDateTime.of(2024, 4, 1, 0, 0));
+        when(transactionRepository.findViewsBySourceCardIdBefore(eq(1L), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of()));
+
+        transactionService.getTransactionsByCard(1L, null, null, null, PageRequest.of(0, 10));
+
+        verify(transactionArchive, never()).find(any(), any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void getTransactionsByCard_FromBeforeArchiveHorizon_ReadsArchive() {
+        LocalDateTime from = LocalDateTime.of(2024, 3, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 3, 15, 0, 0);
+        when(cardRepository.existsById(1L)).thenReturn(true);
+        when(transactionArchive.horizon()).thenReturn(LocalDateTime.of(2024, 4, 1, 0, 0));
+        when(transactionArchive.find(1L, null, from, to, Sort.unsorted(), 10)).thenReturn(List.of());
+
+        transactionService.getTransactionsByCard(1L, null, from, to, PageRequest.of(0, 10));
+
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void getTransactions_RangeBeforeArchiveHorizon_ReadsOnlyArchive() {
+        LocalDateTime from = LocalDateTime.of(2024, 3, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 3, 15, 0, 0);
+        when(transactionArchive.horizon()).thenReturn(LocalDateTime.of(2024, 4, 1, 0, 0));
+        when(transactionArchive.find(null, null, from, to, Sort.unsorted(), 10)).thenReturn(List.of());
+
+        List<TransactionFullResponse> result = transactionService.getTransactions(null, null, from, to, PageRequest.of(0, 10));
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void getTransactions_ArchivedPageTooDeep_ThrowsBadRequest() {
+        LocalDateTime from = LocalDateTime.of(2024, 3, 1, 0, 0);
+        when(transactionArchive.horizon()).thenReturn(LocalDateTime.of(2024, 4, 1, 0, 0));
+        int page = TransactionServiceImpl.MAX_ARCHIVE_OFFSET / 10 + 1;
+
+        assertThrows(BadRequestException.class,
+                () -> transactionService.getTransactions(null, null, from, null, PageRequest.of(page, 10)));
+        verify(transactionArchive, never()).find(any(), any(), any(), any(), any(), anyInt());
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void getCardHistory_MorePages_ReturnsCursorOfLastTransaction() {
+        LocalDateTime now = LocalDateTime.of(2024, 3, 1, 12, 0);
+        List<TransactionView> rows = List.of(
+                new TransactionView(3L, 1L, 2L, "1111", "2222", BigDecimal.TEN, now, TransactionStatus.SUCCESS),
+                new TransactionView(2L, 2L, 1L, "2222", "1111", BigDecimal.TEN, now.minusMinutes(1), TransactionStatus.SUCCESS),
+                new TransactionView(1L, 1L, 2L, "1111", "2222", BigDecimal.TEN, now.minusMinutes(2), TransactionStatus.SUCCESS));
+        when(cardRepository.existsByIdAndOwnerId(1L, 1L)).thenReturn(true);
+        when(transactionRepository.findCardHistory(1L, null, null, 3)).thenReturn(rows);
+        when(transactionMapper.toFullResponse(any(TransactionView.class))).thenReturn(new TransactionFullResponse());
+
+        TransactionHistoryResponse response = transactionService.getCardHistory(principal, 1L, null, 2);
+
+        assertEquals(2, response.getContent().size());
+        assertEquals(new TransactionCursor(now.minusMinutes(1), 2L), TransactionCursor.decode(response.getNextCursor()));
+    }
+
+    @Test
+    void getCardHistory_WithCursor_SeeksBeforeIt() {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 3, 1, 12, 0);
+        String cursor = new TransactionCursor(timestamp, 7L).encode();
+        when(cardRepository.existsByIdAndOwnerId(1L, 1L)).thenReturn(true);
+        when(transactionRepository.findCardHistory(1L, timestamp, 7L, 21)).thenReturn(List.of());
+
+        TransactionHistoryResponse response = transactionService.getCardHistory(principal, 1L, cursor, 20);
+
+        assertTrue(response.getContent().isEmpty());
+        assertNull(response.getNextCursor());
+    }
+
+    @Test
+    void getCardHistory_ReachesArchiveHorizon_ContinuesFromArchive() {
+        LocalDateTime horizon = LocalDateTime.of(2024, 3, 1, 0, 0);
+        TransactionView recent = new TransactionView(5L, 1L, 2L, "1111", "2222", BigDecimal.TEN, horizon.plusDays(1), TransactionStatus.SUCCESS);
+        TransactionView beingDeleted = new TransactionView(4L, 1L, 2L, "1111", "2222", BigDecimal.TEN, horizon.minusDays(1), TransactionStatus.SUCCESS);
+        TransactionView archived = new TransactionView(3L, 2L, 1L, "2222", "1111", BigDecimal.TEN, horizon.minusDays(2), TransactionStatus.SUCCESS);
+        when(cardRepository.existsByIdAndOwnerId(1L, 1L)).thenReturn(true);
+        when(transactionRepository.findCardHistory(1L, null, null, 3)).thenReturn(List.of(recent, beingDeleted));
+        when(transactionArchive.horizon()).thenReturn(horizon);
+        when(transactionArchive.findCardHistory(1L, null, null, 2)).thenReturn(List.of(beingDeleted, archived));
+        when(transactionMapper.toFullResponse(any(TransactionView.class)))
+                .thenAnswer(invocation -> TransactionFullResponse.builder()
+                        .id(invocation.<TransactionView>getArgument(0).id())
+                        .build());
+
+        TransactionHistoryResponse response = transactionService.getCardHistory(principal, 1L, null, 2);
+
+        assertEquals(List.of(5L, 4L), response.getContent().stream().map(TransactionFullResponse::getId).toList());
+        assertEquals(new TransactionCursor(beingDeleted.timestamp(), 4L), TransactionCursor.decode(response.getNextCursor()));
+    }
+
+    @Test
+    void getCardHistory_NotOwner_ThrowsNotFound() {
+        when(cardRepository.existsByIdAndOwnerId(1L, 1L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> transactionService.getCardHistory(principal, 1L, null, 20));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void getCardHistory_InvalidCursor_ThrowsBadRequest() {
+        when(cardRepository.existsByIdAndOwnerId(1L, 1L)).thenReturn(true);
+
+        assertThrows(BadRequestException.class, () -> transactionService.getCardHistory(principal, 1L, "garbage", 20));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,95 @@
+package com.example.bankcards.service.transaction;
+
+import com.example.bankcards.exception.exception.BadRequestException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransferLanesTest {
+
+    private final TransferLanes lanes = new TransferLanes(true, 4, 10_000, new SimpleMeterRegistry());
+    private final ExecutorService callers = Executors.newFixedThreadPool(16);
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        lanes.close();
+    }
+
+    @Test
+    void execute_OverlappingCrossLaneTransfers_SerialisedPerCardWithoutDeadlock() throws Exception {
+        long a = 1;
+        long b = LongStream.rangeClosed(2, 100).filter(id -> lanes.lane(id) != lanes.lane(a)).findFirst().orElseThrow();
+        long c = LongStream.rangeClosed(2, 100)
+                .filter(id -> lanes.lane(id) != lanes.lane(a) && lanes.lane(id) != lanes.lane(b))
+                .findFirst().orElseThrow();
+        long[] cards = {a, b, c};
+        int[] balances = new int[3];
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            int from = i % 3;
+            int to = (i + 1 + i / 3 % 2) % 3;
+            futures.add(callers.submit(() -> lanes.execute(cards[from], cards[to], () -> {
+                balances[from]--;
+                balances[to]++;
+                return null;
+            })));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+
+        assertArrayEquals(new int[]{0, 0, 0}, balances);
+    }
+
+    @Test
+    void execute_CrossLaneTransferWaiting_DoesNotHoldOtherCardsOfItsLanes() throws Exception {
+        long a = 1;
+        long b = LongStream.rangeClosed(2, 100).filter(id -> lanes.lane(id) != lanes.lane(a)).findFirst().orElseThrow();
+        long c = LongStream.rangeClosed(2, 100).filter(id -> lanes.lane(id) == lanes.lane(a)).findFirst().orElseThrow();
+        CountDownLatch busy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<?> blocking = callers.submit(() -> lanes.execute(b, b, () -> {
+            busy.countDown();
+            return await(release);
+        }));
+        assertTrue(busy.await(5, TimeUnit.SECONDS));
+        Future<String> waiting = callers.submit(() -> lanes.execute(a, b, () -> "a->b"));
+        Future<String> unrelated = callers.submit(() -> lanes.execute(c, c, () -> "c"));
+
+        assertEquals("c", unrelated.get(5, TimeUnit.SECONDS));
+        assertFalse(waiting.isDone());
+        release.countDown();
+        assertEquals("a->b", waiting.get(5, TimeUnit.SECONDS));
+        blocking.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void execute_TransferThrows_RethrowsToCaller() {
+        assertThrows(BadRequestException.class, () -> lanes.execute(1, 2, () -> {
+            throw new BadRequestException("Transaction can only be made between your cards");
+        }));
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
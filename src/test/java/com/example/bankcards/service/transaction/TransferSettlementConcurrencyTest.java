@@ -0,0 +1,164 @@
+package com.example.bankcards.service.transaction;
+
+import com.example.bankcards.entity.card.Card;
+import com.example.bankcards.entity.card.CardStatus;
+import com.example.bankcards.entity.transaction.Transaction;
+import com.example.bankcards.entity.transaction.TransactionStatus;
+import com.example.bankcards.entity.user.User;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.PostgresContainerSupport;
+import com.example.bankcards.repository.TransactionRepository;
+import com.example.bankcards.util.CardKeyProvider;
+import com.example.bankcards.util.CardNumberBlindIndex;
+import com.example.bankcards.util.CardNumberEncryptorConverter;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Concurrent transfers over overlapping card pairs must neither deadlock nor lose updates. Skipped without Docker.
+ */
+@Slf4j
+@DataJpaTest(properties = "spring.datasource.hikari.maximum-pool-size=" + TransferSettlementConcurrencyTest.WORKERS)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TransferSettlement.class, CardKeyProvider.class, CardNumberEncryptorConverter.class, CardNumberBlindIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransferSettlementConcurrencyTest extends PostgresContainerSupport {
+    static final int WORKERS = 64;
+    private static final int CARDS = 8;
+    private static final int ROUNDS = 20;
+    private static final BigDecimal OPENING_BALANCE = BigDecimal.valueOf(100_000);
+    private static final BigDecimal AMOUNT = BigDecimal.TEN;
+
+    @Autowired private TransferSettlement transferSettlement;
+    @Autowired private CardRepository cardRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private CardNumberBlindIndex cardNumberBlindIndex;
+    @Autowired private EntityManager entityManager;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private final List<Long> cardIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            transactionRepository.deleteAllInBatch();
+            cardRepository.deleteAllInBatch();
+
+            User owner = User.builder()
+                    .username("settlement" + System.nanoTime())
+                    .password("password")
+                    .email("settlement@example.com")
+                    .roles(Set.of())
+                    .build();
+            entityManager.persist(owner);
+            for (int i = 0; i < CARDS; i++) {
+                String cardNumber = String.format("5000%012d", i);
+                cardIds.add(cardRepository.save(Card.builder()
+                        .cardNumber(cardNumber)
+                        .cardNumberHash(cardNumberBlindIndex.hash(cardNumber))
+                        .last4(cardNumber.substring(12))
+                        .owner(owner)
+                        .expirationDate(LocalDate.now().plusYears(1))
+                        .balance(OPENING_BALANCE)
+                        .status(CardStatus.ACTIVE)
+                        .build()).getId());
+            }
+        });
+    }
+
+    @Test
+    void settle_OverlappingPairs_NoDeadlocksNoLostUpdates() throws Exception {
+        long[] net = new long[CARDS];
+        for (int worker = 0; worker < WORKERS; worker++) {
+            for (int round = 0; round < ROUNDS; round++) {
+                net[source(worker, round)] -= AMOUNT.longValue();
+                net[target(worker, round)] += AMOUNT.longValue();
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(WORKERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int worker = 0; worker < WORKERS; worker++) {
+            int w = worker;
+            results.add(executor.submit(() -> {
+                start.await();
+                int succeeded = 0;
+                for (int round = 0; round < ROUNDS; round++) {
+                    if (transfer(cardIds.get(source(w, round)), cardIds.get(target(w, round))) == TransactionStatus.SUCCESS) {
+                        succeeded++;
+                    }
+                }
+                return succeeded;
+            }));
+        }
+
+        long started = System.nanoTime();
+        start.countDown();
+        int succeeded = 0;
+        for (Future<Integer> result : results) {
+            succeeded += result.get(2, TimeUnit.MINUTES);
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        executor.shutdown();
+
+        int transfers = WORKERS * ROUNDS;
+        log.info("Settled {} transfers with {} workers in {} s: {} transfers/s",
+                transfers, WORKERS, String.format("%.2f", seconds), Math.round(transfers / seconds));
+
+        assertEquals(transfers, succeeded);
+        for (int i = 0; i < CARDS; i++) {
+            BigDecimal expected = OPENING_BALANCE.add(BigDecimal.valueOf(net[i]));
+            assertEquals(0, expected.compareTo(cardRepository.findById(cardIds.get(i)).orElseThrow().getBalance()),
+                    "balance of card " + i);
+        }
+    }
+
+    private TransactionStatus transfer(Long sourceId, Long targetId) {
+        return transactionTemplate.execute(status -> {
+            Transaction transaction = Transaction.builder()
+                    .sourceCard(cardRepository.findById(sourceId).orElseThrow())
+                    .targetCard(cardRepository.findById(targetId).orElseThrow())
+                    .amount(AMOUNT)
+                    .build();
+            transferSettlement.settle(transaction);
+            return transactionRepository.save(transaction).getStatus();
+        });
+    }
+
+    private static int source(int worker, int round) {
+        return (worker + round) % CARDS;
+    }
+
+    /**
+     * Never the source card; with offsets 1..7 pair (a, b) is also used as (b, a) by other workers.
+     */
+    private static int target(int worker, int round) {
+        return (source(worker, round) + 1 + (worker / CARDS + round) % (CARDS - 1)) % CARDS;
+    }
+}
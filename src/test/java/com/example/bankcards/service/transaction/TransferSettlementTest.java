@@ -0,0 +1,88 @@
+package com.example.bankcards.service.transaction;
+
+import com.example.bankcards.entity.card.Card;
+import com.example.bankcards.entity.card.CardStatus;
+import com.example.bankcards.entity.transaction.Transaction;
+import com.example.bankcards.entity.transaction.TransactionStatus;
+import com.example.bankcards.repository.CardRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TransferSettlementTest {
+
+    @Mock
+    private CardRepository cardRepository;
+    @InjectMocks
+    private TransferSettlement transferSettlement;
+
+    private Card card(long id, CardStatus status, long balance) {
+        return Card.builder()
+                .id(id)
+                .status(status)
+                .balance(BigDecimal.valueOf(balance))
+                .build();
+    }
+
+    private Transaction transfer(Card source, Card target, long amount) {
+        return Transaction.builder()
+                .sourceCard(source)
+                .targetCard(target)
+                .amount(BigDecimal.valueOf(amount))
+                .build();
+    }
+
+    @Test
+    void settle_Success_MovesMoneyUnderLock() {
+        Card source = card(2L, CardStatus.ACTIVE, 100);
+        Card target = card(1L, CardStatus.ACTIVE, 5);
+        Transaction transaction = transfer(source, target, 40);
+
+        String message = transferSettlement.settle(transaction);
+
+        assertEquals(TransferSettlement.COMPLETED, message);
+        assertEquals(TransactionStatus.SUCCESS, transaction.getStatus());
+        assertEquals(BigDecimal.valueOf(60), source.getBalance());
+        assertEquals(BigDecimal.valueOf(45), target.getBalance());
+        verify(cardRepository).lockForUpdate(List.of(source, target));
+    }
+
+    @Test
+    void settle_InsufficientFunds_FailsWithoutMovingMoney() {
+        Card source = card(1L, CardStatus.ACTIVE, 10);
+        Card target = card(2L, CardStatus.ACTIVE, 0);
+        Transaction transaction = transfer(source, target, 11);
+
+        String message = transferSettlement.settle(transaction);
+
+        assertEquals("Insufficient funds", message);
+        assertEquals(TransactionStatus.FAILED, transaction.getStatus());
+        assertEquals(BigDecimal.valueOf(10), source.getBalance());
+        assertEquals(BigDecimal.ZERO, target.getBalance());
+    }
+
+    @Test
+    void settle_BlockedTarget_Fails() {
+        Transaction transaction = transfer(card(1L, CardStatus.ACTIVE, 100), card(2L, CardStatus.BLOCKED, 0), 10);
+
+        assertEquals("Cannot use blocked card", transferSettlement.settle(transaction));
+        assertEquals(TransactionStatus.FAILED, transaction.getStatus());
+    }
+
+    @Test
+    void settle_ExpiredSource_Fails() {
+        Transaction transaction = transfer(card(1L, CardStatus.EXPIRED, 100), card(2L, CardStatus.ACTIVE, 0), 10);
+
+        assertEquals("Cannot use expired card", transferSettlement.settle(transaction));
+        assertEquals(TransactionStatus.FAILED, transaction.getStatus());
+    }
+}
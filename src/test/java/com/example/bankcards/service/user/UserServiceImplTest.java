@@ -15,7 +15,10 @@ import com.example.bankcards.exception.exception.NotFoundException;
 import com.example.bankcards.mapper.UserMapper;
 import com.example.bankcards.repository.RoleRepository;
 import com.example.bankcards.repository.UserRepository;
-import java.security.Principal;
+import com.example.bankcards.security.jwt.metrics.LoginMetrics;
+import com.example.bankcards.security.jwt.model.JwtPrincipal;
+import com.example.bankcards.security.jwt.service.RefreshTokenService;
+import java.util.List;
 import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
@@ -34,6 +37,8 @@ class UserServiceImplTest {
     @Mock private RoleRepository roleRepository;
     @Mock private UserMapper userMapper;
     @Mock private PasswordEncoder passwordEncoder;
+    @Mock private LoginMetrics loginMetrics;
+    @Mock private RefreshTokenService refreshTokenService;
 
     @InjectMocks private UserServiceImpl userService;
 
@@ -83,15 +88,9 @@ class UserServiceImplTest {
 
     @Test
     void changeUserRole_AddRole_Success() {
-        Principal principal = () -> "admin";
+        JwtPrincipal principal = new JwtPrincipal(1L, null, "admin", List.of("ROLE_ADMIN"), null, null);
         ChangeRoleRequest request = new ChangeRoleRequest("targetUser", "ADMIN", ChangeRoleType.ADD);
 
-        User admin = User.builder()
-                .id(1L)
-                .username("admin")
-                .roles(new HashSet<>())
-                .build();
-
         User targetUser = User.builder()
                 .id(2L)
                 .username("targetUser")
@@ -100,7 +99,6 @@ class UserServiceImplTest {
 
         Role newRole = new Role(2L, "ROLE_ADMIN");
 
-        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(admin));
         when(userRepository.findByUsername("targetUser")).thenReturn(Optional.of(targetUser));
         when(roleRepository.findByName("ROLE_ADMIN")).thenReturn(Optional.of(newRole));
         when(userMapper.toUserResponse(targetUser)).thenReturn(new UserResponse(2L, "targetUser", "target@mail.com"));
@@ -109,13 +107,13 @@ class UserServiceImplTest {
 
         assertNotNull(response);
         assertTrue(targetUser.getRoles().contains(newRole));
-        verify(userRepository, times(1)).findByUsername("admin");
+        verify(userRepository, never()).findByUsername("admin");
         verify(userRepository, times(1)).findByUsername("targetUser");
     }
 
     @Test
     void changeUserRole_SelfModification_ThrowsException() {
-        Principal principal = () -> "user";
+        JwtPrincipal principal = new JwtPrincipal(1L, null, "user", List.of("ROLE_ADMIN"), null, null);
         ChangeRoleRequest request = new ChangeRoleRequest("user", "ADMIN", ChangeRoleType.ADD);
 
         User user = User.builder()
@@ -134,14 +132,12 @@ class UserServiceImplTest {
 
     @Test
     void changeUserRole_RemoveDefaultRole_ThrowsException() {
-        Principal principal = () -> "admin";
+        JwtPrincipal principal = new JwtPrincipal(1L, null, "admin", List.of("ROLE_ADMIN"), null, null);
         ChangeRoleRequest request = new ChangeRoleRequest("target", "USER", ChangeRoleType.REMOVE);
 
-        User admin = User.builder().id(1L).build();
         User target = User.builder().id(2L).roles(new HashSet<>()).build();
         Role defaultRole = new Role(1L, "ROLE_USER");
 
-        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(admin));
         when(userRepository.findByUsername("target")).thenReturn(Optional.of(target));
 
         BadRequestException exception = assertThrows(BadRequestException.class,
@@ -152,7 +148,7 @@ class UserServiceImplTest {
 
     @Test
     void update_PasswordUpdate_EncodesPassword() {
-        Principal principal = () -> "user";
+        JwtPrincipal principal = new JwtPrincipal(1L, null, "user", List.of("ROLE_USER"), null, null);
         UserUpdateRequest updates = UserUpdateRequest.builder()
                 .password("newPass")
                 .confirmPassword("newPass")
@@ -166,7 +162,7 @@ class UserServiceImplTest {
                 .roles(new HashSet<>())
                 .build();
 
-        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         when(passwordEncoder.encode("newPass")).thenReturn("newEncoded");
         when(userMapper.toUserResponse(user)).thenReturn(new UserResponse(1L, "user", "user@mail.com"));
 
@@ -174,6 +170,7 @@ class UserServiceImplTest {
 
         assertEquals("newEncoded", user.getPassword());
         verify(passwordEncoder).encode("newPass");
+        verify(refreshTokenService).revokeAll(user.getId());
     }
 
     @Test
@@ -198,13 +195,10 @@ class UserServiceImplTest {
 
     @Test
     void deleteById_SelfDeletion_ThrowsException() {
-        Principal principal = () -> "user";
+        JwtPrincipal principal = new JwtPrincipal(1L, null, "user", List.of("ROLE_ADMIN"), null, null);
         Long userId = 1L;
 
         when(userRepository.existsById(userId)).thenReturn(true);
-        when(userRepository.findByUsername("user")).thenReturn(Optional.of(
-                User.builder().id(1L).build()
-        ));
 
         BadRequestException exception = assertThrows(BadRequestException.class,
                 () -> userService.deleteById(userId, principal));
@@ -215,7 +209,7 @@ class UserServiceImplTest {
     @Test
     void deleteById_NonExistingUser_ThrowsException() {
         Long userId = 999L;
-        Principal principal = () -> "admin";
+        JwtPrincipal principal = new JwtPrincipal(1L, null, "admin", List.of("ROLE_ADMIN"), null, null);
 
         when(userRepository.existsById(userId)).thenReturn(false);
 
@@ -0,0 +1,82 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.exception.exception.EncryptionException;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.core.metrics.ApplicationStartup;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardKeyProviderTest {
+
+    private static final String PASSWORD = "uB7!kP2#qR9@zY5*eF3$jH6%mN1^wL4&";
+    private static final String SALT = "sE7#rT2@kY9!pL5*";
+
+    @Test
+    void aesKey_DerivedFromPassword_MatchesFormer256BitDerivation() throws Exception {
+        CardKeyProvider keyProvider = new CardKeyProvider(PASSWORD, SALT, "", "", List.of(), 1, ApplicationStartup.DEFAULT);
+
+        byte[] former = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256")
+                .generateSecret(new PBEKeySpec(PASSWORD.toCharArray(), SALT.getBytes(StandardCharsets.UTF_8), 65536, 256))
+                .getEncoded();
+
+        assertArrayEquals(former, keyProvider.aesKey().getEncoded());
+        assertEquals(32, keyProvider.hmacKey().getEncoded().length);
+    }
+
+    @Test
+    void keys_RawKeysConfigured_UsedWithoutDerivation() {
+        byte[] aesKey = new byte[32];
+        byte[] hmacKey = new byte[32];
+        hmacKey[0] = 1;
+
+        CardKeyProvider keyProvider = new CardKeyProvider("", "",
+                Base64.getEncoder().encodeToString(aesKey), Base64.getEncoder().encodeToString(hmacKey),
+                List.of(), 1, ApplicationStartup.DEFAULT);
+
+        assertArrayEquals(aesKey, keyProvider.aesKey().getEncoded());
+        assertArrayEquals(hmacKey, keyProvider.hmacKey().getEncoded());
+    }
+
+    @Test
+    void constructor_NothingConfigured_ThrowsException() {
+        assertThrows(EncryptionException.class,
+                () -> new CardKeyProvider("", "", "", "", List.of(), 1, ApplicationStartup.DEFAULT));
+    }
+
+    @Test
+    void derivation_RecordedInStartupTimeline() {
+        BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(16);
+
+        new CardKeyProvider(PASSWORD, SALT, "", "", List.of(), 1, applicationStartup).aesKey();
+
+        assertTrue(applicationStartup.getBufferedTimeline().getEvents().stream()
+                .anyMatch(event -> event.getStartupStep().getName().equals("bankcards.card-keys.derive")));
+    }
+
+    @Test
+    void aesKey_AdditionalKeyActive_UsedForNewCiphertextAndVersionOneKept() {
+        byte[] rotated = new byte[32];
+        rotated[0] = 2;
+        String entry = "2:" + Base64.getEncoder().encodeToString(rotated);
+
+        CardKeyProvider keyProvider = new CardKeyProvider(PASSWORD, SALT, "", "", List.of("", entry), 2, ApplicationStartup.DEFAULT);
+
+        assertEquals(2, keyProvider.activeVersion());
+        assertArrayEquals(rotated, keyProvider.aesKey().getEncoded());
+        assertNotEquals(keyProvider.aesKey(1), keyProvider.aesKey());
+        assertThrows(EncryptionException.class, () -> keyProvider.aesKey(3));
+    }
+
+    @Test
+    void constructor_ActiveVersionNotConfigured_ThrowsException() {
+        assertThrows(EncryptionException.class,
+                () -> new CardKeyProvider(PASSWORD, SALT, "", "", List.of(), 2, ApplicationStartup.DEFAULT));
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.bankcards.util;
 
+import com.example.bankcards.entity.card.Card;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -27,4 +28,22 @@ class CardMaskingUtilTest {
     void mask_EmptyString_ReturnsEmpty() {
         assertEquals("", CardMaskingUtil.mask(""));
     }
-}
\ No newline at end of file
+
+    @Test
+    void maskedNumber_WithLast4_DoesNotReadCardNumber() {
+        Card card = Card.builder().last4("5678").build();
+        assertEquals("**** **** **** 5678", CardMaskingUtil.maskedNumber(card));
+    }
+
+    @Test
+    void maskedNumber_NotBackfilled_FallsBackToCardNumber() {
+        Card card = Card.builder().cardNumber("1234567812345678").build();
+        assertEquals("**** **** **** 5678", CardMaskingUtil.maskedNumber(card));
+    }
+
+    @Test
+    void last4_Valid16DigitCard_ReturnsLastFourDigits() {
+        assertEquals("5678", CardMaskingUtil.last4("1234567812345678"));
+        assertNull(CardMaskingUtil.last4(null));
+    }
+}
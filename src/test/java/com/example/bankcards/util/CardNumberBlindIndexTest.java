@@ -0,0 +1,30 @@
+package com.example.bankcards.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.metrics.ApplicationStartup;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardNumberBlindIndexTest {
+
+    private final CardNumberBlindIndex cardNumberBlindIndex = new CardNumberBlindIndex(new CardKeyProvider(
+            "", "", "MDEyMzQ1Njc4OWFiY2RlZjAxMjM0NTY3ODlhYmNkZWY=", "ZmVkY2JhOTg3NjU0MzIxMGZlZGNiYTk4NzY1NDMyMTA=",
+            List.of(), 1, ApplicationStartup.DEFAULT));
+
+    @Test
+    void hash_SameNumber_IsDeterministic() {
+        assertEquals(cardNumberBlindIndex.hash("1234567812345678"), cardNumberBlindIndex.hash("1234567812345678"));
+    }
+
+    @Test
+    void hash_DifferentNumbers_Differ() {
+        assertNotEquals(cardNumberBlindIndex.hash("1234567812345678"), cardNumberBlindIndex.hash("1234567812345679"));
+    }
+
+    @Test
+    void hash_IsHexOfHmacSha256() {
+        assertTrue(cardNumberBlindIndex.hash("1234567812345678").matches("[0-9a-f]{64}"));
+    }
+}
@@ -3,21 +3,37 @@ package com.example.bankcards.util;
 import com.example.bankcards.exception.exception.EncryptionException;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.springframework.core.metrics.ApplicationStartup;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class CardNumberEncryptorConverterTest {
 
+    private static CardKeyProvider keyProvider;
     private static CardNumberEncryptorConverter converter;
 
     @BeforeAll
     static void setup() {
-        converter = new CardNumberEncryptorConverter();
+        keyProvider = new CardKeyProvider("uB7!kP2#qR9@zY5*eF3$jH6%mN1^wL4&", "sE7#rT2@kY9!pL5*", "", "", List.of(), 1, ApplicationStartup.DEFAULT);
+        converter = new CardNumberEncryptorConverter(keyProvider);
     }
 
     @Test
     void encryptionAndDecryption_RoundTrip_Success() {
         String original = "1234567812345678";
-        String encrypted = converter.convertToDatabaseColumn(original);
+        byte[] encrypted = converter.convertToDatabaseColumn(original);
         String decrypted = converter.convertToEntityAttribute(encrypted);
         assertEquals(original, decrypted);
     }
@@ -28,14 +44,102 @@ class CardNumberEncryptorConverterTest {
     }
 
     @Test
-    void decrypt_InvalidBase64_ThrowsException() {
-        assertThrows(EncryptionException.class, () -> converter.convertToEntityAttribute("invalid_base64!"));
+    void decrypt_TooShort_ThrowsException() {
+        assertThrows(EncryptionException.class, () -> converter.convertToEntityAttribute(new byte[]{1}));
+    }
+
+    @Test
+    void decrypt_UnknownKeyVersion_ThrowsException() {
+        byte[] valid = converter.convertToDatabaseColumn("1234567812345678");
+        valid[0] = 9;
+        assertThrows(EncryptionException.class, () -> converter.convertToEntityAttribute(valid));
     }
 
     @Test
     void decrypt_CorruptedCiphertext_ThrowsException() {
-        String valid = converter.convertToDatabaseColumn("valid_card");
-        String corrupted = valid.substring(0, valid.length() - 5);
+        byte[] valid = converter.convertToDatabaseColumn("valid_card");
+        byte[] corrupted = Arrays.copyOf(valid, valid.length - 5);
         assertThrows(EncryptionException.class, () -> converter.convertToEntityAttribute(corrupted));
     }
-}
\ No newline at end of file
+
+    @Test
+    void decrypt_AfterCorruptedCiphertext_CipherStillUsable() {
+        byte[] valid = converter.convertToDatabaseColumn("1234567812345678");
+        assertThrows(EncryptionException.class,
+                () -> converter.convertToEntityAttribute(Arrays.copyOf(valid, valid.length - 5)));
+
+        assertEquals("1234567812345678", converter.convertToEntityAttribute(valid));
+    }
+
+    @Test
+    void encryptionAndDecryption_ConcurrentThreads_RoundTrip() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = IntStream.range(0, 200)
+                    .mapToObj(i -> executor.submit(() -> {
+                        String original = String.format("4000%012d", i);
+                        return original.equals(converter.convertToEntityAttribute(converter.convertToDatabaseColumn(original)));
+                    }))
+                    .toList();
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void encrypt_SameNumberTwice_ProducesDifferentCiphertexts() {
+        byte[] first = converter.convertToDatabaseColumn("1234567812345678");
+        byte[] second = converter.convertToDatabaseColumn("1234567812345678");
+
+        assertEquals(1, first[0]);
+        assertEquals(1 + 12 + 16 + 16, first.length);
+        assertFalse(Arrays.equals(first, second));
+    }
+
+    @Test
+    void decrypt_LegacyCbcCiphertext_Success() throws Exception {
+        Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+        cipher.init(Cipher.ENCRYPT_MODE, keyProvider.aesKey(), new IvParameterSpec(new byte[16]));
+        byte[] encrypted = cipher.doFinal("1234567812345678".getBytes(StandardCharsets.UTF_8));
+        byte[] legacy = new byte[encrypted.length + 1];
+        System.arraycopy(encrypted, 0, legacy, 1, encrypted.length);
+
+        assertEquals("1234567812345678", converter.convertToEntityAttribute(legacy));
+    }
+
+    @Test
+    void decrypt_TamperedGcmCiphertext_ThrowsException() {
+        byte[] tampered = converter.convertToDatabaseColumn("1234567812345678");
+        tampered[tampered.length - 3] ^= 1;
+
+        assertThrows(EncryptionException.class, () -> converter.convertToEntityAttribute(tampered));
+    }
+
+    @Test
+    void rotation_OldVersionsDecrypted_NewValuesUseActiveVersion() {
+        byte[] rotated = new byte[32];
+        rotated[0] = 2;
+        CardKeyProvider rotatedProvider = new CardKeyProvider("uB7!kP2#qR9@zY5*eF3$jH6%mN1^wL4&", "sE7#rT2@kY9!pL5*", "", "",
+                List.of("2:" + Base64.getEncoder().encodeToString(rotated)), 2, ApplicationStartup.DEFAULT);
+        CardNumberEncryptorConverter rotatedConverter = new CardNumberEncryptorConverter(rotatedProvider);
+
+        byte[] old = converter.convertToDatabaseColumn("1234567812345678");
+        byte[] current = rotatedConverter.convertToDatabaseColumn("1234567812345678");
+
+        assertEquals(2, current[0]);
+        assertEquals("1234567812345678", rotatedConverter.convertToEntityAttribute(old));
+        assertEquals("1234567812345678", rotatedConverter.convertToEntityAttribute(current));
+        assertFalse(rotatedConverter.isCurrent(old));
+        assertTrue(rotatedConverter.isCurrent(current));
+    }
+
+    @Test
+    void isCurrent_ComparesVersionByte() {
+        assertTrue(converter.isCurrent(new byte[]{1, 0, 0}));
+        assertFalse(converter.isCurrent(new byte[]{0, 0, 0}));
+        assertFalse(converter.isCurrent(new byte[0]));
+    }
+}
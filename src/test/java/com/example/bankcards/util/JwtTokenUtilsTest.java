@@ -0,0 +1,65 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.security.jwt.model.JwtPrincipal;
+import com.example.bankcards.security.jwt.model.JwtUserDetails;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenUtilsTest {
+
+    private static final String SECRET = "FnEn4/+++2q7Nf7mjdfLMAn3GmflxXn1GKmBingHfJs=";
+
+    private final JwtTokenUtils jwtTokenUtils = new JwtTokenUtils(SECRET, Duration.ofHours(1));
+
+    private final JwtUserDetails userDetails = new JwtUserDetails(7L, "user", "password", List.of(
+            new SimpleGrantedAuthority("ROLE_USER"),
+            new SimpleGrantedAuthority("ROLE_ADMIN")));
+
+    @Test
+    void parseToken_ValidToken_ReturnsPrincipal() {
+        String token = jwtTokenUtils.generateToken(userDetails);
+
+        JwtPrincipal principal = jwtTokenUtils.parseToken(token);
+
+        assertEquals(7L, principal.getId());
+        assertEquals("user", principal.getUsername());
+        assertEquals(Set.of("ROLE_USER", "ROLE_ADMIN"), Set.copyOf(principal.getRoles()));
+        assertNotNull(principal.getIssuedAt());
+        assertTrue(principal.getExpiresAt().isAfter(Instant.now()));
+    }
+
+    @Test
+    void generateToken_EachTokenHasUniqueId() {
+        String first = jwtTokenUtils.parseToken(jwtTokenUtils.generateToken(userDetails)).getTokenId();
+        String second = jwtTokenUtils.parseToken(jwtTokenUtils.generateToken(userDetails)).getTokenId();
+
+        assertNotNull(first);
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    void parseToken_ExpiredToken_ThrowsExpiredJwtException() {
+        JwtTokenUtils expiredTokenUtils = new JwtTokenUtils(SECRET, Duration.ofHours(-1));
+        String token = expiredTokenUtils.generateToken(userDetails);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtTokenUtils.parseToken(token));
+    }
+
+    @Test
+    void parseToken_ForeignSignature_ThrowsJwtException() {
+        JwtTokenUtils foreignTokenUtils = new JwtTokenUtils(
+                "c2VjcmV0LWtleS1mb3ItYW5vdGhlci1iYW5rLXNlcnZpY2UtMzI=", Duration.ofHours(1));
+        String token = foreignTokenUtils.generateToken(userDetails);
+
+        assertThrows(JwtException.class, () -> jwtTokenUtils.parseToken(token));
+    }
+}